@@ -2,6 +2,8 @@ plugins {
 	java
 	id("org.springframework.boot") version "3.5.0"
 	id("io.spring.dependency-management") version "1.1.7"
+	id("org.hibernate.orm") version "6.6.15.Final"
+	id("me.champeau.jmh") version "0.7.3"
 }
 
 group = "com.ifsp"
@@ -17,18 +19,52 @@ repositories {
 	mavenCentral()
 }
 
+sourceSets {
+	create("loadtest")
+}
+
 dependencies {
 	implementation("org.springdoc:springdoc-openapi-starter-webmvc-ui:2.5.0")
+	implementation("org.springframework.boot:spring-boot-starter-actuator")
 	implementation("org.springframework.boot:spring-boot-starter-data-jdbc")
 	implementation("org.springframework.boot:spring-boot-starter-data-jpa")
 	implementation("org.springframework.boot:spring-boot-starter-web")
+	implementation("net.ttddyy:datasource-proxy:1.10.1")
+	implementation("org.hibernate.orm:hibernate-micrometer")
+	implementation("org.springframework.security:spring-security-crypto")
 	//implementation("org.springframework.boot:spring-boot-starter-security")
 	runtimeOnly("com.mysql:mysql-connector-j")
+	runtimeOnly("com.h2database:h2")
+	runtimeOnly("io.micrometer:micrometer-registry-prometheus")
 	testImplementation("org.springframework.boot:spring-boot-starter-test")
 	testImplementation("org.springframework.security:spring-security-test")
 	testRuntimeOnly("org.junit.platform:junit-platform-launcher")
+	"loadtestImplementation"("org.hdrhistogram:HdrHistogram:2.2.2")
+}
+
+hibernate {
+	enhancement {
+		enableLazyInitialization = true
+	}
+}
+
+jmh {
+	jmhVersion = "1.37"
+	fork = 1
+	warmupIterations = 3
+	iterations = 5
+	resultFormat = "JSON"
+	resultsFile = layout.buildDirectory.file("reports/jmh/results.json")
 }
 
 tasks.withType<Test> {
 	useJUnitPlatform()
 }
+
+tasks.register<JavaExec>("loadtest") {
+	group = "verification"
+	description = "Gera carga contra a aplicação no perfil loadtest: -Pcarga=\"--taxa=... --duracao=...\""
+	classpath = sourceSets["loadtest"].runtimeClasspath
+	mainClass = "com.ifsp.app.carga.Carga"
+	args = providers.gradleProperty("carga").getOrElse("").split(" ").filter { it.isNotBlank() }
+}
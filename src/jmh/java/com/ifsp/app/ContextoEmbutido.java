@@ -0,0 +1,23 @@
+package com.ifsp.app;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Sobe a aplicação sem servidor web, no perfil {@code embedded} (H2 em memória), para os benchmarks
+ * chamarem os beans diretamente.
+ */
+public final class ContextoEmbutido {
+
+    private ContextoEmbutido() {
+    }
+
+    public static ConfigurableApplicationContext iniciar() {
+        return new SpringApplicationBuilder(ANoteApplication.class)
+                .profiles("embedded")
+                .web(WebApplicationType.NONE)
+                .logStartupInfo(false)
+                .run();
+    }
+}
@@ -0,0 +1,19 @@
+package com.ifsp.app.controller;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class CorControllerBenchmark {
+
+    private final CorController corController = new CorController();
+
+    @Benchmark
+    public List<String> listarCores() {
+        return corController.listarCores();
+    }
+}
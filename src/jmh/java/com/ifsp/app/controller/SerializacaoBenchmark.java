@@ -0,0 +1,81 @@
+package com.ifsp.app.controller;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ifsp.app.controller.dto.AnotacaoExportacaoDTO;
+import com.ifsp.app.controller.dto.AnotacaoResponseDTO;
+import com.ifsp.app.controller.dto.AnotacaoResumoDTO;
+import com.ifsp.app.controller.dto.CadernoResponseDTO;
+import com.ifsp.app.controller.dto.PaginaDTO;
+import com.ifsp.app.controller.dto.UsuarioResponseDTO;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialização das respostas da API. As entidades nunca vão direto para o Jackson (os relacionamentos são
+ * bidirecionais e preguiçosos); o que se mede aqui são os DTOs que os controllers devolvem.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SerializacaoBenchmark {
+
+    @Param({"1", "50", "500"})
+    private int tamanho;
+
+    private final ObjectMapper mapper = Jackson2ObjectMapperBuilder.json().build();
+
+    private AnotacaoResponseDTO anotacao;
+    private PaginaDTO<AnotacaoResumoDTO> anotacoes;
+    private PaginaDTO<CadernoResponseDTO> cadernos;
+    private PaginaDTO<UsuarioResponseDTO> usuarios;
+    private List<AnotacaoExportacaoDTO> exportacao;
+
+    @Setup
+    public void montar() {
+        String corpo = "- [ ] tarefa pendente com alguma descrição\n".repeat(tamanho);
+        anotacao = new AnotacaoResponseDTO(1L, 3L, "Anotação", corpo, 1L, 1L);
+        List<AnotacaoResumoDTO> resumos = new ArrayList<>(tamanho);
+        List<CadernoResponseDTO> listaCadernos = new ArrayList<>(tamanho);
+        List<UsuarioResponseDTO> listaUsuarios = new ArrayList<>(tamanho);
+        exportacao = new ArrayList<>(tamanho);
+        for (long i = 1; i <= tamanho; i++) {
+            resumos.add(new AnotacaoResumoDTO(i, "Anotação " + i, 1L, i % 10));
+            listaCadernos.add(new CadernoResponseDTO(i, 0L, "Caderno " + i, 1L));
+            listaUsuarios.add(new UsuarioResponseDTO(i, 0L, "Usuário " + i, "usuario" + i + "@anote.dev"));
+            exportacao.add(new AnotacaoExportacaoDTO(i, i % 10, "Anotação " + i, corpo));
+        }
+        anotacoes = new PaginaDTO<>(resumos, (long) tamanho);
+        cadernos = new PaginaDTO<>(listaCadernos, (long) tamanho);
+        usuarios = new PaginaDTO<>(listaUsuarios, (long) tamanho);
+    }
+
+    @Benchmark
+    public byte[] anotacao() throws JsonProcessingException {
+        return mapper.writeValueAsBytes(anotacao);
+    }
+
+    @Benchmark
+    public byte[] paginaAnotacoes() throws JsonProcessingException {
+        return mapper.writeValueAsBytes(anotacoes);
+    }
+
+    @Benchmark
+    public byte[] paginaCadernos() throws JsonProcessingException {
+        return mapper.writeValueAsBytes(cadernos);
+    }
+
+    @Benchmark
+    public byte[] paginaUsuarios() throws JsonProcessingException {
+        return mapper.writeValueAsBytes(usuarios);
+    }
+
+    @Benchmark
+    public byte[] exportacao() throws JsonProcessingException {
+        return mapper.writeValueAsBytes(exportacao);
+    }
+}
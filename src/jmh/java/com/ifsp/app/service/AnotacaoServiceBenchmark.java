@@ -0,0 +1,75 @@
+package com.ifsp.app.service;
+
+import com.ifsp.app.ContextoEmbutido;
+import com.ifsp.app.controller.dto.AnotacaoDTO;
+import com.ifsp.app.controller.dto.AnotacaoResponseDTO;
+import com.ifsp.app.controller.dto.CadernoDTO;
+import com.ifsp.app.controller.dto.UsuarioDTO;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class AnotacaoServiceBenchmark {
+
+    private static final int ANOTACOES = 1_000;
+
+    // Abaixo e acima do limiar de compressão do corpo.
+    @Param({"200", "8000"})
+    private int tamanhoCorpo;
+
+    private ConfigurableApplicationContext contexto;
+    private AnotacaoService anotacaoService;
+    private long[] ids;
+    private String[] corpos;
+    private Long usuarioId;
+    private Long cadernoId;
+    private int proxima;
+
+    @Setup(Level.Trial)
+    public void iniciar() {
+        contexto = ContextoEmbutido.iniciar();
+        anotacaoService = contexto.getBean(AnotacaoService.class);
+        usuarioId = contexto.getBean(UsuarioService.class)
+                .save(new UsuarioDTO("Benchmark", "benchmark@anote.dev", "senha")).id();
+        cadernoId = contexto.getBean(CadernoService.class).save(new CadernoDTO("Benchmark", usuarioId)).id();
+        corpos = new String[]{corpo('a'), corpo('b')};
+        ids = new long[ANOTACOES];
+        for (int i = 0; i < ANOTACOES; i++) {
+            ids[i] = anotacaoService.save(new AnotacaoDTO("Anotação " + i, corpos[0], usuarioId, cadernoId)).id();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void encerrar() {
+        contexto.close();
+    }
+
+    @Benchmark
+    public AnotacaoResponseDTO save() {
+        return anotacaoService.save(new AnotacaoDTO("Nova", corpos[0], usuarioId, cadernoId));
+    }
+
+    @Benchmark
+    public AnotacaoResponseDTO update() {
+        int i = proxima++;
+        return anotacaoService.update(ids[i % ANOTACOES],
+                new AnotacaoDTO("Editada", corpos[(i / ANOTACOES) & 1], null, cadernoId));
+    }
+
+    @Benchmark
+    public AnotacaoResponseDTO findById() {
+        return anotacaoService.findById(ids[proxima++ % ANOTACOES]);
+    }
+
+    private String corpo(char marca) {
+        StringBuilder texto = new StringBuilder(tamanhoCorpo);
+        while (texto.length() < tamanhoCorpo) {
+            texto.append(marca).append(" - item da lista de tarefas com alguma descrição\n");
+        }
+        return texto.substring(0, tamanhoCorpo);
+    }
+}
@@ -0,0 +1,274 @@
+package com.ifsp.app.carga;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.LockSupport;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Gerador de carga para a aplicação no perfil {@code loadtest}. Entra com os usuários da carga sintética
+ * ({@code carga<n>@anote.local}), descobre suas anotações e cadernos e repete a mistura de {@link Operacao}
+ * com o token de cada usuário.
+ *
+ * <p>Com {@code --taxa}, a carga é em malha aberta: as requisições partem no ritmo pedido independentemente das
+ * respostas, e a latência conta a partir do horário agendado, então um servidor que atrasa não esconde a fila.
+ * Sem {@code --taxa}, cada um dos {@code --clientes} repete requisições sem pausa (malha fechada), o que mede a
+ * vazão máxima. Só a medição depois do aquecimento entra no resultado.
+ *
+ * <pre>./gradlew loadtest -Pcarga="--usuarios=50 --taxa=800 --duracao=60 --rotulo=plataforma --saida=build/carga.txt"</pre>
+ */
+public final class Carga {
+
+    private static final Pattern ID = Pattern.compile("\"id\":(\\d+)");
+    private static final Pattern TOKEN = Pattern.compile("\"token\":\"([^\"]+)\"");
+    private static final String SQL = "X-Sql-Statements";
+
+    private final HttpClient http;
+    private final URI base;
+    private final String senha;
+    private final List<Sessao> sessoes = new ArrayList<>();
+
+    private Carga(HttpClient http, URI base, String senha) {
+        this.http = http;
+        this.base = base;
+        this.senha = senha;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> opcoes = opcoes(args);
+        URI base = URI.create(opcoes.getOrDefault("url", "http://localhost:8080"));
+        int usuarios = Integer.parseInt(opcoes.getOrDefault("usuarios", "50"));
+        int taxa = Integer.parseInt(opcoes.getOrDefault("taxa", "0"));
+        int clientes = Integer.parseInt(opcoes.getOrDefault("clientes", "200"));
+        Duration aquecimento = Duration.ofSeconds(Long.parseLong(opcoes.getOrDefault("aquecimento", "15")));
+        Duration duracao = Duration.ofSeconds(Long.parseLong(opcoes.getOrDefault("duracao", "60")));
+        String rotulo = opcoes.getOrDefault("rotulo", "-");
+
+        HttpClient http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+        Carga carga = new Carga(http, base, opcoes.getOrDefault("senha", "carga"));
+        carga.preparar(usuarios);
+
+        carga.rodar(taxa, clientes, aquecimento);
+        Medicao medicao = carga.rodar(taxa, clientes, duracao);
+
+        List<String> linhas = medicao.formatar(rotulo + (taxa > 0 ? " taxa=" + taxa + "/s" : " clientes=" + clientes),
+                duracao);
+        linhas.forEach(System.out::println);
+        if (opcoes.containsKey("saida")) {
+            Files.write(Path.of(opcoes.get("saida")), linhas, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        }
+        if (opcoes.containsKey("hgrm")) {
+            try (PrintStream saida = new PrintStream(Files.newOutputStream(Path.of(opcoes.get("hgrm"))))) {
+                medicao.distribuicao(saida);
+            }
+        }
+    }
+
+    private void preparar(int usuarios) throws IOException, InterruptedException {
+        aguardarServidor();
+        for (int n = 1; n <= usuarios; n++) {
+            String email = "carga" + n + "@anote.local";
+            HttpResponse<String> login = enviar(login(email));
+            if (login.statusCode() != 200) {
+                throw new IllegalStateException("Login de " + email + " falhou (HTTP " + login.statusCode()
+                        + "); a aplicação está no perfil loadtest?");
+            }
+            long usuarioId = primeiroId(login.body());
+            String token = token(login.body());
+            sessoes.add(new Sessao(usuarioId, email, token,
+                    ids(get("/usuarios/" + usuarioId + "/anotacoes?limit=500", token)),
+                    ids(get("/usuarios/" + usuarioId + "/cadernos?limit=500", token))));
+        }
+    }
+
+    // A carga sintética roda antes de o servidor aceitar conexões; espera até o primeiro login responder.
+    private void aguardarServidor() throws InterruptedException {
+        long limite = System.nanoTime() + Duration.ofMinutes(5).toNanos();
+        while (true) {
+            try {
+                if (enviar(login("carga1@anote.local")).statusCode() < 500) {
+                    return;
+                }
+            } catch (IOException e) {
+                if (System.nanoTime() > limite) {
+                    throw new IllegalStateException("Servidor não respondeu em " + base, e);
+                }
+            }
+            Thread.sleep(1000);
+        }
+    }
+
+    private Medicao rodar(int taxa, int clientes, Duration duracao) throws InterruptedException {
+        Medicao medicao = new Medicao();
+        long inicio = System.nanoTime();
+        long fim = inicio + duracao.toNanos();
+        if (taxa > 0) {
+            long intervalo = 1_000_000_000L / taxa;
+            try (ExecutorService requisicoes = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (long agendada = inicio; agendada < fim; agendada += intervalo) {
+                    long espera = agendada - System.nanoTime();
+                    if (espera > 0) {
+                        LockSupport.parkNanos(espera);
+                    }
+                    long horario = agendada;
+                    requisicoes.execute(() -> executar(medicao, horario));
+                }
+            }
+        } else {
+            Thread[] threads = new Thread[clientes];
+            for (int i = 0; i < clientes; i++) {
+                threads[i] = Thread.ofVirtual().name("cliente-" + i).start(() -> {
+                    while (System.nanoTime() < fim && !Thread.currentThread().isInterrupted()) {
+                        executar(medicao, System.nanoTime());
+                    }
+                });
+            }
+            for (Thread thread : threads) {
+                thread.join();
+            }
+        }
+        return medicao;
+    }
+
+    private void executar(Medicao medicao, long inicio) {
+        ThreadLocalRandom aleatorio = ThreadLocalRandom.current();
+        Operacao operacao = Operacao.sortear(aleatorio.nextInt(100));
+        Sessao sessao = sessoes.get(aleatorio.nextInt(sessoes.size()));
+        boolean erro;
+        int comandosSql = -1;
+        try {
+            HttpResponse<String> resposta = enviar(requisicao(operacao, sessao));
+            erro = resposta.statusCode() >= 400;
+            comandosSql = resposta.headers().firstValue(SQL).map(Integer::parseInt).orElse(-1);
+            if (!erro) {
+                lembrar(operacao, sessao, resposta.body());
+            }
+        } catch (IOException e) {
+            erro = true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        medicao.registrar(operacao, System.nanoTime() - inicio, erro, comandosSql);
+    }
+
+    private HttpRequest requisicao(Operacao operacao, Sessao sessao) {
+        long usuario = sessao.usuarioId;
+        String token = sessao.token;
+        return switch (operacao) {
+            case LOGIN -> login(sessao.email);
+            case LER_ANOTACAO -> get("/anotacoes/" + sessao.anotacao(), token);
+            case LISTAR_ANOTACOES_USUARIO -> get("/usuarios/" + usuario + "/anotacoes?limit=50", token);
+            case LISTAR_ANOTACOES -> get("/anotacoes?limit=50", token);
+            case LER_CADERNO -> get("/cadernos/" + sessao.caderno(), token);
+            case LISTAR_CADERNOS_USUARIO -> get("/usuarios/" + usuario + "/cadernos?limit=50", token);
+            case EDITAR_ANOTACAO -> json("PUT", "/anotacoes/" + sessao.anotacao(), token,
+                    "{\"titulo\":\"Editada\",\"corpo\":\"" + corpo() + "\",\"cadernoId\":" + sessao.caderno() + "}");
+            case CRIAR_ANOTACAO -> json("POST", "/anotacoes", token, "{\"titulo\":\"Nova\",\"corpo\":\"" + corpo()
+                    + "\",\"cadernoId\":" + sessao.caderno() + "}");
+            case CRIAR_CADERNO -> json("POST", "/cadernos", token, "{\"titulo\":\"Novo\"}");
+        };
+    }
+
+    // Anotações e cadernos criados passam a ser lidos e editados como os demais.
+    private static void lembrar(Operacao operacao, Sessao sessao, String corpo) {
+        if (operacao == Operacao.LOGIN) {
+            sessao.token = token(corpo);
+        } else if (operacao == Operacao.CRIAR_ANOTACAO) {
+            sessao.anotacoes.add(primeiroId(corpo));
+        } else if (operacao == Operacao.CRIAR_CADERNO) {
+            sessao.cadernos.add(primeiroId(corpo));
+        }
+    }
+
+    private HttpRequest login(String email) {
+        return json("POST", "/usuarios/login", null,
+                "{\"email\":\"" + email + "\",\"senha\":\"" + senha + "\"}");
+    }
+
+    private HttpRequest get(String caminho, String token) {
+        return autenticar(HttpRequest.newBuilder(base.resolve(caminho)), token).timeout(Duration.ofSeconds(30)).build();
+    }
+
+    private HttpRequest json(String metodo, String caminho, String token, String corpo) {
+        return autenticar(HttpRequest.newBuilder(base.resolve(caminho)), token)
+                .timeout(Duration.ofSeconds(30))
+                .header("Content-Type", "application/json")
+                .method(metodo, HttpRequest.BodyPublishers.ofString(corpo))
+                .build();
+    }
+
+    private static HttpRequest.Builder autenticar(HttpRequest.Builder requisicao, String token) {
+        return token == null ? requisicao : requisicao.header("Authorization", "Bearer " + token);
+    }
+
+    private HttpResponse<String> enviar(HttpRequest requisicao) throws IOException, InterruptedException {
+        return http.send(requisicao, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private List<Long> ids(HttpRequest requisicao) throws IOException, InterruptedException {
+        HttpResponse<String> resposta = enviar(requisicao);
+        if (resposta.statusCode() != 200) {
+            throw new IllegalStateException(requisicao.uri() + " respondeu HTTP " + resposta.statusCode());
+        }
+        List<Long> ids = new ArrayList<>();
+        Matcher matcher = ID.matcher(resposta.body());
+        while (matcher.find()) {
+            ids.add(Long.parseLong(matcher.group(1)));
+        }
+        return ids;
+    }
+
+    private static long primeiroId(String corpo) {
+        Matcher matcher = ID.matcher(corpo);
+        if (!matcher.find()) {
+            throw new IllegalStateException("Resposta sem id: " + corpo);
+        }
+        return Long.parseLong(matcher.group(1));
+    }
+
+    private static String token(String corpo) {
+        Matcher matcher = TOKEN.matcher(corpo);
+        if (!matcher.find()) {
+            throw new IllegalStateException("Login sem token: " + corpo);
+        }
+        return matcher.group(1);
+    }
+
+    private static String corpo() {
+        return "- [ ] tarefa " + ThreadLocalRandom.current().nextInt(1_000_000) + "\\n".repeat(2)
+                + "texto da anotação editado durante a carga ".repeat(1 + ThreadLocalRandom.current().nextInt(40));
+    }
+
+    private static Map<String, String> opcoes(String[] args) {
+        Map<String, String> opcoes = new HashMap<>();
+        for (String arg : args) {
+            int igual = arg.indexOf('=');
+            if (!arg.startsWith("--") || igual < 0) {
+                throw new IllegalArgumentException("Opção inválida: " + arg + " (use --nome=valor)");
+            }
+            opcoes.put(arg.substring(2, igual), arg.substring(igual + 1));
+        }
+        return opcoes;
+    }
+}
@@ -0,0 +1,98 @@
+package com.ifsp.app.carga;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.PrintStream;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latências em microssegundos (HdrHistogram, 3 dígitos significativos, até 1 minuto), erros e comandos SQL por
+ * operação. Os comandos vêm do cabeçalho {@code X-Sql-Statements}, presente quando o servidor roda com a
+ * contagem de SQL ligada.
+ */
+final class Medicao {
+
+    private static final long MAXIMO = TimeUnit.MINUTES.toMicros(1);
+
+    private final Map<Operacao, PorOperacao> porOperacao = new EnumMap<>(Operacao.class);
+
+    Medicao() {
+        for (Operacao operacao : Operacao.values()) {
+            porOperacao.put(operacao, new PorOperacao());
+        }
+    }
+
+    void registrar(Operacao operacao, long nanos, boolean erro, int comandosSql) {
+        PorOperacao medida = porOperacao.get(operacao);
+        medida.latencias.recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(nanos), MAXIMO));
+        if (erro) {
+            medida.erros.increment();
+        }
+        if (comandosSql >= 0) {
+            medida.comandosSql.add(comandosSql);
+            medida.comContagem.increment();
+        }
+    }
+
+    Histogram total() {
+        Histogram total = new Histogram(MAXIMO, 3);
+        porOperacao.values().forEach(medida -> total.add(medida.latencias));
+        return total;
+    }
+
+    List<String> formatar(String rotulo, Duration duracao) {
+        List<String> linhas = new ArrayList<>();
+        long erros = 0;
+        long comandosSql = 0;
+        long comContagem = 0;
+        for (PorOperacao medida : porOperacao.values()) {
+            erros += medida.erros.sum();
+            comandosSql += medida.comandosSql.sum();
+            comContagem += medida.comContagem.sum();
+        }
+        Histogram total = total();
+        linhas.add(String.format(Locale.ROOT, "modo=%s duracao=%ds requisicoes=%d erros=%d vazao=%.1f/s %s sql=%s",
+                rotulo, duracao.toSeconds(), total.getTotalCount(), erros,
+                total.getTotalCount() / (double) duracao.toSeconds(), percentis(total),
+                porRequisicao(comandosSql, comContagem)));
+        porOperacao.forEach((operacao, medida) -> {
+            if (medida.latencias.getTotalCount() > 0) {
+                linhas.add(String.format(Locale.ROOT, "  %-26s requisicoes=%d erros=%d %s sql=%s", operacao,
+                        medida.latencias.getTotalCount(), medida.erros.sum(), percentis(medida.latencias),
+                        porRequisicao(medida.comandosSql.sum(), medida.comContagem.sum())));
+            }
+        });
+        return linhas;
+    }
+
+    void distribuicao(PrintStream saida) {
+        total().outputPercentileDistribution(saida, 1000.0);
+    }
+
+    private static String percentis(Histogram h) {
+        return String.format(Locale.ROOT, "p50=%.2fms p90=%.2fms p99=%.2fms p999=%.2fms max=%.2fms",
+                h.getValueAtPercentile(50) / 1000.0, h.getValueAtPercentile(90) / 1000.0,
+                h.getValueAtPercentile(99) / 1000.0, h.getValueAtPercentile(99.9) / 1000.0,
+                h.getMaxValue() / 1000.0);
+    }
+
+    private static String porRequisicao(long comandos, long requisicoes) {
+        return requisicoes == 0 ? "-" : String.format(Locale.ROOT, "%.2f/req", comandos / (double) requisicoes);
+    }
+
+    private static final class PorOperacao {
+
+        final ConcurrentHistogram latencias = new ConcurrentHistogram(MAXIMO, 3);
+        final LongAdder erros = new LongAdder();
+        final LongAdder comandosSql = new LongAdder();
+        final LongAdder comContagem = new LongAdder();
+    }
+}
@@ -0,0 +1,44 @@
+package com.ifsp.app.carga;
+
+/**
+ * Mistura de requisições da carga. Os pesos somam 100 e seguem o uso do aplicativo: a maior parte é leitura
+ * de anotações, edições vêm em seguida e criações e listagens completas são raras.
+ */
+enum Operacao {
+
+    LOGIN(5),
+    LER_ANOTACAO(40),
+    LISTAR_ANOTACOES_USUARIO(15),
+    LISTAR_ANOTACOES(3),
+    LER_CADERNO(10),
+    LISTAR_CADERNOS_USUARIO(5),
+    EDITAR_ANOTACAO(12),
+    CRIAR_ANOTACAO(8),
+    CRIAR_CADERNO(2);
+
+    private static final Operacao[] SORTEIO = sorteio();
+
+    private final int peso;
+
+    Operacao(int peso) {
+        this.peso = peso;
+    }
+
+    static Operacao sortear(int centesimo) {
+        return SORTEIO[centesimo];
+    }
+
+    private static Operacao[] sorteio() {
+        Operacao[] sorteio = new Operacao[100];
+        int posicao = 0;
+        for (Operacao operacao : values()) {
+            for (int i = 0; i < operacao.peso; i++) {
+                sorteio[posicao++] = operacao;
+            }
+        }
+        if (posicao != sorteio.length) {
+            throw new IllegalStateException("Os pesos das operações precisam somar 100");
+        }
+        return sorteio;
+    }
+}
@@ -0,0 +1,37 @@
+package com.ifsp.app.carga;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+
+/** Um usuário da carga sintética, com os ids que a carga já conhece e os que ela mesma criou. */
+final class Sessao {
+
+    final long usuarioId;
+    final String email;
+    final List<Long> anotacoes;
+    final List<Long> cadernos;
+    // Renovado a cada LOGIN da mistura.
+    volatile String token;
+
+    Sessao(long usuarioId, String email, String token, List<Long> anotacoes, List<Long> cadernos) {
+        this.usuarioId = usuarioId;
+        this.email = email;
+        this.token = token;
+        this.anotacoes = new CopyOnWriteArrayList<>(anotacoes);
+        this.cadernos = new CopyOnWriteArrayList<>(cadernos);
+    }
+
+    Long anotacao() {
+        return sortear(anotacoes);
+    }
+
+    Long caderno() {
+        return sortear(cadernos);
+    }
+
+    private static Long sortear(List<Long> ids) {
+        int tamanho = ids.size();
+        return tamanho == 0 ? null : ids.get(ThreadLocalRandom.current().nextInt(tamanho));
+    }
+}
@@ -0,0 +1,29 @@
+package com.ifsp.app;
+
+/**
+ * Conta os comandos JDBC executados pela thread da requisição atual. O proxy do DataSource incrementa; o filtro
+ * de {@link ContagemSqlConfig} zera no começo da requisição e publica o total.
+ */
+public final class ContadorSql {
+
+    private static final ThreadLocal<int[]> COMANDOS = ThreadLocal.withInitial(() -> new int[1]);
+
+    private ContadorSql() {
+    }
+
+    public static void zerar() {
+        COMANDOS.get()[0] = 0;
+    }
+
+    public static void incrementar() {
+        COMANDOS.get()[0]++;
+    }
+
+    public static int total() {
+        return COMANDOS.get()[0];
+    }
+
+    static void encerrar() {
+        COMANDOS.remove();
+    }
+}
@@ -0,0 +1,122 @@
+package com.ifsp.app;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.PrintWriter;
+
+/**
+ * Com {@code anote.sql.contagem=true}, o DataSource passa por um proxy que conta cada execução JDBC (um lote
+ * conta como uma ida ao banco) e toda resposta leva o total da requisição no cabeçalho {@code X-Sql-Statements}.
+ * O mesmo total alimenta a métrica {@code http.server.requests.sql}, por método e rota, onde um N+1 aparece como
+ * uma rota com comandos demais. Respostas em streaming só contam o que rodou antes do primeiro byte.
+ */
+@Configuration
+@ConditionalOnProperty(name = "anote.sql.contagem", havingValue = "true")
+public class ContagemSqlConfig {
+
+    public static final String CABECALHO = "X-Sql-Statements";
+    public static final String METRICA = "http.server.requests.sql";
+
+    @Bean
+    public static BeanPostProcessor contagemSqlDataSource() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof ProxyDataSource)) {
+                    return ProxyDataSourceBuilder.create(dataSource)
+                            .name(beanName)
+                            .afterQuery((execucao, consultas) -> ContadorSql.incrementar())
+                            .build();
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    public OncePerRequestFilter contagemSqlFilter(MeterRegistry registry) {
+        return new OncePerRequestFilter() {
+            @Override
+            protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                            FilterChain chain) throws ServletException, IOException {
+                ContadorSql.zerar();
+                RespostaContada contada = new RespostaContada(response);
+                try {
+                    chain.doFilter(request, contada);
+                } finally {
+                    contada.publicar();
+                    Object rota = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+                    DistributionSummary.builder(METRICA)
+                            .description("Comandos SQL executados por requisição")
+                            .baseUnit("statements")
+                            .tag("method", request.getMethod())
+                            .tag("uri", rota == null ? "UNKNOWN" : rota.toString())
+                            .register(registry)
+                            .record(ContadorSql.total());
+                    ContadorSql.encerrar();
+                }
+            }
+        };
+    }
+
+    // O cabeçalho precisa sair antes do corpo: é gravado quando o controller começa a escrever a resposta.
+    private static final class RespostaContada extends HttpServletResponseWrapper {
+
+        RespostaContada(HttpServletResponse response) {
+            super(response);
+        }
+
+        void publicar() {
+            if (!isCommitted()) {
+                setHeader(CABECALHO, String.valueOf(ContadorSql.total()));
+            }
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            publicar();
+            return super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            publicar();
+            return super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            publicar();
+            super.flushBuffer();
+        }
+
+        @Override
+        public void sendError(int sc, String msg) throws IOException {
+            publicar();
+            super.sendError(sc, msg);
+        }
+
+        @Override
+        public void sendError(int sc) throws IOException {
+            publicar();
+            super.sendError(sc);
+        }
+    }
+}
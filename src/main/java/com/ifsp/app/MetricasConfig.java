@@ -0,0 +1,37 @@
+package com.ifsp.app;
+
+import io.micrometer.common.KeyValue;
+import io.micrometer.common.KeyValues;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.server.observation.DefaultServerRequestObservationConvention;
+import org.springframework.http.server.observation.ServerRequestObservationContext;
+import org.springframework.http.server.observation.ServerRequestObservationConvention;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+@Configuration
+public class MetricasConfig {
+
+    /**
+     * Acrescenta ao {@code http.server.requests} a tag {@code handler} ({@code Controller.metodo}), para o
+     * histograma de latência ser separado por método de controller e não só por rota.
+     */
+    @Bean
+    public ServerRequestObservationConvention requisicaoObservationConvention() {
+        return new DefaultServerRequestObservationConvention() {
+            @Override
+            public KeyValues getLowCardinalityKeyValues(ServerRequestObservationContext context) {
+                return super.getLowCardinalityKeyValues(context).and(handler(context));
+            }
+        };
+    }
+
+    private static KeyValue handler(ServerRequestObservationContext context) {
+        Object handler = context.getCarrier().getAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE);
+        if (handler instanceof HandlerMethod metodo) {
+            return KeyValue.of("handler", metodo.getBeanType().getSimpleName() + "." + metodo.getMethod().getName());
+        }
+        return KeyValue.of("handler", "none");
+    }
+}
@@ -1,9 +1,22 @@
 package com.ifsp.app.controller;
 
 import com.ifsp.app.controller.dto.AnotacaoDTO;
-import com.ifsp.app.model.Anotacao;
+import com.ifsp.app.controller.dto.AnotacaoResponseDTO;
+import com.ifsp.app.controller.dto.AnotacaoResumoDTO;
+import com.ifsp.app.controller.dto.PaginaDTO;
+import com.ifsp.app.controller.dto.PatchAnotacaoDTO;
+import com.ifsp.app.controller.dto.ResultadoBuscaDTO;
+import com.ifsp.app.controller.dto.ResultadoLoteDTO;
+import com.ifsp.app.controller.dto.RevisaoDTO;
+import com.ifsp.app.controller.dto.RevisaoResumoDTO;
+import com.ifsp.app.controller.dto.VersaoDTO;
 import com.ifsp.app.service.AnotacaoService;
+import com.ifsp.app.service.RevisaoService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.util.List;
 
@@ -12,33 +25,94 @@ import java.util.List;
 public class AnotacaoController {
 
     private final AnotacaoService anotacaoService;
+    private final RevisaoService revisaoService;
 
-    public AnotacaoController(AnotacaoService anotacaoService) {
+    public AnotacaoController(AnotacaoService anotacaoService, RevisaoService revisaoService) {
         this.anotacaoService = anotacaoService;
+        this.revisaoService = revisaoService;
     }
 
     @GetMapping
-    public List<Anotacao> findAll() {
-        return anotacaoService.findAll();
+    public PaginaDTO<AnotacaoResumoDTO> findAll(@RequestParam(required = false) Long after,
+                                                @RequestParam(defaultValue = "50") int limit,
+                                                @RequestAttribute(AutenticacaoFilter.USUARIO) Long usuarioId) {
+        return anotacaoService.findPageByUsuario(usuarioId, after, limit);
+    }
+
+    @GetMapping("/search")
+    public List<ResultadoBuscaDTO> search(@RequestParam String q,
+                                          @RequestParam(defaultValue = "20") int limit,
+                                          @RequestAttribute(AutenticacaoFilter.USUARIO) Long usuarioId) {
+        return anotacaoService.search(usuarioId, q, limit);
     }
 
     @GetMapping("/{id}")
-    public Anotacao findById(@PathVariable Long id) {
-        return anotacaoService.findById(id);
+    public AnotacaoResponseDTO findById(@PathVariable Long id,
+                                        @RequestAttribute(AutenticacaoFilter.USUARIO) Long usuarioId,
+                                        WebRequest request) {
+        if (Etags.naoModificado(request, id, anotacaoId -> anotacaoService.findVersao(anotacaoId, usuarioId))) {
+            return null;
+        }
+        AnotacaoResponseDTO anotacao = anotacaoService.findById(id);
+        if (!usuarioId.equals(anotacao.usuarioId())) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Anotação não encontrada");
+        }
+        request.checkNotModified(Etags.de(anotacao.id(), anotacao.versao()));
+        return anotacao;
+    }
+
+    @GetMapping("/{id}/revisions")
+    public PaginaDTO<RevisaoResumoDTO> findRevisoes(@PathVariable Long id,
+                                                    @RequestParam(required = false) Long after,
+                                                    @RequestParam(defaultValue = "50") int limit,
+                                                    @RequestAttribute(AutenticacaoFilter.USUARIO) Long usuarioId) {
+        return revisaoService.findPage(id, usuarioId, after, limit);
+    }
+
+    @GetMapping("/{id}/revisions/{numero}")
+    public RevisaoDTO findRevisao(@PathVariable Long id, @PathVariable int numero,
+                                  @RequestAttribute(AutenticacaoFilter.USUARIO) Long usuarioId) {
+        return revisaoService.findByNumero(id, usuarioId, numero);
     }
 
     @PostMapping
-    public Anotacao create(@RequestBody AnotacaoDTO anotacaoDTO) {
+    public AnotacaoResponseDTO create(@RequestBody AnotacaoDTO anotacaoDTO,
+                                      @RequestAttribute(AutenticacaoFilter.USUARIO) Long usuarioId) {
+        anotacaoDTO.setUsuarioId(usuarioId);
         return anotacaoService.save(anotacaoDTO);
     }
 
+    @PostMapping("/bulk")
+    public List<Long> createAll(@RequestBody List<AnotacaoDTO> anotacoesDTO,
+                                @RequestAttribute(AutenticacaoFilter.USUARIO) Long usuarioId) {
+        if (anotacoesDTO != null) {
+            anotacoesDTO.forEach(dto -> dto.setUsuarioId(usuarioId));
+        }
+        return anotacaoService.saveAll(anotacoesDTO);
+    }
+
+    @DeleteMapping
+    public ResultadoLoteDTO deleteAll(@RequestParam List<Long> ids,
+                                      @RequestAttribute(AutenticacaoFilter.USUARIO) Long usuarioId) {
+        return new ResultadoLoteDTO(anotacaoService.deleteAll(usuarioId, ids));
+    }
+
     @DeleteMapping("/{id}")
-    public void deleteById(@PathVariable Long id) {
-        anotacaoService.deleteById(id);
+    public void deleteById(@PathVariable Long id, @RequestAttribute(AutenticacaoFilter.USUARIO) Long usuarioId) {
+        anotacaoService.deleteById(id, usuarioId);
     }
 
     @PutMapping("/{id}")
-    public Anotacao update(@PathVariable Long id, @RequestBody AnotacaoDTO anotacaoDTO) {
+    public AnotacaoResponseDTO update(@PathVariable Long id, @RequestBody AnotacaoDTO anotacaoDTO,
+                                      @RequestAttribute(AutenticacaoFilter.USUARIO) Long usuarioId) {
+        anotacaoDTO.setUsuarioId(usuarioId);
         return anotacaoService.update(id, anotacaoDTO);
     }
+
+    @PatchMapping("/{id}")
+    public ResponseEntity<VersaoDTO> patch(@PathVariable Long id, @RequestBody PatchAnotacaoDTO patchDTO,
+                                           @RequestAttribute(AutenticacaoFilter.USUARIO) Long usuarioId) {
+        VersaoDTO versao = anotacaoService.patch(id, usuarioId, patchDTO);
+        return ResponseEntity.ok().eTag(Etags.de(versao.id(), versao.versao())).body(versao);
+    }
 }
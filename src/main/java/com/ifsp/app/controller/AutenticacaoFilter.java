@@ -0,0 +1,86 @@
+package com.ifsp.app.controller;
+
+import com.ifsp.app.service.Tokens;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Identifica o usuário pelo token {@code Authorization: Bearer ...} emitido no login e o deixa no atributo
+ * {@link #USUARIO} da requisição, de onde os controllers o tiram em vez de confiar no {@code usuarioId} do corpo.
+ * Cadastro, login, cores, sondas de saúde e a documentação dispensam token; rotas {@code /usuarios/{id}/...}
+ * só servem o próprio usuário. O {@code EventSource} do navegador não envia cabeçalhos, então a assinatura de eventos
+ * aceita o token no parâmetro {@code token}.
+ */
+@Component
+@Order(AutenticacaoFilter.ORDEM)
+public class AutenticacaoFilter extends OncePerRequestFilter {
+
+    public static final String USUARIO = "anote.usuarioId";
+    /** Antes dos filtros que usam o usuário da requisição. */
+    public static final int ORDEM = Ordered.HIGHEST_PRECEDENCE + 100;
+
+    private static final String PREFIXO = "Bearer ";
+    // Qualquer segmento depois de /usuarios/ que não seja exatamente o id do token (como "+5", "%35" ou "5;x")
+    // é recusado, e os controllers ainda comparam o id convertido.
+    private static final Pattern ROTA_USUARIO = Pattern.compile("^/usuarios/([^/]+)(/.*)?$");
+
+    private final Tokens tokens;
+
+    public AutenticacaoFilter(Tokens tokens) {
+        this.tokens = tokens;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String caminho = request.getRequestURI().substring(request.getContextPath().length());
+        String metodo = request.getMethod();
+        return HttpMethod.OPTIONS.matches(metodo)
+                || HttpMethod.POST.matches(metodo) && (caminho.equals("/usuarios") || caminho.equals("/usuarios/login"))
+                || caminho.equals("/cores")
+                || caminho.equals("/livez") || caminho.equals("/readyz") || caminho.startsWith("/actuator/health")
+                || caminho.startsWith("/v3/api-docs")
+                || caminho.startsWith("/swagger-ui");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String caminho = request.getRequestURI().substring(request.getContextPath().length());
+        Long usuarioId = usuario(request, caminho);
+        if (usuarioId == null) {
+            response.setHeader(HttpHeaders.WWW_AUTHENTICATE, "Bearer");
+            response.sendError(HttpServletResponse.SC_UNAUTHORIZED, "Token ausente, inválido ou expirado");
+            return;
+        }
+        Matcher rota = ROTA_USUARIO.matcher(caminho);
+        if (rota.matches() && !rota.group(1).equals(usuarioId.toString())) {
+            response.sendError(HttpServletResponse.SC_FORBIDDEN, "Acesso negado");
+            return;
+        }
+        request.setAttribute(USUARIO, usuarioId);
+        chain.doFilter(request, response);
+    }
+
+    private Long usuario(HttpServletRequest request, String caminho) {
+        String cabecalho = request.getHeader(HttpHeaders.AUTHORIZATION);
+        String token = null;
+        if (cabecalho != null && cabecalho.regionMatches(true, 0, PREFIXO, 0, PREFIXO.length())) {
+            token = cabecalho.substring(PREFIXO.length()).trim();
+        } else if (caminho.endsWith("/events")) {
+            token = request.getParameter("token");
+        }
+        return token == null || token.isEmpty() ? null : tokens.verificar(token);
+    }
+}
@@ -1,44 +1,83 @@
 package com.ifsp.app.controller;
 
+import com.ifsp.app.controller.dto.AnotacaoResumoDTO;
 import com.ifsp.app.controller.dto.CadernoDTO;
-import com.ifsp.app.model.Caderno;
+import com.ifsp.app.controller.dto.CadernoResponseDTO;
+import com.ifsp.app.controller.dto.MoverAnotacoesDTO;
+import com.ifsp.app.controller.dto.PaginaDTO;
+import com.ifsp.app.controller.dto.ResultadoLoteDTO;
+import com.ifsp.app.service.AnotacaoService;
 import com.ifsp.app.service.CadernoService;
+import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.*;
-
-import java.util.List;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
 
 @RestController
 @RequestMapping("/cadernos")
 public class CadernoController {
 
     private final CadernoService cadernoService;
+    private final AnotacaoService anotacaoService;
 
-    public CadernoController(CadernoService cadernoService) {
+    public CadernoController(CadernoService cadernoService,
+                             AnotacaoService anotacaoService) {
         this.cadernoService = cadernoService;
+        this.anotacaoService = anotacaoService;
     }
 
     @GetMapping
-    public List<Caderno> findAll() {
-        return cadernoService.findAll();
+    public PaginaDTO<CadernoResponseDTO> findAll(@RequestParam(required = false) Long after,
+                                                 @RequestParam(defaultValue = "50") int limit,
+                                                 @RequestAttribute(AutenticacaoFilter.USUARIO) Long usuarioId) {
+        return cadernoService.findPageByUsuario(usuarioId, after, limit);
     }
 
     @PostMapping
-    public Caderno create(@RequestBody CadernoDTO cadernoDTO) {
+    public CadernoResponseDTO create(@RequestBody CadernoDTO cadernoDTO,
+                                     @RequestAttribute(AutenticacaoFilter.USUARIO) Long usuarioId) {
+        cadernoDTO.setUsuarioId(usuarioId);
         return cadernoService.save(cadernoDTO);
     }
 
     @GetMapping("/{id}")
-    public Caderno findById(@PathVariable Long id) {
-        return cadernoService.findById(id);
+    public CadernoResponseDTO findById(@PathVariable Long id,
+                                       @RequestAttribute(AutenticacaoFilter.USUARIO) Long usuarioId,
+                                       WebRequest request) {
+        if (Etags.naoModificado(request, id, cadernoId -> cadernoService.findVersao(cadernoId, usuarioId))) {
+            return null;
+        }
+        CadernoResponseDTO caderno = cadernoService.findById(id);
+        if (!usuarioId.equals(caderno.usuarioId())) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Caderno não encontrado");
+        }
+        request.checkNotModified(Etags.de(caderno.id(), caderno.versao()));
+        return caderno;
+    }
+
+    @GetMapping("/{id}/anotacoes")
+    public PaginaDTO<AnotacaoResumoDTO> findAnotacoes(@PathVariable Long id,
+                                                     @RequestParam(required = false) Long after,
+                                                     @RequestParam(defaultValue = "50") int limit,
+                                                     @RequestAttribute(AutenticacaoFilter.USUARIO) Long usuarioId) {
+        return anotacaoService.findPageByCaderno(id, usuarioId, after, limit);
+    }
+
+    @PostMapping("/{id}/anotacoes:move")
+    public ResultadoLoteDTO moveAnotacoes(@PathVariable Long id, @RequestBody MoverAnotacoesDTO moverDTO,
+                                          @RequestAttribute(AutenticacaoFilter.USUARIO) Long usuarioId) {
+        return new ResultadoLoteDTO(anotacaoService.moveAll(id, usuarioId, moverDTO.getIds()));
     }
 
     @DeleteMapping("/{id}")
-    public void deleteById(@PathVariable Long id) {
-        cadernoService.deleteById(id);
+    public void deleteById(@PathVariable Long id, @RequestAttribute(AutenticacaoFilter.USUARIO) Long usuarioId) {
+        cadernoService.deleteById(id, usuarioId);
     }
 
     @PutMapping("/{id}")
-    public Caderno update(@PathVariable Long id, @RequestBody CadernoDTO cadernoDTO) {
+    public CadernoResponseDTO update(@PathVariable Long id, @RequestBody CadernoDTO cadernoDTO,
+                                     @RequestAttribute(AutenticacaoFilter.USUARIO) Long usuarioId) {
+        cadernoDTO.setUsuarioId(usuarioId);
         return cadernoService.update(id, cadernoDTO);
     }
 }
@@ -0,0 +1,22 @@
+package com.ifsp.app.controller;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.function.Function;
+
+final class Etags {
+
+    private Etags() {
+    }
+
+    static String de(Long id, Long versao) {
+        return "\"" + id + "-" + versao + "\"";
+    }
+
+    // Com If-None-Match, confere só a versão (uma consulta de uma coluna) antes de carregar o recurso.
+    static boolean naoModificado(WebRequest request, Long id, Function<Long, Long> versao) {
+        return request.getHeader(HttpHeaders.IF_NONE_MATCH) != null
+                && request.checkNotModified(de(id, versao.apply(id)));
+    }
+}
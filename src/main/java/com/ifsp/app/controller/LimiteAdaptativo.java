@@ -0,0 +1,64 @@
+package com.ifsp.app.controller;
+
+/**
+ * Limite de requisições simultâneas aprendido pela latência, no estilo do Gradient2: compara a média curta da
+ * latência com a média longa e encolhe o limite quando a curta passa da longa além da tolerância (fila se
+ * formando, normalmente à espera de conexão do pool). Com a latência estável e o limite em uso, ele cresce aos
+ * poucos ({@code √limite} por ajuste). Falhas (500, 502, 504) cortam o limite multiplicativamente, como no AIMD.
+ */
+final class LimiteAdaptativo {
+
+    private static final double TOLERANCIA = 1.5;
+    private static final double SUAVIZACAO = 0.2;
+    private static final double CORTE_FALHA = 0.9;
+    private static final double ALFA_CURTO = 1.0 / 10;
+    private static final double ALFA_LONGO = 1.0 / 600;
+
+    private final int minimo;
+    private final int maximo;
+    private volatile double limite;
+    private double rttCurto;
+    private double rttLongo;
+
+    LimiteAdaptativo(int inicial, int minimo, int maximo) {
+        if (minimo < 1 || minimo > inicial || inicial > maximo) {
+            throw new IllegalStateException("Limite de concorrência inválido: inicial " + inicial + ", mínimo "
+                    + minimo + ", máximo " + maximo);
+        }
+        this.limite = inicial;
+        this.minimo = minimo;
+        this.maximo = maximo;
+    }
+
+    int limite() {
+        return (int) limite;
+    }
+
+    /** Registra uma requisição concluída em {@code rttNanos} com {@code emVoo} requisições simultâneas. */
+    synchronized void amostrar(long rttNanos, int emVoo, boolean falhou) {
+        double atual = limite;
+        if (falhou) {
+            limite = Math.max(minimo, atual * CORTE_FALHA);
+            return;
+        }
+        if (rttLongo == 0) {
+            rttCurto = rttNanos;
+            rttLongo = rttNanos;
+            return;
+        }
+        rttCurto += (rttNanos - rttCurto) * ALFA_CURTO;
+        rttLongo += (rttNanos - rttLongo) * ALFA_LONGO;
+        // Saindo de uma sobrecarga: a média longa acompanha a curta mais depressa.
+        if (rttLongo > rttCurto * 2) {
+            rttLongo *= 0.95;
+        }
+        double gradiente = Math.max(0.5, Math.min(1.0, TOLERANCIA * rttLongo / rttCurto));
+        double novo = atual * gradiente + Math.sqrt(atual);
+        // Sem uso perto do limite, a latência baixa não prova que mais concorrência caberia.
+        if (emVoo < atual / 2) {
+            novo = Math.min(novo, atual);
+        }
+        novo = atual * (1 - SUAVIZACAO) + novo * SUAVIZACAO;
+        limite = Math.max(minimo, Math.min(maximo, novo));
+    }
+}
@@ -0,0 +1,196 @@
+package com.ifsp.app.controller;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.PathContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Limita as requisições simultâneas ao que o banco aguenta, por um {@link LimiteAdaptativo} que aprende o limite
+ * pela latência. O que passa do limite recebe 503 na hora, em vez de esperar numa thread por uma conexão do pool.
+ * Leituras pontuais (uma anotação, um caderno, um usuário) usam o limite inteiro; escritas só entram até 90% dele,
+ * e listagens, buscas, exportação e operações em lote até 75%, então sob sobrecarga são elas as primeiras
+ * recusadas. Respostas em streaming, como a exportação, seguram a vaga até o fim do envio, porque seguram a
+ * conexão do banco também. Eventos (SSE), sondas de saúde e o Actuator ficam de fora.
+ */
+@Component
+@Order(AutenticacaoFilter.ORDEM + 2)
+@ConditionalOnProperty(name = "anote.concorrencia.ativo", havingValue = "true", matchIfMissing = true)
+public class LimiteConcorrenciaFilter extends OncePerRequestFilter {
+
+    public static final String METRICA = "anote.concorrencia.rejeitadas";
+
+    static final double FRACAO_ESCRITA = 0.9;
+    static final double FRACAO_VARREDURA = 0.75;
+
+    private static final PathPatternParser PARSER = new PathPatternParser();
+    private static final List<PathPattern> LEITURAS = padroes("/anotacoes/{id:\\d+}", "/cadernos/{id:\\d+}",
+            "/usuarios/{id:\\d+}", "/anotacoes/{id}/revisions/{numero}", "/usuarios/{id}/changes",
+            "/usuarios/{id}/import/{jobId}", "/cores");
+    private static final List<PathPattern> LOTES = padroes("/anotacoes/bulk", "/cadernos/{id}/anotacoes:move",
+            "/usuarios/{id}/import");
+    private static final List<PathPattern> ISENTAS = padroes("/usuarios/{id}/events", "/livez", "/readyz",
+            "/actuator/**");
+
+    enum Prioridade {
+        LEITURA(1.0), ESCRITA(FRACAO_ESCRITA), VARREDURA(FRACAO_VARREDURA);
+
+        private final double fracao;
+
+        Prioridade(double fracao) {
+            this.fracao = fracao;
+        }
+    }
+
+    private final LimiteAdaptativo limite;
+    private final MeterRegistry registry;
+    private final AtomicInteger emVoo = new AtomicInteger();
+
+    @Autowired
+    public LimiteConcorrenciaFilter(@Value("${anote.concorrencia.inicial:20}") int inicial,
+                                    @Value("${anote.concorrencia.minimo:4}") int minimo,
+                                    @Value("${anote.concorrencia.maximo:200}") int maximo,
+                                    MeterRegistry registry) {
+        this(new LimiteAdaptativo(inicial, minimo, maximo), registry);
+    }
+
+    LimiteConcorrenciaFilter(LimiteAdaptativo limite, MeterRegistry registry) {
+        this.limite = limite;
+        this.registry = registry;
+        Gauge.builder("anote.concorrencia.limite", limite, LimiteAdaptativo::limite)
+                .description("Requisições simultâneas permitidas, aprendidas pela latência")
+                .register(registry);
+        Gauge.builder("anote.concorrencia.em-voo", emVoo, AtomicInteger::get)
+                .description("Requisições em andamento sob o limite de concorrência")
+                .register(registry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return HttpMethod.OPTIONS.matches(request.getMethod()) || algum(ISENTAS, caminho(request));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        Prioridade prioridade = prioridade(request.getMethod(), caminho(request));
+        int permitidas = Math.max(1, (int) (limite.limite() * prioridade.fracao));
+        if (emVoo.incrementAndGet() > permitidas) {
+            emVoo.decrementAndGet();
+            Counter.builder(METRICA)
+                    .description("Requisições recusadas pelo limite de concorrência")
+                    .tag("prioridade", prioridade.name().toLowerCase())
+                    .register(registry)
+                    .increment();
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value(), "Servidor sobrecarregado, tente novamente");
+            return;
+        }
+        long inicio = System.nanoTime();
+        boolean falhou = true;
+        try {
+            chain.doFilter(request, response);
+            falhou = falha(response.getStatus());
+        } finally {
+            if (request.isAsyncStarted()) {
+                // O streaming lê do banco depois que o controller retorna; a vaga só é liberada quando ele termina.
+                // A duração depende do tamanho da resposta, então não entra como amostra de latência.
+                request.getAsyncContext().addListener(new Liberacao());
+            } else {
+                limite.amostrar(System.nanoTime() - inicio, emVoo.getAndDecrement(), falhou);
+            }
+        }
+    }
+
+    // 503 é a própria aplicação recusando rápido (fila de senhas cheia, este filtro): não indica banco saturado.
+    static boolean falha(int status) {
+        return status == HttpStatus.INTERNAL_SERVER_ERROR.value() || status == HttpStatus.BAD_GATEWAY.value()
+                || status == HttpStatus.GATEWAY_TIMEOUT.value();
+    }
+
+    static Prioridade prioridade(String metodo, String caminho) {
+        PathContainer analisado = PathContainer.parsePath(caminho);
+        if (HttpMethod.GET.matches(metodo)) {
+            return algum(LEITURAS, analisado) ? Prioridade.LEITURA : Prioridade.VARREDURA;
+        }
+        // DELETE /anotacoes é a exclusão em lote.
+        boolean lote = algum(LOTES, analisado) || HttpMethod.DELETE.matches(metodo) && caminho.equals("/anotacoes");
+        return lote ? Prioridade.VARREDURA : Prioridade.ESCRITA;
+    }
+
+    private static String caminho(HttpServletRequest request) {
+        return request.getRequestURI().substring(request.getContextPath().length());
+    }
+
+    private static boolean algum(List<PathPattern> padroes, String caminho) {
+        return algum(padroes, PathContainer.parsePath(caminho));
+    }
+
+    private static boolean algum(List<PathPattern> padroes, PathContainer caminho) {
+        for (PathPattern padrao : padroes) {
+            if (padrao.matches(caminho)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static List<PathPattern> padroes(String... caminhos) {
+        return Arrays.stream(caminhos).map(PARSER::parse).toList();
+    }
+
+    private final class Liberacao implements AsyncListener {
+
+        private final AtomicBoolean liberada = new AtomicBoolean();
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            liberar();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            liberar();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            liberar();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            // Um novo startAsync descarta os listeners registrados; continua acompanhando o mesmo contexto.
+            event.getAsyncContext().addListener(this);
+        }
+
+        private void liberar() {
+            if (liberada.compareAndSet(false, true)) {
+                emVoo.decrementAndGet();
+            }
+        }
+    }
+}
@@ -0,0 +1,238 @@
+package com.ifsp.app.controller;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.PathContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Limita a taxa de requisições por usuário (pelo token) ou, nas rotas públicas, por IP, com um balde de fichas
+ * por chave. Cada rota custa {@code 1} ficha, salvo as de {@code anote.limite.custos}: listagens da tabela inteira,
+ * exportação e login custam mais. Sem fichas, a resposta é 429 com {@code Retry-After}.
+ *
+ * <p>O balde guarda só o instante em que ele volta a ficar cheio, num {@link AtomicLong} atualizado por CAS, então
+ * nenhuma requisição espera lock. Baldes cheios equivalem a baldes novos e são descartados na limpeza periódica;
+ * acima de {@code anote.limite.chaves}, chaves novas dividem, pelo hash, um de {@code EXCEDENTES} baldes fixos até a
+ * próxima limpeza, sem varrer o mapa a cada chave nova.
+ */
+@Component
+@Order(AutenticacaoFilter.ORDEM + 1)
+@ConditionalOnProperty(name = "anote.limite.ativo", havingValue = "true", matchIfMissing = true)
+public class LimiteTaxaFilter extends OncePerRequestFilter {
+
+    public static final String METRICA = "anote.limite.rejeitadas";
+
+    private static final Duration LIMPEZA = Duration.ofSeconds(30);
+    private static final String OUTRAS = "outras";
+    private static final int EXCEDENTES = 64;
+
+    private final Politica usuario;
+    private final Politica anonimo;
+    private final List<Custo> custos;
+    private final int chaves;
+    private final MeterRegistry registry;
+    private final LongSupplier relogio;
+    private final long origem;
+    private final Map<String, Balde> baldes = new ConcurrentHashMap<>();
+    private final Balde[] excedentes = new Balde[EXCEDENTES];
+    private final AtomicLong proximaLimpeza;
+    private final AtomicBoolean limpando = new AtomicBoolean();
+
+    @Autowired
+    public LimiteTaxaFilter(@Value("${anote.limite.capacidade:100}") int capacidade,
+                            @Value("${anote.limite.por-segundo:50}") double porSegundo,
+                            @Value("${anote.limite.anonimo.capacidade:50}") int capacidadeAnonimo,
+                            @Value("${anote.limite.anonimo.por-segundo:10}") double porSegundoAnonimo,
+                            @Value("${anote.limite.custos:}") String custos,
+                            @Value("${anote.limite.chaves:100000}") int chaves,
+                            MeterRegistry registry) {
+        this(capacidade, porSegundo, capacidadeAnonimo, porSegundoAnonimo, custos, chaves, registry,
+                System::nanoTime);
+    }
+
+    LimiteTaxaFilter(int capacidade, double porSegundo, int capacidadeAnonimo, double porSegundoAnonimo,
+                     String custos, int chaves, MeterRegistry registry, LongSupplier relogio) {
+        this.usuario = new Politica(capacidade, porSegundo);
+        this.anonimo = new Politica(capacidadeAnonimo, porSegundoAnonimo);
+        this.custos = custos(custos);
+        this.chaves = chaves;
+        this.registry = registry;
+        this.relogio = relogio;
+        this.origem = relogio.getAsLong();
+        this.proximaLimpeza = new AtomicLong(LIMPEZA.toNanos());
+        for (int i = 0; i < EXCEDENTES; i++) {
+            excedentes[i] = new Balde();
+        }
+        Gauge.builder("anote.limite.chaves", baldes, Map::size)
+                .description("Usuários e IPs com balde de requisições em uso")
+                .register(registry);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String caminho = request.getRequestURI().substring(request.getContextPath().length());
+        Custo custo = custo(request.getMethod(), caminho);
+        Object usuarioId = request.getAttribute(AutenticacaoFilter.USUARIO);
+        boolean autenticado = usuarioId != null;
+        String chave = autenticado ? "u" + usuarioId : "ip" + request.getRemoteAddr();
+
+        long agora = agora();
+        limparSeVencido(agora);
+        long espera = balde(chave).consumir(autenticado ? usuario : anonimo, custo == null ? 1 : custo.fichas, agora);
+        if (espera > 0) {
+            Counter.builder(METRICA)
+                    .description("Requisições recusadas pelo limite de taxa")
+                    .tag("tipo", autenticado ? "usuario" : "ip")
+                    .tag("rota", custo == null ? OUTRAS : custo.rota)
+                    .register(registry)
+                    .increment();
+            response.setHeader(HttpHeaders.RETRY_AFTER,
+                    String.valueOf(Math.max(1, TimeUnit.NANOSECONDS.toSeconds(espera + 999_999_999))));
+            response.sendError(HttpStatus.TOO_MANY_REQUESTS.value(),
+                    "Muitas requisições, tente novamente em instantes");
+            return;
+        }
+        chain.doFilter(request, response);
+    }
+
+    // Nanossegundos desde a criação do filtro, sempre positivos (System.nanoTime pode ser negativo).
+    private long agora() {
+        return relogio.getAsLong() - origem;
+    }
+
+    int baldes() {
+        return baldes.size();
+    }
+
+    private Balde balde(String chave) {
+        Balde balde = baldes.get(chave);
+        if (balde != null) {
+            return balde;
+        }
+        if (baldes.size() >= chaves) {
+            return excedentes[Math.floorMod(chave.hashCode(), EXCEDENTES)];
+        }
+        return baldes.computeIfAbsent(chave, c -> new Balde());
+    }
+
+    private void limparSeVencido(long agora) {
+        long prazo = proximaLimpeza.get();
+        if (agora >= prazo && proximaLimpeza.compareAndSet(prazo, agora + LIMPEZA.toNanos())) {
+            limpar(agora);
+        }
+    }
+
+    // Uma thread por vez; as demais seguem sem esperar.
+    private void limpar(long agora) {
+        if (!limpando.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            baldes.entrySet().removeIf(entrada -> entrada.getValue().cheio(agora));
+        } finally {
+            limpando.set(false);
+        }
+    }
+
+    private Custo custo(String metodo, String caminho) {
+        PathContainer caminhoAnalisado = null;
+        for (Custo custo : custos) {
+            if (!custo.metodo.equals(metodo)) {
+                continue;
+            }
+            if (caminhoAnalisado == null) {
+                caminhoAnalisado = PathContainer.parsePath(caminho);
+            }
+            if (custo.padrao.matches(caminhoAnalisado)) {
+                return custo;
+            }
+        }
+        return null;
+    }
+
+    // Formato: "GET /anotacoes=10,GET /usuarios/*/export=50".
+    private static List<Custo> custos(String configuracao) {
+        List<Custo> custos = new ArrayList<>();
+        if (configuracao == null || configuracao.isBlank()) {
+            return custos;
+        }
+        PathPatternParser parser = new PathPatternParser();
+        for (String item : configuracao.split(",")) {
+            String[] rotaEFichas = item.trim().split("=");
+            String[] metodoECaminho = rotaEFichas.length == 2 ? rotaEFichas[0].trim().split("\\s+") : new String[0];
+            if (metodoECaminho.length != 2) {
+                throw new IllegalStateException("anote.limite.custos inválido: " + item.trim()
+                        + " (use \"METODO /caminho=fichas\")");
+            }
+            custos.add(new Custo(metodoECaminho[0], parser.parse(metodoECaminho[1]), rotaEFichas[0].trim(),
+                    Integer.parseInt(rotaEFichas[1].trim())));
+        }
+        return custos;
+    }
+
+    private record Custo(String metodo, PathPattern padrao, String rota, int fichas) {
+    }
+
+    private record Politica(long intervalo, long tolerancia, int capacidade) {
+
+        Politica(int capacidade, double porSegundo) {
+            this((long) (TimeUnit.SECONDS.toNanos(1) / porSegundo),
+                    (long) (capacidade * (TimeUnit.SECONDS.toNanos(1) / porSegundo)), capacidade);
+        }
+    }
+
+    /**
+     * Balde de fichas guardado como o instante em que volta a ficar cheio (GCRA): consumir {@code n} fichas empurra
+     * esse instante {@code n} intervalos para frente, e o consumo só passa se ele não ficar além da capacidade.
+     */
+    static final class Balde {
+
+        private final AtomicLong cheioEm = new AtomicLong();
+
+        /** Devolve 0 se as fichas foram consumidas, ou quantos nanossegundos esperar até haver fichas. */
+        long consumir(Politica politica, int fichas, long agora) {
+            long custo = Math.min(fichas, politica.capacidade) * politica.intervalo;
+            while (true) {
+                long atual = cheioEm.get();
+                long novo = Math.max(atual, agora) + custo;
+                long excesso = novo - agora - politica.tolerancia;
+                if (excesso > 0) {
+                    return excesso;
+                }
+                if (cheioEm.compareAndSet(atual, novo)) {
+                    return 0;
+                }
+            }
+        }
+
+        boolean cheio(long agora) {
+            return cheioEm.get() <= agora;
+        }
+    }
+}
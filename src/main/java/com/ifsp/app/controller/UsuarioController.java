@@ -1,50 +1,168 @@
 package com.ifsp.app.controller;
 
+import com.ifsp.app.controller.dto.AlteracoesDTO;
+import com.ifsp.app.controller.dto.AnotacaoResumoDTO;
+import com.ifsp.app.controller.dto.CadernoResponseDTO;
+import com.ifsp.app.controller.dto.ImportacaoDTO;
 import com.ifsp.app.controller.dto.LoginRequestDTO;
+import com.ifsp.app.controller.dto.LoginResponseDTO;
+import com.ifsp.app.controller.dto.PaginaDTO;
 import com.ifsp.app.controller.dto.UsuarioDTO;
-import com.ifsp.app.model.Usuario;
+import com.ifsp.app.controller.dto.UsuarioResponseDTO;
+import com.ifsp.app.service.AlteracaoService;
+import com.ifsp.app.service.AnotacaoService;
+import com.ifsp.app.service.CadernoService;
+import com.ifsp.app.service.DistribuidorEventos;
+import com.ifsp.app.service.ExportacaoService;
+import com.ifsp.app.service.ImportacaoService;
+import com.ifsp.app.service.Tokens;
 import com.ifsp.app.service.UsuarioService;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.util.List;
+import java.io.InputStream;
 
 @RestController
 @RequestMapping("/usuarios")
 public class UsuarioController {
 
     private final UsuarioService usuarioService;
+    private final AnotacaoService anotacaoService;
+    private final CadernoService cadernoService;
+    private final ExportacaoService exportacaoService;
+    private final ImportacaoService importacaoService;
+    private final AlteracaoService alteracaoService;
+    private final DistribuidorEventos distribuidorEventos;
+    private final Tokens tokens;
 
-    public UsuarioController(UsuarioService usuarioService) {
+    public UsuarioController(UsuarioService usuarioService,
+                             AnotacaoService anotacaoService,
+                             CadernoService cadernoService,
+                             ExportacaoService exportacaoService,
+                             ImportacaoService importacaoService,
+                             AlteracaoService alteracaoService,
+                             DistribuidorEventos distribuidorEventos,
+                             Tokens tokens) {
         this.usuarioService = usuarioService;
+        this.anotacaoService = anotacaoService;
+        this.cadernoService = cadernoService;
+        this.exportacaoService = exportacaoService;
+        this.importacaoService = importacaoService;
+        this.alteracaoService = alteracaoService;
+        this.distribuidorEventos = distribuidorEventos;
+        this.tokens = tokens;
     }
 
     @PostMapping("/login")
-    public Usuario login(@RequestBody LoginRequestDTO loginRequest) {
-        return usuarioService.login(loginRequest.getEmail(), loginRequest.getSenha());
+    public LoginResponseDTO login(@RequestBody LoginRequestDTO loginRequest) {
+        UsuarioResponseDTO usuario = usuarioService.login(loginRequest.getEmail(), loginRequest.getSenha());
+        Tokens.Emitido token = tokens.emitir(usuario.id());
+        return new LoginResponseDTO(token.valor(), token.expiraEm(), usuario);
     }
 
-    @GetMapping
-    public List<Usuario> findAll() {
-        return usuarioService.findAll();
+    @GetMapping("/{id}")
+    public UsuarioResponseDTO findById(@PathVariable Long id,
+                                       @RequestAttribute(AutenticacaoFilter.USUARIO) Long usuarioId,
+                                       WebRequest request) {
+        exigirProprio(id, usuarioId);
+        if (Etags.naoModificado(request, id, usuarioService::findVersao)) {
+            return null;
+        }
+        UsuarioResponseDTO usuario = usuarioService.findById(id);
+        request.checkNotModified(Etags.de(usuario.id(), usuario.versao()));
+        return usuario;
     }
 
-    @GetMapping("/{id}")
-    public Usuario findById(@PathVariable Long id) {
-        return usuarioService.findById(id);
+    @GetMapping("/{id}/anotacoes")
+    public PaginaDTO<AnotacaoResumoDTO> findAnotacoes(@PathVariable Long id,
+                                                     @RequestParam(required = false) Long after,
+                                                     @RequestParam(defaultValue = "50") int limit,
+                                                     @RequestAttribute(AutenticacaoFilter.USUARIO) Long usuarioId) {
+        exigirProprio(id, usuarioId);
+        return anotacaoService.findPageByUsuario(id, after, limit);
+    }
+
+    @GetMapping("/{id}/changes")
+    public AlteracoesDTO findAlteracoes(@PathVariable Long id,
+                                        @RequestParam(required = false) Long since,
+                                        @RequestParam(defaultValue = "100") int limit,
+                                        @RequestAttribute(AutenticacaoFilter.USUARIO) Long usuarioId) {
+        exigirProprio(id, usuarioId);
+        return alteracaoService.findDesde(id, since, limit);
+    }
+
+    @GetMapping(path = "/{id}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter events(@PathVariable Long id, @RequestAttribute(AutenticacaoFilter.USUARIO) Long usuarioId) {
+        exigirProprio(id, usuarioId);
+        return distribuidorEventos.assinar(id);
+    }
+
+    @GetMapping("/{id}/cadernos")
+    public PaginaDTO<CadernoResponseDTO> findCadernos(@PathVariable Long id,
+                                                      @RequestParam(required = false) Long after,
+                                                      @RequestParam(defaultValue = "50") int limit,
+                                                      @RequestAttribute(AutenticacaoFilter.USUARIO) Long usuarioId) {
+        exigirProprio(id, usuarioId);
+        return cadernoService.findPageByUsuario(id, after, limit);
+    }
+
+    @GetMapping(value = "/{id}/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> export(@PathVariable Long id,
+                                                        @RequestAttribute(AutenticacaoFilter.USUARIO) Long usuarioId) {
+        exigirProprio(id, usuarioId);
+        StreamingResponseBody corpo = exportacaoService.exportar(id);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"anotacoes-" + id + ".ndjson\"")
+                .body(corpo);
+    }
+
+    @PostMapping(value = "/{id}/import", consumes = {"application/zip", MediaType.APPLICATION_OCTET_STREAM_VALUE})
+    public ResponseEntity<ImportacaoDTO> importar(@PathVariable Long id, InputStream corpo,
+                                                  @RequestAttribute(AutenticacaoFilter.USUARIO) Long usuarioId) {
+        exigirProprio(id, usuarioId);
+        ImportacaoDTO importacao = importacaoService.iniciar(id, corpo);
+        return ResponseEntity.accepted()
+                .header(HttpHeaders.LOCATION, "/usuarios/" + id + "/import/" + importacao.id())
+                .body(importacao);
+    }
+
+    @GetMapping("/{id}/import/{jobId}")
+    public ImportacaoDTO findImportacao(@PathVariable Long id, @PathVariable String jobId,
+                                        @RequestAttribute(AutenticacaoFilter.USUARIO) Long usuarioId) {
+        exigirProprio(id, usuarioId);
+        return importacaoService.consultar(id, jobId);
     }
 
     @PostMapping
-    public Usuario create(@RequestBody UsuarioDTO usuarioDTO) {
+    public UsuarioResponseDTO create(@RequestBody UsuarioDTO usuarioDTO) {
         return usuarioService.save(usuarioDTO);
     }
 
     @DeleteMapping("/{id}")
-    public void deleteById(@PathVariable Long id) {
+    public void deleteById(@PathVariable Long id, @RequestAttribute(AutenticacaoFilter.USUARIO) Long usuarioId) {
+        exigirProprio(id, usuarioId);
         usuarioService.deleteById(id);
     }
 
     @PutMapping("/{id}")
-    public Usuario update(@PathVariable Long id, @RequestBody UsuarioDTO usuarioDTO) {
+    public UsuarioResponseDTO update(@PathVariable Long id, @RequestBody UsuarioDTO usuarioDTO,
+                                     @RequestAttribute(AutenticacaoFilter.USUARIO) Long usuarioId) {
+        exigirProprio(id, usuarioId);
         return usuarioService.update(id, usuarioDTO);
     }
+
+    // O filtro já recusa /usuarios/{id} de outro usuário; aqui a comparação é com o id já convertido.
+    private static void exigirProprio(Long id, Long usuarioId) {
+        if (!id.equals(usuarioId)) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Acesso negado");
+        }
+    }
 }
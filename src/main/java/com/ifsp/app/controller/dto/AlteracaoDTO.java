@@ -0,0 +1,6 @@
+package com.ifsp.app.controller.dto;
+
+import com.ifsp.app.model.enums.TipoAlteracao;
+
+public record AlteracaoDTO(Long seq, TipoAlteracao tipo, Long id, boolean removida) {
+}
@@ -0,0 +1,6 @@
+package com.ifsp.app.controller.dto;
+
+import java.util.List;
+
+public record AlteracoesDTO(List<AlteracaoDTO> alteracoes, Long cursor, boolean maisAlteracoes) {
+}
@@ -0,0 +1,4 @@
+package com.ifsp.app.controller.dto;
+
+public record AnotacaoExportacaoDTO(Long id, Long cadernoId, String titulo, String corpo) {
+}
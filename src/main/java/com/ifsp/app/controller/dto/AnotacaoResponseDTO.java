@@ -0,0 +1,14 @@
+package com.ifsp.app.controller.dto;
+
+import com.ifsp.app.model.Anotacao;
+
+public record AnotacaoResponseDTO(Long id, Long versao, String titulo, String corpo, Long usuarioId,
+                                  Long cadernoId) {
+
+    public static AnotacaoResponseDTO de(Anotacao anotacao) {
+        return new AnotacaoResponseDTO(anotacao.getId(), anotacao.getVersao(), anotacao.getTitulo(),
+                anotacao.getCorpo(),
+                anotacao.getUsuario() == null ? null : anotacao.getUsuario().getId(),
+                anotacao.getCaderno() == null ? null : anotacao.getCaderno().getId());
+    }
+}
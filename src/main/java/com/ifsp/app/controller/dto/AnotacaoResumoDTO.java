@@ -0,0 +1,4 @@
+package com.ifsp.app.controller.dto;
+
+public record AnotacaoResumoDTO(Long id, String titulo, Long usuarioId, Long cadernoId) {
+}
@@ -0,0 +1,11 @@
+package com.ifsp.app.controller.dto;
+
+import com.ifsp.app.model.Caderno;
+
+public record CadernoResponseDTO(Long id, Long versao, String titulo, Long usuarioId) {
+
+    public static CadernoResponseDTO de(Caderno caderno) {
+        return new CadernoResponseDTO(caderno.getId(), caderno.getVersao(), caderno.getTitulo(),
+                caderno.getUsuario() == null ? null : caderno.getUsuario().getId());
+    }
+}
@@ -0,0 +1,4 @@
+package com.ifsp.app.controller.dto;
+
+public record ImportacaoDTO(String id, String estado, long anotacoes, long cadernos, long ignoradas, String erro) {
+}
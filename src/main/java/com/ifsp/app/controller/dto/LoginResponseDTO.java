@@ -0,0 +1,6 @@
+package com.ifsp.app.controller.dto;
+
+import java.time.Instant;
+
+public record LoginResponseDTO(String token, Instant expiraEm, UsuarioResponseDTO usuario) {
+}
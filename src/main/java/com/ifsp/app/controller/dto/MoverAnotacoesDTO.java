@@ -0,0 +1,22 @@
+package com.ifsp.app.controller.dto;
+
+import java.util.List;
+
+public class MoverAnotacoesDTO {
+    private List<Long> ids;
+
+    public MoverAnotacoesDTO() {
+    }
+
+    public MoverAnotacoesDTO(List<Long> ids) {
+        this.ids = ids;
+    }
+
+    public List<Long> getIds() {
+        return ids;
+    }
+
+    public void setIds(List<Long> ids) {
+        this.ids = ids;
+    }
+}
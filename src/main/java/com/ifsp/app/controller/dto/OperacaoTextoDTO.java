@@ -0,0 +1,40 @@
+package com.ifsp.app.controller.dto;
+
+public class OperacaoTextoDTO {
+    private int posicao;
+    private int remover;
+    private String inserir;
+
+    public OperacaoTextoDTO() {
+    }
+
+    public OperacaoTextoDTO(int posicao, int remover, String inserir) {
+        this.posicao = posicao;
+        this.remover = remover;
+        this.inserir = inserir;
+    }
+
+    public int getPosicao() {
+        return posicao;
+    }
+
+    public void setPosicao(int posicao) {
+        this.posicao = posicao;
+    }
+
+    public int getRemover() {
+        return remover;
+    }
+
+    public void setRemover(int remover) {
+        this.remover = remover;
+    }
+
+    public String getInserir() {
+        return inserir;
+    }
+
+    public void setInserir(String inserir) {
+        this.inserir = inserir;
+    }
+}
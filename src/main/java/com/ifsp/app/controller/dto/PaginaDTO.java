@@ -0,0 +1,6 @@
+package com.ifsp.app.controller.dto;
+
+import java.util.List;
+
+public record PaginaDTO<T>(List<T> itens, Long proximoCursor) {
+}
@@ -0,0 +1,42 @@
+package com.ifsp.app.controller.dto;
+
+import java.util.List;
+
+public class PatchAnotacaoDTO {
+    private Long versao;
+    private String titulo;
+    private List<OperacaoTextoDTO> operacoes;
+
+    public PatchAnotacaoDTO() {
+    }
+
+    public PatchAnotacaoDTO(Long versao, String titulo, List<OperacaoTextoDTO> operacoes) {
+        this.versao = versao;
+        this.titulo = titulo;
+        this.operacoes = operacoes;
+    }
+
+    public Long getVersao() {
+        return versao;
+    }
+
+    public void setVersao(Long versao) {
+        this.versao = versao;
+    }
+
+    public String getTitulo() {
+        return titulo;
+    }
+
+    public void setTitulo(String titulo) {
+        this.titulo = titulo;
+    }
+
+    public List<OperacaoTextoDTO> getOperacoes() {
+        return operacoes;
+    }
+
+    public void setOperacoes(List<OperacaoTextoDTO> operacoes) {
+        this.operacoes = operacoes;
+    }
+}
@@ -0,0 +1,4 @@
+package com.ifsp.app.controller.dto;
+
+public record ResultadoBuscaDTO(Long id, String titulo, double pontuacao) {
+}
@@ -0,0 +1,4 @@
+package com.ifsp.app.controller.dto;
+
+public record ResultadoLoteDTO(int afetadas) {
+}
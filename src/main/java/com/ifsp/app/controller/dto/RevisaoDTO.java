@@ -0,0 +1,6 @@
+package com.ifsp.app.controller.dto;
+
+import java.time.Instant;
+
+public record RevisaoDTO(Integer numero, Long versao, String titulo, String corpo, Instant criadaEm) {
+}
@@ -0,0 +1,6 @@
+package com.ifsp.app.controller.dto;
+
+import java.time.Instant;
+
+public record RevisaoResumoDTO(Integer numero, Long versao, boolean completa, Instant criadaEm) {
+}
@@ -0,0 +1,10 @@
+package com.ifsp.app.controller.dto;
+
+import com.ifsp.app.model.Usuario;
+
+public record UsuarioResponseDTO(Long id, Long versao, String nome, String email) {
+
+    public static UsuarioResponseDTO de(Usuario usuario) {
+        return new UsuarioResponseDTO(usuario.getId(), usuario.getVersao(), usuario.getNome(), usuario.getEmail());
+    }
+}
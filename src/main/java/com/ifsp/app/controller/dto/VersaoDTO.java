@@ -0,0 +1,4 @@
+package com.ifsp.app.controller.dto;
+
+public record VersaoDTO(Long id, Long versao) {
+}
@@ -0,0 +1,63 @@
+package com.ifsp.app.model;
+
+import com.ifsp.app.model.enums.TipoAlteracao;
+import jakarta.persistence.*;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
+/**
+ * Última alteração de cada anotação ou caderno de um usuário. Cada criação, edição ou remoção regrava a linha
+ * da entidade com o próximo {@code seq} do usuário, então a tabela cresce com o número de entidades e não
+ * com o de edições; remoções ficam como lápides ({@code removida}).
+ */
+@Entity
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_alteracao_entidade",
+        columnNames = {"usuario_id", "tipo", "entidade_id"}),
+        indexes = @Index(name = "idx_alteracao_usuario_seq", columnList = "usuario_id, seq"))
+public class Alteracao {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "usuario_id", nullable = false)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    private Usuario usuario;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, columnDefinition = "varchar(16)")
+    private TipoAlteracao tipo;
+
+    @Column(name = "entidade_id", nullable = false)
+    private Long entidadeId;
+
+    @Column(nullable = false)
+    private Long seq;
+
+    @Column(nullable = false)
+    private boolean removida;
+
+    protected Alteracao() {
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public TipoAlteracao getTipo() {
+        return tipo;
+    }
+
+    public Long getEntidadeId() {
+        return entidadeId;
+    }
+
+    public Long getSeq() {
+        return seq;
+    }
+
+    public boolean isRemovida() {
+        return removida;
+    }
+}
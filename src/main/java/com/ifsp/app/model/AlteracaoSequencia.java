@@ -0,0 +1,37 @@
+package com.ifsp.app.model;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
+/**
+ * Contador de alterações por usuário. A linha fica travada da reserva até o commit, então os {@code seq} de
+ * um usuário aparecem para a leitura na mesma ordem em que foram reservados.
+ */
+@Entity
+public class AlteracaoSequencia {
+
+    @Id
+    @Column(name = "usuario_id")
+    private Long usuarioId;
+
+    @MapsId
+    @OneToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "usuario_id")
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    private Usuario usuario;
+
+    @Column(nullable = false)
+    private Long valor;
+
+    protected AlteracaoSequencia() {
+    }
+
+    public Long getUsuarioId() {
+        return usuarioId;
+    }
+
+    public Long getValor() {
+        return valor;
+    }
+}
@@ -1,32 +1,47 @@
 package com.ifsp.app.model;
 
-import com.fasterxml.jackson.annotation.JsonBackReference;
 import jakarta.persistence.*;
 
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_anotacao_usuario", columnList = "usuario_id, id"),
+        @Index(name = "idx_anotacao_caderno", columnList = "caderno_id, id")
+})
 public class Anotacao {
 
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    @Version
+    @Column(nullable = false, columnDefinition = "bigint default 0")
+    private Long versao;
+
     private String titulo;
+
+    // Carregado sob demanda (bytecode enhancement): listagens e projeções nunca leem o corpo.
+    @Lob
+    @Basic(fetch = FetchType.LAZY)
+    @Convert(converter = CorpoConverter.class)
+    @Column(name = "conteudo", columnDefinition = "longblob")
     private String corpo;
 
-    @ManyToOne(optional = false)
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
     @JoinColumn(name = "usuario_id", nullable = false)
-    @JsonBackReference
     private Usuario usuario;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "caderno_id", nullable = true)
-    @JsonBackReference
     private Caderno caderno;
 
     public Long getId() {
         return id;
     }
 
+    public Long getVersao() {
+        return versao;
+    }
+
     public String getTitulo() {
         return titulo;
     }
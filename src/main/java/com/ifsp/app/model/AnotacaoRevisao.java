@@ -0,0 +1,89 @@
+package com.ifsp.app.model;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
+import java.time.Instant;
+
+/**
+ * Uma versão do título e do corpo de uma anotação. Revisões completas guardam o corpo inteiro; as demais
+ * guardam só o delta em relação à revisão anterior e o título quando ele mudou (nulo quando não mudou).
+ */
+@Entity
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_revisao_anotacao_numero",
+        columnNames = {"anotacao_id", "numero"}))
+public class AnotacaoRevisao {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "anotacao_id", nullable = false)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    private Anotacao anotacao;
+
+    @Column(nullable = false)
+    private Integer numero;
+
+    @Column(nullable = false)
+    private Long versao;
+
+    @Column(nullable = false)
+    private boolean completa;
+
+    private String titulo;
+
+    @Column(columnDefinition = "longblob")
+    private byte[] dados;
+
+    @Column(nullable = false)
+    private Instant criadaEm;
+
+    protected AnotacaoRevisao() {
+    }
+
+    public AnotacaoRevisao(Anotacao anotacao, Integer numero, Long versao, boolean completa, String titulo,
+                           byte[] dados) {
+        this.anotacao = anotacao;
+        this.numero = numero;
+        this.versao = versao;
+        this.completa = completa;
+        this.titulo = titulo;
+        this.dados = dados;
+        this.criadaEm = Instant.now();
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Anotacao getAnotacao() {
+        return anotacao;
+    }
+
+    public Integer getNumero() {
+        return numero;
+    }
+
+    public Long getVersao() {
+        return versao;
+    }
+
+    public boolean isCompleta() {
+        return completa;
+    }
+
+    public String getTitulo() {
+        return titulo;
+    }
+
+    public byte[] getDados() {
+        return dados;
+    }
+
+    public Instant getCriadaEm() {
+        return criadaEm;
+    }
+}
@@ -1,34 +1,39 @@
 package com.ifsp.app.model;
 
-import com.fasterxml.jackson.annotation.JsonBackReference;
-import com.fasterxml.jackson.annotation.JsonManagedReference;
 import jakarta.persistence.*;
 
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
+@Table(indexes = @Index(name = "idx_caderno_usuario", columnList = "usuario_id, id"))
 public class Caderno {
 
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    @Version
+    @Column(nullable = false, columnDefinition = "bigint default 0")
+    private Long versao;
+
     private String titulo;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name="usuario_id")
-    @JsonBackReference
     private Usuario usuario;
 
     @OneToMany(mappedBy = "caderno", cascade = CascadeType.ALL)
-    @JsonManagedReference
     private List<Anotacao> anotacoes = new ArrayList<>();
 
     public Long getId() {
         return id;
     }
 
+    public Long getVersao() {
+        return versao;
+    }
+
     public String getTitulo() {
         return titulo;
     }
@@ -0,0 +1,96 @@
+package com.ifsp.app.model;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Formato do corpo na coluna {@code conteudo}. Corpos menores que {@link #LIMIAR} ficam em UTF-8 puro; os
+ * maiores são comprimidos com Deflate e gravados atrás de um cabeçalho de 6 bytes: {@code 0xFF} (byte que
+ * nunca aparece em UTF-8), o formato e o tamanho original. Linhas sem cabeçalho continuam legíveis.
+ */
+public final class CorpoCodec {
+
+    public static final int LIMIAR = 512;
+
+    static final byte MARCA = (byte) 0xFF;
+    static final byte DEFLATE = 1;
+    static final int CABECALHO = 6;
+
+    private CorpoCodec() {
+    }
+
+    public static byte[] codificar(String corpo) {
+        return corpo == null ? null : codificarBytes(corpo.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Serve para qualquer conteúdo cujo primeiro byte nunca seja 0xFF, não só texto em UTF-8.
+    public static byte[] codificarBytes(byte[] dados) {
+        if (dados.length < LIMIAR) {
+            return dados;
+        }
+        byte[] comprimido = comprimir(dados);
+        return comprimido == null ? dados : comprimido;
+    }
+
+    public static String decodificar(byte[] conteudo) {
+        return conteudo == null ? null : new String(decodificarBytes(conteudo), StandardCharsets.UTF_8);
+    }
+
+    public static byte[] decodificarBytes(byte[] conteudo) {
+        if (!comprimido(conteudo)) {
+            return conteudo;
+        }
+        if (conteudo[1] != DEFLATE) {
+            throw new IllegalStateException("Formato de corpo desconhecido: " + conteudo[1]);
+        }
+        byte[] original = new byte[ByteBuffer.wrap(conteudo).getInt(2)];
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(conteudo, CABECALHO, conteudo.length - CABECALHO);
+            int lidos = 0;
+            while (lidos < original.length) {
+                int n = inflater.inflate(original, lidos, original.length - lidos);
+                if (n == 0 && (inflater.finished() || inflater.needsInput())) {
+                    throw new IllegalStateException("Corpo comprimido truncado");
+                }
+                lidos += n;
+            }
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("Corpo comprimido corrompido", e);
+        } finally {
+            inflater.end();
+        }
+        return original;
+    }
+
+    public static boolean comprimido(byte[] conteudo) {
+        return conteudo.length >= CABECALHO && conteudo[0] == MARCA;
+    }
+
+    // Devolve null quando a saída não ficaria menor que a entrada; nesse caso o corpo é gravado sem compressão.
+    private static byte[] comprimir(byte[] utf8) {
+        Deflater deflater = new Deflater();
+        try {
+            deflater.setInput(utf8);
+            deflater.finish();
+            byte[] saida = new byte[utf8.length];
+            saida[0] = MARCA;
+            saida[1] = DEFLATE;
+            ByteBuffer.wrap(saida).putInt(2, utf8.length);
+            int escritos = CABECALHO;
+            while (!deflater.finished()) {
+                if (escritos == saida.length) {
+                    return null;
+                }
+                escritos += deflater.deflate(saida, escritos, saida.length - escritos);
+            }
+            return Arrays.copyOf(saida, escritos);
+        } finally {
+            deflater.end();
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.ifsp.app.model;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+@Converter
+public class CorpoConverter implements AttributeConverter<String, byte[]> {
+
+    @Override
+    public byte[] convertToDatabaseColumn(String corpo) {
+        return CorpoCodec.codificar(corpo);
+    }
+
+    @Override
+    public String convertToEntityAttribute(byte[] conteudo) {
+        return CorpoCodec.decodificar(conteudo);
+    }
+}
@@ -1,34 +1,40 @@
 package com.ifsp.app.model;
 
-import com.fasterxml.jackson.annotation.JsonManagedReference;
 import jakarta.persistence.*;
 
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_usuario_email", columnNames = "email"))
 public class Usuario {
 
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    @Version
+    @Column(nullable = false, columnDefinition = "bigint default 0")
+    private Long versao;
+
     private String nome;
     private String email;
     private String senha;
 
     @OneToMany(mappedBy = "usuario", cascade = CascadeType.ALL)
-    @JsonManagedReference
     private List<Caderno> cadernos = new ArrayList<>();
 
     @OneToMany(mappedBy = "usuario", cascade = CascadeType.ALL)
-    @JsonManagedReference
     private List<Anotacao> anotacoes = new ArrayList<>();
 
     public Long getId() {
         return id;
     }
 
+    public Long getVersao() {
+        return versao;
+    }
+
     public String getNome() {
         return nome;
     }
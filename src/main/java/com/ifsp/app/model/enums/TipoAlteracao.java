@@ -0,0 +1,6 @@
+package com.ifsp.app.model.enums;
+
+public enum TipoAlteracao {
+    ANOTACAO,
+    CADERNO
+}
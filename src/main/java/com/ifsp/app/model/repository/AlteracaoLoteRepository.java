@@ -0,0 +1,61 @@
+package com.ifsp.app.model.repository;
+
+import com.ifsp.app.model.enums.TipoAlteracao;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Grava alterações em lote via JDBC. Reserva {@code ids.size()} números na sequência do usuário com um único
+ * upsert, que trava a linha do contador até o commit, e regrava a linha de cada entidade com o seu número.
+ * Os números vão em sequência, na ordem de {@code ids}, e o último é devolvido.
+ */
+@Repository
+public class AlteracaoLoteRepository {
+
+    private static final String RESERVAR = "insert into alteracao_sequencia (usuario_id, valor) values (?, ?) "
+            + "on duplicate key update valor = valor + ?";
+    private static final String ULTIMO = "select valor from alteracao_sequencia where usuario_id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private volatile String registrar;
+
+    public AlteracaoLoteRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public long registrar(Long usuarioId, TipoAlteracao tipo, Collection<Long> ids, boolean removida) {
+        jdbcTemplate.update(RESERVAR, usuarioId, ids.size(), ids.size());
+        Long ultimo = jdbcTemplate.queryForObject(ULTIMO, Long.class, usuarioId);
+        long seq = ultimo - ids.size();
+        List<Object[]> linhas = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            linhas.add(new Object[]{usuarioId, tipo.name(), id, ++seq, removida});
+        }
+        jdbcTemplate.batchUpdate(registrar(), linhas);
+        return ultimo;
+    }
+
+    private String registrar() {
+        String sql = registrar;
+        if (sql == null) {
+            sql = registrar(jdbcTemplate.execute((ConnectionCallback<String>) con ->
+                    con.getMetaData().getDatabaseProductName()));
+            registrar = sql;
+        }
+        return sql;
+    }
+
+    // VALUES(coluna) no ON DUPLICATE KEY UPDATE é obsoleto desde o MySQL 8.0.20; o apelido de linha o substitui,
+    // mas o MariaDB e o H2 do perfil embedded só entendem a forma antiga.
+    static String registrar(String banco) {
+        String atualizar = banco.toLowerCase().contains("mysql")
+                ? "values (?, ?, ?, ?, ?) as novo on duplicate key update seq = novo.seq, removida = novo.removida"
+                : "values (?, ?, ?, ?, ?) on duplicate key update seq = values(seq), removida = values(removida)";
+        return "insert into alteracao (usuario_id, tipo, entidade_id, seq, removida) " + atualizar;
+    }
+}
@@ -0,0 +1,18 @@
+package com.ifsp.app.model.repository;
+
+import com.ifsp.app.controller.dto.AlteracaoDTO;
+import com.ifsp.app.model.Alteracao;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+public interface AlteracaoRepository extends JpaRepository<Alteracao, Long> {
+
+    @Query("select new com.ifsp.app.controller.dto.AlteracaoDTO(a.seq, a.tipo, a.entidadeId, a.removida) "
+            + "from Alteracao a where a.usuario.id = :usuarioId and a.seq > :since order by a.seq")
+    List<AlteracaoDTO> findByUsuarioIdAndSeqGreaterThan(@Param("usuarioId") Long usuarioId,
+                                                        @Param("since") Long since, Limit limit);
+}
@@ -0,0 +1,64 @@
+package com.ifsp.app.model.repository;
+
+import com.ifsp.app.model.CorpoConverter;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Inserção em lote via JDBC. O Hibernate não agrupa inserts de entidades com id IDENTITY, então este
+ * caminho usa addBatch/executeBatch direto; com rewriteBatchedStatements=true o driver do MySQL envia
+ * cada lote como um único INSERT de várias linhas e devolve as chaves geradas em ordem.
+ */
+@Repository
+public class AnotacaoLoteRepository {
+
+    static final int TAMANHO_LOTE = 500;
+
+    private static final String INSERT =
+            "insert into anotacao (versao, titulo, conteudo, usuario_id, caderno_id) values (0, ?, ?, ?, ?)";
+
+    private static final CorpoConverter CORPO = new CorpoConverter();
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public AnotacaoLoteRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public List<Long> inserir(List<NovaAnotacao> anotacoes) {
+        return jdbcTemplate.execute((ConnectionCallback<List<Long>>) con -> {
+            List<Long> ids = new ArrayList<>(anotacoes.size());
+            try (PreparedStatement ps = con.prepareStatement(INSERT, Statement.RETURN_GENERATED_KEYS)) {
+                for (int inicio = 0; inicio < anotacoes.size(); inicio += TAMANHO_LOTE) {
+                    int fim = Math.min(inicio + TAMANHO_LOTE, anotacoes.size());
+                    for (NovaAnotacao a : anotacoes.subList(inicio, fim)) {
+                        ps.setString(1, a.titulo());
+                        ps.setBytes(2, CORPO.convertToDatabaseColumn(a.corpo()));
+                        ps.setLong(3, a.usuarioId());
+                        if (a.cadernoId() == null) {
+                            ps.setNull(4, Types.BIGINT);
+                        } else {
+                            ps.setLong(4, a.cadernoId());
+                        }
+                        ps.addBatch();
+                    }
+                    ps.executeBatch();
+                    try (ResultSet chaves = ps.getGeneratedKeys()) {
+                        while (chaves.next()) {
+                            ids.add(chaves.getLong(1));
+                        }
+                    }
+                }
+            }
+            return ids;
+        });
+    }
+}
@@ -1,6 +1,73 @@
 package com.ifsp.app.model.repository;
 
+import com.ifsp.app.controller.dto.AnotacaoExportacaoDTO;
+import com.ifsp.app.controller.dto.AnotacaoResponseDTO;
+import com.ifsp.app.controller.dto.AnotacaoResumoDTO;
 import com.ifsp.app.model.Anotacao;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
-public interface AnotacaoRepository extends JpaRepository<Anotacao, Long> {}
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+public interface AnotacaoRepository extends JpaRepository<Anotacao, Long> {
+    @Query("select new com.ifsp.app.controller.dto.AnotacaoResumoDTO(a.id, a.titulo, a.usuario.id, c.id) "
+            + "from Anotacao a left join a.caderno c where a.usuario.id = :usuarioId and a.id > :after order by a.id")
+    List<AnotacaoResumoDTO> findResumoByUsuarioIdAndIdGreaterThan(@Param("usuarioId") Long usuarioId,
+                                                                  @Param("after") Long after, Limit limit);
+
+    @Query("select new com.ifsp.app.controller.dto.AnotacaoResumoDTO(a.id, a.titulo, a.usuario.id, a.caderno.id) "
+            + "from Anotacao a where a.caderno.id = :cadernoId and a.id > :after order by a.id")
+    List<AnotacaoResumoDTO> findResumoByCadernoIdAndIdGreaterThan(@Param("cadernoId") Long cadernoId,
+                                                                  @Param("after") Long after, Limit limit);
+
+    @Query("select new com.ifsp.app.controller.dto.AnotacaoResponseDTO(a.id, a.versao, a.titulo, a.corpo, "
+            + "a.usuario.id, c.id) from Anotacao a left join a.caderno c where a.id = :id")
+    Optional<AnotacaoResponseDTO> findResponseById(@Param("id") Long id);
+
+    @Query("select a.versao from Anotacao a where a.id = :id and a.usuario.id = :usuarioId")
+    Optional<Long> findVersaoByIdAndUsuarioId(@Param("id") Long id, @Param("usuarioId") Long usuarioId);
+
+    @Query("select a.usuario.id from Anotacao a where a.id = :id")
+    Optional<Long> findUsuarioIdById(@Param("id") Long id);
+
+    @Query("select a.id from Anotacao a where a.caderno.id = :cadernoId")
+    List<Long> findIdsByCadernoId(@Param("cadernoId") Long cadernoId);
+
+    @Query("select a.id from Anotacao a where a.id in :ids and a.usuario.id = :usuarioId")
+    List<Long> findIdsByIdInAndUsuarioId(@Param("ids") Collection<Long> ids, @Param("usuarioId") Long usuarioId);
+
+    @Query("select a.id as id, a.usuario.id as usuarioId, a.titulo as titulo, a.corpo as corpo "
+            + "from Anotacao a where a.id > :after order by a.id")
+    List<AnotacaoTexto> findTextoByIdGreaterThan(@Param("after") Long after, Limit limit);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select new com.ifsp.app.controller.dto.AnotacaoExportacaoDTO(a.id, c.id, a.titulo, a.corpo) "
+            + "from Anotacao a left join a.caderno c where a.usuario.id = :usuarioId order by a.id")
+    Stream<AnotacaoExportacaoDTO> streamExportacaoByUsuarioId(@Param("usuarioId") Long usuarioId);
+
+    // A posse das anotações e do caderno de destino é conferida no próprio UPDATE/DELETE.
+    @Modifying(clearAutomatically = true)
+    @Query(value = "update anotacao set caderno_id = :cadernoId, versao = versao + 1 "
+            + "where id in (:ids) and usuario_id = :usuarioId "
+            + "and exists (select 1 from caderno c where c.id = :cadernoId and c.usuario_id = :usuarioId)",
+            nativeQuery = true)
+    int updateCadernoByIdIn(@Param("cadernoId") Long cadernoId,
+                            @Param("usuarioId") Long usuarioId,
+                            @Param("ids") Collection<Long> ids);
+
+    @Modifying(clearAutomatically = true)
+    @Query(value = "delete from anotacao where id in (:ids) and usuario_id = :usuarioId", nativeQuery = true)
+    int deleteByIdInAndUsuarioId(@Param("ids") Collection<Long> ids, @Param("usuarioId") Long usuarioId);
+}
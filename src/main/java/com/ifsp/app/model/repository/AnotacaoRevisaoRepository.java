@@ -0,0 +1,22 @@
+package com.ifsp.app.model.repository;
+
+import com.ifsp.app.controller.dto.RevisaoResumoDTO;
+import com.ifsp.app.model.AnotacaoRevisao;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface AnotacaoRevisaoRepository extends JpaRepository<AnotacaoRevisao, Long> {
+
+    @Query("select max(r.numero) from AnotacaoRevisao r where r.anotacao.id = :anotacaoId")
+    Optional<Integer> findUltimoNumeroByAnotacaoId(Long anotacaoId);
+
+    @Query("select new com.ifsp.app.controller.dto.RevisaoResumoDTO(r.numero, r.versao, r.completa, r.criadaEm) "
+            + "from AnotacaoRevisao r where r.anotacao.id = :anotacaoId and r.numero > :after order by r.numero")
+    List<RevisaoResumoDTO> findResumoByAnotacaoIdAndNumeroGreaterThan(Long anotacaoId, Integer after, Limit limit);
+
+    List<AnotacaoRevisao> findByAnotacaoIdAndNumeroBetweenOrderByNumero(Long anotacaoId, Integer de, Integer ate);
+}
@@ -0,0 +1,11 @@
+package com.ifsp.app.model.repository;
+
+public interface AnotacaoTexto {
+    Long getId();
+
+    Long getUsuarioId();
+
+    String getTitulo();
+
+    String getCorpo();
+}
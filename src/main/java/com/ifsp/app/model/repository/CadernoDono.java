@@ -0,0 +1,7 @@
+package com.ifsp.app.model.repository;
+
+public interface CadernoDono {
+    Long getId();
+
+    Long getUsuarioId();
+}
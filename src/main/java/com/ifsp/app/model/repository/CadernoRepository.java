@@ -1,6 +1,32 @@
 package com.ifsp.app.model.repository;
 
+import com.ifsp.app.controller.dto.CadernoResponseDTO;
 import com.ifsp.app.model.Caderno;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
-public interface CadernoRepository extends JpaRepository<Caderno, Long> {}
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface CadernoRepository extends JpaRepository<Caderno, Long> {
+    @Query("select new com.ifsp.app.controller.dto.CadernoResponseDTO(c.id, c.versao, c.titulo, c.usuario.id) "
+            + "from Caderno c where c.usuario.id = :usuarioId and c.id > :after order by c.id")
+    List<CadernoResponseDTO> findResponseByUsuarioIdAndIdGreaterThan(@Param("usuarioId") Long usuarioId,
+                                                                     @Param("after") Long after, Limit limit);
+
+    @Query("select new com.ifsp.app.controller.dto.CadernoResponseDTO(c.id, c.versao, c.titulo, c.usuario.id) "
+            + "from Caderno c where c.id = :id")
+    Optional<CadernoResponseDTO> findResponseById(@Param("id") Long id);
+
+    @Query("select c.versao from Caderno c where c.id = :id and c.usuario.id = :usuarioId")
+    Optional<Long> findVersaoByIdAndUsuarioId(@Param("id") Long id, @Param("usuarioId") Long usuarioId);
+
+    @Query("select c.usuario.id from Caderno c where c.id = :id")
+    Optional<Long> findUsuarioIdById(@Param("id") Long id);
+
+    @Query("select c.id as id, c.usuario.id as usuarioId from Caderno c where c.id in :ids")
+    List<CadernoDono> findDonosByIdIn(@Param("ids") Collection<Long> ids);
+}
@@ -0,0 +1,78 @@
+package com.ifsp.app.model.repository;
+
+import com.ifsp.app.model.CorpoCodec;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Comprime em segundo plano os corpos gravados antes do {@link CorpoCodec}. Percorre a tabela por id em lotes
+ * pequenos e só regrava a linha se a versão não mudou desde a leitura, então uma edição concorrente nunca é
+ * sobrescrita; a versão não é incrementada porque o texto continua o mesmo.
+ */
+@Component
+public class CompactacaoCorpo {
+
+    private static final Logger log = LoggerFactory.getLogger(CompactacaoCorpo.class);
+
+    static final int TAMANHO_LOTE = 200;
+
+    private static final String PENDENTES = "select id, versao, conteudo from anotacao "
+            + "where id > ? and length(conteudo) >= ? and substring(conteudo, 1, 1) <> x'ff' "
+            + "order by id limit " + TAMANHO_LOTE;
+    private static final String COMPACTAR = "update anotacao set conteudo = ? where id = ? and versao = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public CompactacaoCorpo(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void iniciar() {
+        Thread.ofPlatform().name("compactacao-corpo").daemon().start(() -> {
+            try {
+                compactar();
+            } catch (RuntimeException e) {
+                log.warn("Falha ao comprimir corpos de anotação", e);
+            }
+        });
+    }
+
+    long compactar() {
+        long inicio = System.nanoTime();
+        long total = 0;
+        long cursor = 0;
+        List<Pendente> lote;
+        do {
+            lote = jdbcTemplate.query(PENDENTES, (rs, i) -> new Pendente(rs.getLong(1), rs.getLong(2),
+                    rs.getBytes(3)), cursor, CorpoCodec.LIMIAR);
+            List<Object[]> alteracoes = new ArrayList<>(lote.size());
+            for (Pendente p : lote) {
+                byte[] comprimido = CorpoCodec.codificarBytes(p.conteudo());
+                if (CorpoCodec.comprimido(comprimido)) {
+                    alteracoes.add(new Object[]{comprimido, p.id(), p.versao()});
+                }
+                cursor = p.id();
+            }
+            if (!alteracoes.isEmpty()) {
+                for (int linhas : jdbcTemplate.batchUpdate(COMPACTAR, alteracoes)) {
+                    total += Math.max(linhas, 0);
+                }
+            }
+        } while (lote.size() == TAMANHO_LOTE && !Thread.currentThread().isInterrupted());
+        if (total > 0) {
+            log.info("{} corpos de anotação comprimidos em {} ms", total, (System.nanoTime() - inicio) / 1_000_000);
+        }
+        return total;
+    }
+
+    private record Pendente(long id, long versao, byte[] conteudo) {
+    }
+}
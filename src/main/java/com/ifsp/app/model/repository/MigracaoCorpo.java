@@ -0,0 +1,81 @@
+package com.ifsp.app.model.repository;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+
+/**
+ * Bancos criados antes da coluna {@code conteudo} guardam o corpo na coluna antiga {@code corpo}, que o
+ * ddl-auto não altera nem remove. Na subida, antes de o servidor aceitar requisições, os corpos antigos são
+ * copiados em lotes para {@code conteudo} e apagados da coluna antiga.
+ */
+@Component
+public class MigracaoCorpo implements SmartInitializingSingleton {
+
+    private static final Logger log = LoggerFactory.getLogger(MigracaoCorpo.class);
+
+    static final int TAMANHO_LOTE = 1_000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private boolean concluida;
+
+    public MigracaoCorpo(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        migrar();
+    }
+
+    /** Roda uma vez; quem lê os corpos na subida, como o índice de busca, chama antes para não depender da ordem. */
+    public synchronized void migrar() {
+        if (concluida) {
+            return;
+        }
+        concluida = true;
+        if (!existeColunaAntiga()) {
+            return;
+        }
+        String migrar = migrar(jdbcTemplate.execute((ConnectionCallback<String>) con ->
+                con.getMetaData().getDatabaseProductName()));
+        int total = 0;
+        int migradas;
+        do {
+            migradas = jdbcTemplate.update(migrar);
+            total += migradas;
+        } while (migradas > 0);
+        if (total > 0) {
+            log.info("{} corpos de anotação migrados para a coluna conteudo", total);
+        }
+    }
+
+    // Copiado direto, o texto vai para o longblob nos bytes do charset da coluna (latin1, utf8mb3), e o
+    // CorpoConverter lê UTF-8; o MySQL precisa converter antes. O H2 já grava texto como binário em UTF-8.
+    static String migrar(String banco) {
+        String nome = banco.toLowerCase();
+        String origem = nome.contains("mysql") || nome.contains("mariadb") ? "convert(corpo using utf8mb4)" : "corpo";
+        return "update anotacao set conteudo = " + origem + ", corpo = null "
+                + "where conteudo is null and corpo is not null limit " + TAMANHO_LOTE;
+    }
+
+    private boolean existeColunaAntiga() {
+        return Boolean.TRUE.equals(jdbcTemplate.execute((ConnectionCallback<Boolean>) con -> {
+            DatabaseMetaData metaData = con.getMetaData();
+            for (String[] nomes : new String[][]{{"anotacao", "corpo"}, {"ANOTACAO", "CORPO"}}) {
+                try (ResultSet colunas = metaData.getColumns(con.getCatalog(), null, nomes[0], nomes[1])) {
+                    if (colunas.next()) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }));
+    }
+}
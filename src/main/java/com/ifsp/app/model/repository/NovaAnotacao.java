@@ -0,0 +1,4 @@
+package com.ifsp.app.model.repository;
+
+public record NovaAnotacao(String titulo, String corpo, Long usuarioId, Long cadernoId) {
+}
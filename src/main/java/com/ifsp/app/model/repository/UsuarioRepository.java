@@ -1,10 +1,33 @@
 package com.ifsp.app.model.repository;
 
+import com.ifsp.app.controller.dto.UsuarioResponseDTO;
 import com.ifsp.app.model.Usuario;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface UsuarioRepository extends JpaRepository<Usuario, Long> {
     Optional<Usuario> findByEmail(String email);
+
+    @Query("select new com.ifsp.app.controller.dto.UsuarioResponseDTO(u.id, u.versao, u.nome, u.email) "
+            + "from Usuario u where u.id = :id")
+    Optional<UsuarioResponseDTO> findResponseById(@Param("id") Long id);
+
+    @Query("select u.versao from Usuario u where u.id = :id")
+    Optional<Long> findVersaoById(@Param("id") Long id);
+
+    @Query("select u.id from Usuario u where u.id in :ids")
+    List<Long> findIdsByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Só regrava se a senha não mudou desde a leitura; não incrementa a versão (a senha não aparece nas respostas).
+    @Transactional
+    @Modifying
+    @Query("update Usuario u set u.senha = :nova where u.id = :id and u.senha = :antiga")
+    int updateSenha(@Param("id") Long id, @Param("antiga") String antiga, @Param("nova") String nova);
 }
@@ -0,0 +1,73 @@
+package com.ifsp.app.service;
+
+import com.ifsp.app.controller.dto.AlteracaoDTO;
+import com.ifsp.app.controller.dto.AlteracoesDTO;
+import com.ifsp.app.model.enums.TipoAlteracao;
+import com.ifsp.app.model.repository.AlteracaoLoteRepository;
+import com.ifsp.app.model.repository.AlteracaoRepository;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Registro de alterações para a sincronização incremental. Os clientes guardam o {@code cursor} da última
+ * resposta e pedem só o que mudou depois dele; uma entidade editada várias vezes aparece uma vez só, com o
+ * {@code seq} da edição mais recente. Cada registro também é publicado como {@link AlteracoesRegistradas} para
+ * quem acompanha as alterações ao vivo.
+ */
+@Service
+public class AlteracaoService {
+
+    private final AlteracaoRepository alteracaoRepository;
+    private final AlteracaoLoteRepository alteracaoLoteRepository;
+    private final ReferenciaCache referenciaCache;
+    private final ApplicationEventPublisher eventos;
+
+    public AlteracaoService(AlteracaoRepository alteracaoRepository,
+                            AlteracaoLoteRepository alteracaoLoteRepository,
+                            ReferenciaCache referenciaCache,
+                            ApplicationEventPublisher eventos) {
+        this.alteracaoRepository = alteracaoRepository;
+        this.alteracaoLoteRepository = alteracaoLoteRepository;
+        this.referenciaCache = referenciaCache;
+        this.eventos = eventos;
+    }
+
+    public AlteracoesDTO findDesde(Long usuarioId, Long since, int limit) {
+        referenciaCache.exigirUsuario(usuarioId);
+        int limite = Paginacao.normalizar(limit);
+        Long cursor = Paginacao.cursor(since);
+        List<AlteracaoDTO> linhas = alteracaoRepository.findByUsuarioIdAndSeqGreaterThan(usuarioId, cursor,
+                Paginacao.consulta(limite));
+        boolean mais = linhas.size() > limite;
+        List<AlteracaoDTO> itens = mais ? linhas.subList(0, limite) : linhas;
+        return new AlteracoesDTO(itens, itens.isEmpty() ? cursor : itens.get(itens.size() - 1).seq(), mais);
+    }
+
+    // Precisa rodar na transação da escrita: a alteração só fica visível junto com o dado alterado.
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void registrar(Long usuarioId, TipoAlteracao tipo, Long id, boolean removida) {
+        registrar(usuarioId, tipo, List.of(id), removida);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void registrar(Long usuarioId, TipoAlteracao tipo, Collection<Long> ids, boolean removida) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        Set<Long> distintos = new LinkedHashSet<>(ids);
+        long seq = alteracaoLoteRepository.registrar(usuarioId, tipo, distintos, removida) - distintos.size();
+        List<AlteracaoDTO> alteracoes = new ArrayList<>(distintos.size());
+        for (Long id : distintos) {
+            alteracoes.add(new AlteracaoDTO(++seq, tipo, id, removida));
+        }
+        eventos.publishEvent(new AlteracoesRegistradas(usuarioId, alteracoes));
+    }
+}
@@ -0,0 +1,8 @@
+package com.ifsp.app.service;
+
+import com.ifsp.app.controller.dto.AlteracaoDTO;
+
+import java.util.List;
+
+public record AlteracoesRegistradas(Long usuarioId, List<AlteracaoDTO> alteracoes) {
+}
@@ -1,84 +1,329 @@
 package com.ifsp.app.service;
 
 import com.ifsp.app.controller.dto.AnotacaoDTO;
+import com.ifsp.app.controller.dto.AnotacaoResponseDTO;
+import com.ifsp.app.controller.dto.AnotacaoResumoDTO;
+import com.ifsp.app.controller.dto.PaginaDTO;
+import com.ifsp.app.controller.dto.PatchAnotacaoDTO;
+import com.ifsp.app.controller.dto.ResultadoBuscaDTO;
+import com.ifsp.app.controller.dto.VersaoDTO;
 import com.ifsp.app.model.Anotacao;
 import com.ifsp.app.model.Caderno;
 import com.ifsp.app.model.Usuario;
+import com.ifsp.app.model.enums.TipoAlteracao;
+import com.ifsp.app.model.repository.AnotacaoLoteRepository;
 import com.ifsp.app.model.repository.AnotacaoRepository;
 import com.ifsp.app.model.repository.CadernoRepository;
+import com.ifsp.app.model.repository.NovaAnotacao;
 import com.ifsp.app.model.repository.UsuarioRepository;
+import com.ifsp.app.service.busca.IndiceBusca;
 import org.springframework.http.HttpStatus;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
 
 @Service
 public class AnotacaoService {
 
+    private static final int LIMITE_BUSCA = 100;
+    private static final int LIMITE_BULK = 10_000;
+
     private final AnotacaoRepository anotacaoRepository;
     private final UsuarioRepository usuarioRepository;
     private final CadernoRepository cadernoRepository;
+    private final AnotacaoLoteRepository anotacaoLoteRepository;
+    private final IndiceBusca indiceBusca;
+    private final ReferenciaCache referenciaCache;
+    private final RevisaoService revisaoService;
+    private final AlteracaoService alteracaoService;
 
     public AnotacaoService(AnotacaoRepository anotacaoRepository,
                            UsuarioRepository usuarioRepository,
-                           CadernoRepository cadernoRepository) {
+                           CadernoRepository cadernoRepository,
+                           AnotacaoLoteRepository anotacaoLoteRepository,
+                           IndiceBusca indiceBusca,
+                           ReferenciaCache referenciaCache,
+                           RevisaoService revisaoService,
+                           AlteracaoService alteracaoService) {
         this.anotacaoRepository = anotacaoRepository;
         this.usuarioRepository = usuarioRepository;
         this.cadernoRepository = cadernoRepository;
+        this.anotacaoLoteRepository = anotacaoLoteRepository;
+        this.indiceBusca = indiceBusca;
+        this.referenciaCache = referenciaCache;
+        this.revisaoService = revisaoService;
+        this.alteracaoService = alteracaoService;
     }
 
-    public List<Anotacao> findAll() {
-        return anotacaoRepository.findAll();
+    public PaginaDTO<AnotacaoResumoDTO> findPageByUsuario(Long usuarioId, Long after, int limit) {
+        int limite = Paginacao.normalizar(limit);
+        List<AnotacaoResumoDTO> linhas = anotacaoRepository.findResumoByUsuarioIdAndIdGreaterThan(usuarioId,
+                Paginacao.cursor(after), Paginacao.consulta(limite));
+        return Paginacao.pagina(linhas, limite, AnotacaoResumoDTO::id);
     }
 
-    public Anotacao findById(Long id) {
-        return anotacaoRepository.findById(id)
+    public PaginaDTO<AnotacaoResumoDTO> findPageByCaderno(Long cadernoId, Long usuarioId, Long after, int limit) {
+        if (usuarioId != null) {
+            exigirDono(referenciaCache.exigirCaderno(cadernoId), usuarioId, "Caderno não encontrado");
+        }
+        int limite = Paginacao.normalizar(limit);
+        List<AnotacaoResumoDTO> linhas = anotacaoRepository.findResumoByCadernoIdAndIdGreaterThan(cadernoId,
+                Paginacao.cursor(after), Paginacao.consulta(limite));
+        return Paginacao.pagina(linhas, limite, AnotacaoResumoDTO::id);
+    }
+
+    public List<ResultadoBuscaDTO> search(Long usuarioId, String q, int limit) {
+        if (usuarioId == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Usuário é obrigatório na busca");
+        }
+        return indiceBusca.buscar(usuarioId, q, Math.max(1, Math.min(limit, LIMITE_BUSCA)));
+    }
+
+    public AnotacaoResponseDTO findById(Long id) {
+        return anotacaoRepository.findResponseById(id)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Anotação não encontrada"));
     }
 
-    public Anotacao save(AnotacaoDTO anotacaoDTO) {
-        Usuario usuario = usuarioRepository.findById(anotacaoDTO.getUsuarioId())
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Usuário não encontrado"));
+    // Restrita ao dono: o 304 de um If-None-Match não pode revelar que a anotação de outro usuário existe.
+    public Long findVersao(Long id, Long usuarioId) {
+        return anotacaoRepository.findVersaoByIdAndUsuarioId(id, usuarioId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Anotação não encontrada"));
+    }
+
+    @Transactional
+    public AnotacaoResponseDTO save(AnotacaoDTO anotacaoDTO) {
+        referenciaCache.exigirUsuario(anotacaoDTO.getUsuarioId());
+        Usuario usuario = usuarioRepository.getReferenceById(anotacaoDTO.getUsuarioId());
         Caderno caderno = null;
         if (anotacaoDTO.getCadernoId() != null && anotacaoDTO.getCadernoId() > 0) {
-            caderno = cadernoRepository.findById(anotacaoDTO.getCadernoId())
-                    .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Caderno não encontrado"));
+            exigirDono(referenciaCache.exigirCaderno(anotacaoDTO.getCadernoId()), anotacaoDTO.getUsuarioId(),
+                    "Caderno não encontrado");
+            caderno = cadernoRepository.getReferenceById(anotacaoDTO.getCadernoId());
         }
         Anotacao anotacao = new Anotacao();
         anotacao.setTitulo(anotacaoDTO.getTitulo());
         anotacao.setCorpo(anotacaoDTO.getCorpo());
         anotacao.setUsuario(usuario);
         anotacao.setCaderno(caderno);
-        return anotacaoRepository.save(anotacao);
+        Anotacao salva = anotacaoRepository.save(anotacao);
+        alteracaoService.registrar(anotacaoDTO.getUsuarioId(), TipoAlteracao.ANOTACAO, salva.getId(), false);
+        indexarAposCommit(anotacaoDTO.getUsuarioId(), salva);
+        return AnotacaoResponseDTO.de(salva);
+    }
+
+    @Transactional
+    public List<Long> saveAll(List<AnotacaoDTO> anotacoesDTO) {
+        if (anotacoesDTO == null || anotacoesDTO.isEmpty()) {
+            return List.of();
+        }
+        validarLote(anotacoesDTO);
+        Set<Long> usuarioIds = new HashSet<>();
+        Set<Long> cadernoIds = new HashSet<>();
+        List<NovaAnotacao> novas = new ArrayList<>(anotacoesDTO.size());
+        for (AnotacaoDTO dto : anotacoesDTO) {
+            if (dto.getUsuarioId() == null) {
+                throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Usuário não encontrado");
+            }
+            Long cadernoId = dto.getCadernoId() != null && dto.getCadernoId() > 0 ? dto.getCadernoId() : null;
+            usuarioIds.add(dto.getUsuarioId());
+            if (cadernoId != null) {
+                cadernoIds.add(cadernoId);
+            }
+            novas.add(new NovaAnotacao(dto.getTitulo(), dto.getCorpo(), dto.getUsuarioId(), cadernoId));
+        }
+        // No máximo uma consulta por tabela para os ids distintos que ainda não estão no cache.
+        referenciaCache.exigirUsuarios(usuarioIds);
+        if (!cadernoIds.isEmpty()) {
+            Map<Long, Long> donos = referenciaCache.exigirCadernos(cadernoIds);
+            for (NovaAnotacao nova : novas) {
+                if (nova.cadernoId() != null) {
+                    exigirDono(donos.get(nova.cadernoId()), nova.usuarioId(), "Caderno não encontrado");
+                }
+            }
+        }
+
+        return inserir(novas);
+    }
+
+    // Chamado também pela importação, que já validou usuário e cadernos.
+    @Transactional
+    List<Long> inserir(List<NovaAnotacao> novas) {
+        List<Long> ids = anotacaoLoteRepository.inserir(novas);
+        // Ordenado por usuário para dois lotes concorrentes travarem os contadores de alteração na mesma ordem.
+        Map<Long, List<Long>> porUsuario = new TreeMap<>();
+        for (int i = 0; i < ids.size(); i++) {
+            NovaAnotacao nova = novas.get(i);
+            porUsuario.computeIfAbsent(nova.usuarioId(), u -> new ArrayList<>()).add(ids.get(i));
+        }
+        porUsuario.forEach((usuarioId, criadas) ->
+                alteracaoService.registrar(usuarioId, TipoAlteracao.ANOTACAO, criadas, false));
+        AposCommit.executar(() -> {
+            for (int i = 0; i < ids.size(); i++) {
+                NovaAnotacao nova = novas.get(i);
+                indiceBusca.indexar(nova.usuarioId(), ids.get(i), nova.titulo(), nova.corpo());
+            }
+        });
+        return ids;
+    }
+
+    @Transactional
+    public int moveAll(Long cadernoId, Long usuarioId, List<Long> ids) {
+        if (ids == null || ids.isEmpty()) {
+            return 0;
+        }
+        validarLote(usuarioId, ids);
+        if (cadernoId != null) {
+            exigirDono(referenciaCache.exigirCaderno(cadernoId), usuarioId, "Caderno não encontrado");
+        }
+        int movidas = anotacaoRepository.updateCadernoByIdIn(cadernoId, usuarioId, ids);
+        if (movidas > 0) {
+            alteracaoService.registrar(usuarioId, TipoAlteracao.ANOTACAO,
+                    anotacaoRepository.findIdsByIdInAndUsuarioId(ids, usuarioId), false);
+        }
+        return movidas;
+    }
+
+    @Transactional
+    public int deleteAll(Long usuarioId, List<Long> ids) {
+        if (ids == null || ids.isEmpty()) {
+            return 0;
+        }
+        validarLote(usuarioId, ids);
+        // Lápides só para as anotações que eram do usuário; o DELETE ignora as demais.
+        List<Long> proprias = anotacaoRepository.findIdsByIdInAndUsuarioId(ids, usuarioId);
+        int removidas = anotacaoRepository.deleteByIdInAndUsuarioId(ids, usuarioId);
+        alteracaoService.registrar(usuarioId, TipoAlteracao.ANOTACAO, proprias, true);
+        AposCommit.executar(() -> indiceBusca.remover(usuarioId, ids));
+        return removidas;
+    }
+
+    private void validarLote(Long usuarioId, List<?> itens) {
+        if (usuarioId == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Usuário é obrigatório");
+        }
+        validarLote(itens);
+    }
+
+    private void validarLote(List<?> itens) {
+        if (itens.size() > LIMITE_BULK) {
+            throw new ResponseStatusException(HttpStatus.PAYLOAD_TOO_LARGE,
+                    "Máximo de " + LIMITE_BULK + " anotações por requisição");
+        }
     }
 
-    public void deleteById(Long id) {
-        if (!anotacaoRepository.existsById(id)) {
-            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Anotação não encontrada");
+    /** Com {@code usuarioId}, só remove a anotação se ela for desse usuário. */
+    @Transactional
+    public void deleteById(Long id, Long usuarioId) {
+        Long donoId = anotacaoRepository.findUsuarioIdById(id)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Anotação não encontrada"));
+        if (usuarioId != null) {
+            exigirDono(donoId, usuarioId, "Anotação não encontrada");
         }
         anotacaoRepository.deleteById(id);
+        alteracaoService.registrar(donoId, TipoAlteracao.ANOTACAO, id, true);
+        AposCommit.executar(() -> indiceBusca.remover(donoId, id));
     }
 
-    public Anotacao update(Long id, AnotacaoDTO anotacaoDTO) {
-        Anotacao anotacao = findById(id);
+    /** Com {@code usuarioId} no DTO, só altera a anotação se ela e o caderno de destino forem desse usuário. */
+    @Transactional
+    public AnotacaoResponseDTO update(Long id, AnotacaoDTO anotacaoDTO) {
+        Anotacao anotacao = buscar(id);
+        Long donoId = anotacao.getUsuario().getId();
+        if (anotacaoDTO.getUsuarioId() != null) {
+            exigirDono(donoId, anotacaoDTO.getUsuarioId(), "Anotação não encontrada");
+        }
+        Long versaoAnterior = anotacao.getVersao();
+        String tituloAnterior = anotacao.getTitulo();
+        String corpoAnterior = anotacao.getCorpo();
         if (anotacaoDTO.getTitulo() != null) {
             anotacao.setTitulo(anotacaoDTO.getTitulo());
         }
         if (anotacaoDTO.getCorpo() != null) {
             anotacao.setCorpo(anotacaoDTO.getCorpo());
         }
-        if (anotacaoDTO.getUsuarioId() != null) {
-            Usuario usuario = usuarioRepository.findById(anotacaoDTO.getUsuarioId())
-                    .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Usuário não encontrado"));
-        }
         if (anotacaoDTO.getCadernoId() != null) {
-            Caderno caderno = cadernoRepository.findById(anotacaoDTO.getCadernoId())
-                    .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Caderno não encontrado"));
-            anotacao.setCaderno(caderno);
+            exigirDono(referenciaCache.exigirCaderno(anotacaoDTO.getCadernoId()), donoId, "Caderno não encontrado");
+            anotacao.setCaderno(cadernoRepository.getReferenceById(anotacaoDTO.getCadernoId()));
         } else {
             anotacao.setCaderno(null);
         }
-        return anotacaoRepository.save(anotacao);
+        Anotacao salva = anotacaoRepository.save(anotacao);
+        try {
+            // O flush incrementa a versão agora, para a revisão e a resposta levarem a versão nova.
+            anotacaoRepository.flush();
+        } catch (ObjectOptimisticLockingFailureException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "A anotação foi alterada por outra edição");
+        }
+        revisaoService.registrar(salva, versaoAnterior, tituloAnterior, corpoAnterior, null);
+        alteracaoService.registrar(salva.getUsuario().getId(), TipoAlteracao.ANOTACAO, salva.getId(), false);
+        indexarAposCommit(salva.getUsuario().getId(), salva);
+        return AnotacaoResponseDTO.de(salva);
+    }
+
+    @Transactional
+    public VersaoDTO patch(Long id, Long usuarioId, PatchAnotacaoDTO patchDTO) {
+        if (patchDTO.getVersao() == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Versão base é obrigatória");
+        }
+        Anotacao anotacao = buscar(id);
+        if (usuarioId != null) {
+            exigirDono(anotacao.getUsuario().getId(), usuarioId, "Anotação não encontrada");
+        }
+        if (!patchDTO.getVersao().equals(anotacao.getVersao())) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "A anotação foi alterada por outra edição");
+        }
+        String tituloAnterior = anotacao.getTitulo();
+        String corpoAnterior = anotacao.getCorpo();
+        if (patchDTO.getOperacoes() != null && !patchDTO.getOperacoes().isEmpty()) {
+            try {
+                anotacao.setCorpo(DeltaTexto.aplicar(anotacao.getCorpo(), patchDTO.getOperacoes()));
+            } catch (IllegalArgumentException e) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+            }
+        }
+        if (patchDTO.getTitulo() != null) {
+            anotacao.setTitulo(patchDTO.getTitulo());
+        }
+        Anotacao salva;
+        try {
+            // O flush aplica o UPDATE ... WHERE versao = ? agora, então duas edições da mesma base não passam juntas.
+            salva = anotacaoRepository.saveAndFlush(anotacao);
+        } catch (ObjectOptimisticLockingFailureException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "A anotação foi alterada por outra edição");
+        }
+        if (!salva.getVersao().equals(patchDTO.getVersao())) {
+            revisaoService.registrar(salva, patchDTO.getVersao(), tituloAnterior, corpoAnterior,
+                    patchDTO.getOperacoes());
+            alteracaoService.registrar(salva.getUsuario().getId(), TipoAlteracao.ANOTACAO, salva.getId(), false);
+            indexarAposCommit(salva.getUsuario().getId(), salva);
+        }
+        return new VersaoDTO(salva.getId(), salva.getVersao());
+    }
+
+    // Recurso de outro usuário responde como inexistente, sem confirmar que o id existe.
+    private static void exigirDono(Long donoId, Long usuarioId, String mensagem) {
+        if (!usuarioId.equals(donoId)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, mensagem);
+        }
+    }
+
+    private void indexarAposCommit(Long usuarioId, Anotacao salva) {
+        Long id = salva.getId();
+        String titulo = salva.getTitulo();
+        String corpo = salva.getCorpo();
+        AposCommit.executar(() -> indiceBusca.indexar(usuarioId, id, titulo, corpo));
+    }
+
+    private Anotacao buscar(Long id) {
+        return anotacaoRepository.findById(id)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Anotação não encontrada"));
     }
-}
\ No newline at end of file
+}
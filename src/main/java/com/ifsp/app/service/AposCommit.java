@@ -0,0 +1,28 @@
+package com.ifsp.app.service;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Adia efeitos fora do banco (índice de busca, {@link ReferenciaCache}) para depois do commit: um rollback não
+ * deixa entradas fantasmas, e ninguém recarrega no cache um registro que a transação ainda vai apagar. Sem
+ * transação ativa, como nos testes unitários, o efeito roda na hora.
+ */
+final class AposCommit {
+
+    private AposCommit() {
+    }
+
+    static void executar(Runnable efeito) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            efeito.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                efeito.run();
+            }
+        });
+    }
+}
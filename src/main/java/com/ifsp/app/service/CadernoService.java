@@ -1,12 +1,19 @@
 package com.ifsp.app.service;
 
 import com.ifsp.app.controller.dto.CadernoDTO;
+import com.ifsp.app.controller.dto.CadernoResponseDTO;
+import com.ifsp.app.controller.dto.PaginaDTO;
 import com.ifsp.app.model.Caderno;
 import com.ifsp.app.model.Usuario;
+import com.ifsp.app.model.enums.TipoAlteracao;
+import com.ifsp.app.model.repository.AnotacaoRepository;
 import com.ifsp.app.model.repository.CadernoRepository;
 import com.ifsp.app.model.repository.UsuarioRepository;
+import com.ifsp.app.service.busca.IndiceBusca;
 import org.springframework.http.HttpStatus;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.util.List;
@@ -16,48 +23,95 @@ public class CadernoService {
 
     private final CadernoRepository cadernoRepository;
     private final UsuarioRepository usuarioRepository;
+    private final AnotacaoRepository anotacaoRepository;
+    private final IndiceBusca indiceBusca;
+    private final ReferenciaCache referenciaCache;
+    private final AlteracaoService alteracaoService;
 
     public CadernoService(CadernoRepository cadernoRepository,
-                          UsuarioRepository usuarioRepository) {
+                          UsuarioRepository usuarioRepository,
+                          AnotacaoRepository anotacaoRepository,
+                          IndiceBusca indiceBusca,
+                          ReferenciaCache referenciaCache,
+                          AlteracaoService alteracaoService) {
         this.cadernoRepository = cadernoRepository;
         this.usuarioRepository = usuarioRepository;
+        this.anotacaoRepository = anotacaoRepository;
+        this.indiceBusca = indiceBusca;
+        this.referenciaCache = referenciaCache;
+        this.alteracaoService = alteracaoService;
     }
 
-    public List<Caderno> findAll() {
-        return cadernoRepository.findAll();
+    public PaginaDTO<CadernoResponseDTO> findPageByUsuario(Long usuarioId, Long after, int limit) {
+        int limite = Paginacao.normalizar(limit);
+        List<CadernoResponseDTO> linhas = cadernoRepository.findResponseByUsuarioIdAndIdGreaterThan(usuarioId,
+                Paginacao.cursor(after), Paginacao.consulta(limite));
+        return Paginacao.pagina(linhas, limite, CadernoResponseDTO::id);
     }
 
-    public Caderno findById(Long id) {
-        return cadernoRepository.findById(id).orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND,
-                "Caderno não encontrado"));
+    public CadernoResponseDTO findById(Long id) {
+        return cadernoRepository.findResponseById(id).orElseThrow(() -> new ResponseStatusException(
+                HttpStatus.NOT_FOUND, "Caderno não encontrado"));
     }
 
-    public Caderno save(CadernoDTO cadernoDTO) {
-        Usuario usuario = usuarioRepository.findById(cadernoDTO.getUsuarioId())
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Usuário não encontrado"));
+    // Restrita ao dono, como em AnotacaoService.findVersao.
+    public Long findVersao(Long id, Long usuarioId) {
+        return cadernoRepository.findVersaoByIdAndUsuarioId(id, usuarioId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Caderno não encontrado"));
+    }
+
+    @Transactional
+    public CadernoResponseDTO save(CadernoDTO cadernoDTO) {
+        referenciaCache.exigirUsuario(cadernoDTO.getUsuarioId());
+        Usuario usuario = usuarioRepository.getReferenceById(cadernoDTO.getUsuarioId());
         Caderno caderno = new Caderno();
         caderno.setTitulo(cadernoDTO.getTitulo());
         caderno.setUsuario(usuario);
-        return cadernoRepository.save(caderno);
+        Caderno salvo = cadernoRepository.save(caderno);
+        alteracaoService.registrar(cadernoDTO.getUsuarioId(), TipoAlteracao.CADERNO, salvo.getId(), false);
+        Long cadernoId = salvo.getId();
+        Long usuarioId = cadernoDTO.getUsuarioId();
+        AposCommit.executar(() -> referenciaCache.registrarCaderno(cadernoId, usuarioId));
+        return CadernoResponseDTO.de(salvo);
     }
 
-    public void deleteById(Long id) {
-        if (!cadernoRepository.existsById(id)) {
+    /** Com {@code usuarioId}, só remove o caderno se ele for desse usuário. */
+    @Transactional
+    public void deleteById(Long id, Long usuarioId) {
+        Long donoId = referenciaCache.exigirCaderno(id);
+        if (usuarioId != null && !usuarioId.equals(donoId)) {
             throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Caderno não encontrado");
         }
+        // As anotações do caderno são removidas em cascata e precisam sair do índice de busca também.
+        List<Long> anotacaoIds = anotacaoRepository.findIdsByCadernoId(id);
         cadernoRepository.deleteById(id);
+        alteracaoService.registrar(donoId, TipoAlteracao.CADERNO, id, true);
+        alteracaoService.registrar(donoId, TipoAlteracao.ANOTACAO, anotacaoIds, true);
+        AposCommit.executar(() -> {
+            referenciaCache.invalidarCaderno(id);
+            indiceBusca.remover(donoId, anotacaoIds);
+        });
     }
 
-    public Caderno update(Long id , CadernoDTO cadernoDTO) {
-        Caderno caderno = findById(id);
+    /** Com {@code usuarioId} no DTO, só altera o caderno se ele for desse usuário. */
+    @Transactional
+    public CadernoResponseDTO update(Long id , CadernoDTO cadernoDTO) {
+        Caderno caderno = cadernoRepository.findById(id).orElseThrow(() -> new ResponseStatusException(
+                HttpStatus.NOT_FOUND, "Caderno não encontrado"));
+        if (cadernoDTO.getUsuarioId() != null && !cadernoDTO.getUsuarioId().equals(caderno.getUsuario().getId())) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Caderno não encontrado");
+        }
         if (cadernoDTO.getTitulo() != null) {
             caderno.setTitulo(cadernoDTO.getTitulo());
         }
-        if (cadernoDTO.getUsuarioId() != null) {
-            Usuario usuario = usuarioRepository.findById(cadernoDTO.getUsuarioId())
-                    .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND,
-                                                                "Usuário não encontrado"));
+        Caderno salvo = cadernoRepository.save(caderno);
+        try {
+            // Sem o flush aqui, o conflito de versão só apareceria no commit, fora deste método.
+            cadernoRepository.flush();
+        } catch (ObjectOptimisticLockingFailureException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "O caderno foi alterado por outra edição");
         }
-        return cadernoRepository.save(caderno);
+        alteracaoService.registrar(salvo.getUsuario().getId(), TipoAlteracao.CADERNO, salvo.getId(), false);
+        return CadernoResponseDTO.de(salvo);
     }
 }
\ No newline at end of file
@@ -0,0 +1,95 @@
+package com.ifsp.app.service;
+
+import com.ifsp.app.controller.dto.AnotacaoDTO;
+import com.ifsp.app.controller.dto.CadernoDTO;
+import com.ifsp.app.controller.dto.UsuarioDTO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Popula o banco embutido do perfil {@code loadtest} antes de o servidor aceitar requisições. O usuário
+ * {@code n} (a partir de 1) tem email {@code carga<n>@anote.local} e a senha configurada; as anotações
+ * se distribuem entre os cadernos do usuário e algumas ficam sem caderno. A semente fixa deixa os corpos
+ * iguais entre execuções.
+ */
+@Component
+@Profile("loadtest")
+public class CargaSintetica implements SmartInitializingSingleton {
+
+    private static final Logger log = LoggerFactory.getLogger(CargaSintetica.class);
+
+    private static final String[] PALAVRAS = {"reunião", "projeto", "entrega", "revisar", "cliente", "orçamento",
+            "lista", "compras", "ideia", "estudo", "prova", "capítulo", "tarefa", "prazo", "contrato", "viagem"};
+
+    private final UsuarioService usuarioService;
+    private final CadernoService cadernoService;
+    private final AnotacaoService anotacaoService;
+    private final int usuarios;
+    private final int cadernos;
+    private final int anotacoes;
+    private final int tamanhoCorpo;
+    private final String senha;
+
+    public CargaSintetica(UsuarioService usuarioService,
+                          CadernoService cadernoService,
+                          AnotacaoService anotacaoService,
+                          @Value("${anote.carga.usuarios:50}") int usuarios,
+                          @Value("${anote.carga.cadernos-por-usuario:5}") int cadernos,
+                          @Value("${anote.carga.anotacoes-por-usuario:200}") int anotacoes,
+                          @Value("${anote.carga.tamanho-corpo:1500}") int tamanhoCorpo,
+                          @Value("${anote.carga.senha:carga}") String senha) {
+        this.usuarioService = usuarioService;
+        this.cadernoService = cadernoService;
+        this.anotacaoService = anotacaoService;
+        this.usuarios = usuarios;
+        this.cadernos = cadernos;
+        this.anotacoes = anotacoes;
+        this.tamanhoCorpo = tamanhoCorpo;
+        this.senha = senha;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        long inicio = System.nanoTime();
+        Random aleatorio = new Random(42);
+        for (int n = 1; n <= usuarios; n++) {
+            Long usuarioId = usuarioService.save(new UsuarioDTO("Usuário " + n, "carga" + n + "@anote.local",
+                    senha)).id();
+            List<Long> cadernoIds = new ArrayList<>(cadernos);
+            for (int c = 1; c <= cadernos; c++) {
+                cadernoIds.add(cadernoService.save(new CadernoDTO("Caderno " + c, usuarioId)).id());
+            }
+            List<AnotacaoDTO> lote = new ArrayList<>(anotacoes);
+            for (int a = 1; a <= anotacoes; a++) {
+                // Uma em cada (cadernos + 1) anotações fica solta.
+                int indice = aleatorio.nextInt(cadernos + 1);
+                Long cadernoId = indice < cadernos ? cadernoIds.get(indice) : null;
+                lote.add(new AnotacaoDTO(texto(aleatorio, 40), texto(aleatorio, tamanhoCorpo), usuarioId,
+                        cadernoId));
+            }
+            anotacaoService.saveAll(lote);
+        }
+        log.info("Carga sintética: {} usuários, {} cadernos e {} anotações em {} ms", usuarios,
+                (long) usuarios * cadernos, (long) usuarios * anotacoes, (System.nanoTime() - inicio) / 1_000_000);
+    }
+
+    private static String texto(Random aleatorio, int tamanho) {
+        StringBuilder texto = new StringBuilder(tamanho + 16);
+        while (texto.length() < tamanho) {
+            if (!texto.isEmpty()) {
+                texto.append(aleatorio.nextInt(12) == 0 ? '\n' : ' ');
+            }
+            texto.append(PALAVRAS[aleatorio.nextInt(PALAVRAS.length)]);
+        }
+        texto.setLength(Math.min(texto.length(), tamanho));
+        return texto.toString().strip();
+    }
+}
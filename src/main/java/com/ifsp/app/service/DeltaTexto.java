@@ -0,0 +1,120 @@
+package com.ifsp.app.service;
+
+import com.ifsp.app.controller.dto.OperacaoTextoDTO;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Aplica um delta de texto: cada operação troca {@code remover} caracteres a partir de {@code posicao} pelo
+ * texto em {@code inserir}. As posições são índices UTF-16 no texto base (os mesmos de uma string JavaScript),
+ * e as operações vêm em ordem crescente, sem sobreposição.
+ */
+final class DeltaTexto {
+
+    // writeUTF aceita até 65535 bytes e cada char ocupa no máximo 3 em UTF-8 modificado.
+    private static final int TAMANHO_BLOCO = 65_535 / 3;
+
+    private DeltaTexto() {
+    }
+
+    static String aplicar(String base, List<OperacaoTextoDTO> operacoes) {
+        String texto = base == null ? "" : base;
+        int inseridos = 0;
+        for (OperacaoTextoDTO op : operacoes) {
+            inseridos += op.getInserir() == null ? 0 : op.getInserir().length();
+        }
+        StringBuilder resultado = new StringBuilder(texto.length() + inseridos);
+        int cursor = 0;
+        for (OperacaoTextoDTO op : operacoes) {
+            long fim = (long) op.getPosicao() + op.getRemover();
+            if (op.getPosicao() < cursor || op.getRemover() < 0 || fim > texto.length()) {
+                throw new IllegalArgumentException("Operação fora do texto ou fora de ordem na posição "
+                        + op.getPosicao());
+            }
+            resultado.append(texto, cursor, op.getPosicao());
+            if (op.getInserir() != null) {
+                resultado.append(op.getInserir());
+            }
+            cursor = (int) fim;
+        }
+        return resultado.append(texto, cursor, texto.length()).toString();
+    }
+
+    /**
+     * Delta de uma operação só, cobrindo o trecho entre o maior prefixo e o maior sufixo em comum. Os cortes
+     * nunca separam um par de surrogates.
+     */
+    static List<OperacaoTextoDTO> diferenca(String antes, String depois) {
+        String a = antes == null ? "" : antes;
+        String b = depois == null ? "" : depois;
+        int limite = Math.min(a.length(), b.length());
+        int prefixo = 0;
+        while (prefixo < limite && a.charAt(prefixo) == b.charAt(prefixo)) {
+            prefixo++;
+        }
+        if (prefixo > 0 && Character.isHighSurrogate(a.charAt(prefixo - 1))) {
+            prefixo--;
+        }
+        if (prefixo == a.length() && prefixo == b.length()) {
+            return List.of();
+        }
+        int sufixo = 0;
+        while (sufixo < limite - prefixo
+                && a.charAt(a.length() - 1 - sufixo) == b.charAt(b.length() - 1 - sufixo)) {
+            sufixo++;
+        }
+        if (sufixo > 0 && Character.isLowSurrogate(a.charAt(a.length() - sufixo))) {
+            sufixo--;
+        }
+        return List.of(new OperacaoTextoDTO(prefixo, a.length() - prefixo - sufixo,
+                b.substring(prefixo, b.length() - sufixo)));
+    }
+
+    // O primeiro byte é sempre o mais alto da quantidade de operações, nunca 0xFF, então cabe no CorpoCodec.
+    static byte[] serializar(List<OperacaoTextoDTO> operacoes) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(operacoes.size());
+            for (OperacaoTextoDTO op : operacoes) {
+                String inserir = op.getInserir() == null ? "" : op.getInserir();
+                out.writeInt(op.getPosicao());
+                out.writeInt(op.getRemover());
+                out.writeInt((inserir.length() + TAMANHO_BLOCO - 1) / TAMANHO_BLOCO);
+                // UTF-8 modificado preserva surrogates isolados, que o UTF-8 padrão trocaria por '?'.
+                for (int i = 0; i < inserir.length(); i += TAMANHO_BLOCO) {
+                    out.writeUTF(inserir.substring(i, Math.min(inserir.length(), i + TAMANHO_BLOCO)));
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    static List<OperacaoTextoDTO> desserializar(byte[] dados) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(dados))) {
+            int quantidade = in.readInt();
+            List<OperacaoTextoDTO> operacoes = new ArrayList<>(quantidade);
+            for (int i = 0; i < quantidade; i++) {
+                int posicao = in.readInt();
+                int remover = in.readInt();
+                int blocos = in.readInt();
+                StringBuilder inserir = new StringBuilder();
+                for (int b = 0; b < blocos; b++) {
+                    inserir.append(in.readUTF());
+                }
+                operacoes.add(new OperacaoTextoDTO(posicao, remover, inserir.toString()));
+            }
+            return operacoes;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,242 @@
+package com.ifsp.app.service;
+
+import com.ifsp.app.controller.dto.AlteracaoDTO;
+import com.ifsp.app.model.enums.TipoAlteracao;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entrega as alterações de cada usuário por Server-Sent Events. As conexões ficam em modo assíncrono e não
+ * prendem thread enquanto ociosas; cada envio roda numa virtual thread. Cada assinante tem um buffer limitado
+ * por entidade, então várias edições da mesma anotação antes do envio viram um evento só, e quem deixa o buffer
+ * encher é desconectado. O evento leva o {@code seq} do registro de alterações como id: ao reconectar, o cliente
+ * busca em {@code /usuarios/{id}/changes} o que perdeu.
+ */
+@Component
+public class DistribuidorEventos {
+
+    private static final Logger log = LoggerFactory.getLogger(DistribuidorEventos.class);
+
+    static final int LIMITE_BUFFER = 256;
+    static final int LIMITE_POR_USUARIO = 16;
+
+    private static final Duration TIMEOUT = Duration.ofMinutes(30);
+    private static final Duration PULSO = Duration.ofSeconds(25);
+
+    private final ReferenciaCache referenciaCache;
+    private final Map<Long, Set<Assinante>> assinantes = new ConcurrentHashMap<>();
+    private final ExecutorService envios = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("sse-", 0).factory());
+    private final ScheduledExecutorService relogio = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("sse-pulso").daemon().factory());
+
+    public DistribuidorEventos(ReferenciaCache referenciaCache) {
+        this.referenciaCache = referenciaCache;
+    }
+
+    @PostConstruct
+    void iniciar() {
+        // Comentários periódicos mantêm proxies abertos e revelam conexões mortas na próxima escrita.
+        relogio.scheduleAtFixedRate(this::pulsar, PULSO.toSeconds(), PULSO.toSeconds(), TimeUnit.SECONDS);
+    }
+
+    public SseEmitter assinar(Long usuarioId) {
+        referenciaCache.exigirUsuario(usuarioId);
+        SseEmitter emitter = new SseEmitter(TIMEOUT.toMillis());
+        registrar(usuarioId, emitter);
+        return emitter;
+    }
+
+    Assinante registrar(Long usuarioId, SseEmitter emitter) {
+        Assinante assinante = new Assinante(usuarioId, emitter);
+        assinantes.compute(usuarioId, (id, doUsuario) -> {
+            Set<Assinante> conjunto = doUsuario == null ? ConcurrentHashMap.newKeySet() : doUsuario;
+            if (conjunto.size() >= LIMITE_POR_USUARIO) {
+                throw new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS,
+                        "Conexões de eventos demais para o usuário");
+            }
+            conjunto.add(assinante);
+            return conjunto;
+        });
+        emitter.onCompletion(assinante::encerrar);
+        emitter.onTimeout(assinante::encerrar);
+        emitter.onError(e -> assinante.encerrar());
+        assinante.pulsar();
+        return assinante;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void publicar(AlteracoesRegistradas evento) {
+        Set<Assinante> doUsuario = assinantes.get(evento.usuarioId());
+        if (doUsuario == null) {
+            return;
+        }
+        for (Assinante assinante : doUsuario) {
+            assinante.enfileirar(evento.alteracoes());
+        }
+    }
+
+    int conectados(Long usuarioId) {
+        Set<Assinante> doUsuario = assinantes.get(usuarioId);
+        return doUsuario == null ? 0 : doUsuario.size();
+    }
+
+    private void pulsar() {
+        for (Set<Assinante> doUsuario : assinantes.values()) {
+            for (Assinante assinante : doUsuario) {
+                assinante.pulsar();
+            }
+        }
+    }
+
+    private void remover(Assinante assinante) {
+        assinantes.computeIfPresent(assinante.usuarioId, (id, doUsuario) -> {
+            doUsuario.remove(assinante);
+            return doUsuario.isEmpty() ? null : doUsuario;
+        });
+    }
+
+    @PreDestroy
+    void encerrar() {
+        relogio.shutdownNow();
+        for (Set<Assinante> doUsuario : assinantes.values()) {
+            for (Assinante assinante : doUsuario) {
+                assinante.emitter.complete();
+            }
+        }
+        envios.shutdownNow();
+    }
+
+    private record Chave(TipoAlteracao tipo, Long id) {
+    }
+
+    final class Assinante {
+
+        private final Long usuarioId;
+        private final SseEmitter emitter;
+        private final Map<Chave, AlteracaoDTO> pendentes = new LinkedHashMap<>();
+        private boolean pulso;
+        private boolean agendado;
+        private boolean encerrado;
+
+        Assinante(Long usuarioId, SseEmitter emitter) {
+            this.usuarioId = usuarioId;
+            this.emitter = emitter;
+        }
+
+        void enfileirar(List<AlteracaoDTO> alteracoes) {
+            synchronized (this) {
+                if (encerrado) {
+                    return;
+                }
+                for (AlteracaoDTO alteracao : alteracoes) {
+                    pendentes.merge(new Chave(alteracao.tipo(), alteracao.id()), alteracao,
+                            (atual, nova) -> nova.seq() > atual.seq() ? nova : atual);
+                }
+                if (pendentes.size() <= LIMITE_BUFFER) {
+                    agendar();
+                    return;
+                }
+            }
+            log.debug("Assinante de eventos do usuário {} desconectado por não acompanhar as alterações", usuarioId);
+            encerrar();
+            // Um envio pode estar bloqueado nesta conexão; a thread de quem fez o commit não espera por ele.
+            try {
+                envios.execute(emitter::complete);
+            } catch (RejectedExecutionException e) {
+                emitter.complete();
+            }
+        }
+
+        void pulsar() {
+            synchronized (this) {
+                if (encerrado) {
+                    return;
+                }
+                pulso = true;
+                agendar();
+            }
+        }
+
+        void encerrar() {
+            synchronized (this) {
+                encerrado = true;
+                pendentes.clear();
+            }
+            remover(this);
+        }
+
+        // Chamado com o monitor; no máximo um envio por assinante fica agendado ou rodando por vez.
+        private void agendar() {
+            if (agendado) {
+                return;
+            }
+            agendado = true;
+            try {
+                envios.execute(this::enviar);
+            } catch (RejectedExecutionException e) {
+                agendado = false;
+            }
+        }
+
+        private void enviar() {
+            while (true) {
+                List<AlteracaoDTO> lote;
+                boolean comPulso;
+                synchronized (this) {
+                    if (encerrado || pendentes.isEmpty() && !pulso) {
+                        agendado = false;
+                        return;
+                    }
+                    lote = new ArrayList<>(pendentes.values());
+                    pendentes.clear();
+                    comPulso = pulso;
+                    pulso = false;
+                }
+                lote.sort(Comparator.comparing(AlteracaoDTO::seq));
+                try {
+                    if (comPulso && lote.isEmpty()) {
+                        emitter.send(SseEmitter.event().comment("pulso"));
+                    }
+                    for (AlteracaoDTO alteracao : lote) {
+                        emitter.send(SseEmitter.event()
+                                .id(String.valueOf(alteracao.seq()))
+                                .name("alteracao")
+                                .data(alteracao, MediaType.APPLICATION_JSON));
+                    }
+                } catch (IOException | IllegalStateException e) {
+                    // Conexão fechada: o container avisa o Spring MVC, que completa o emitter.
+                    encerrar();
+                    synchronized (this) {
+                        agendado = false;
+                    }
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.ifsp.app.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.ifsp.app.controller.dto.AnotacaoExportacaoDTO;
+import com.ifsp.app.model.repository.AnotacaoRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+@Service
+public class ExportacaoService {
+
+    private static final int FLUSH_A_CADA = 500;
+
+    private final AnotacaoRepository anotacaoRepository;
+    private final ReferenciaCache referenciaCache;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final ObjectWriter writer;
+
+    public ExportacaoService(AnotacaoRepository anotacaoRepository,
+                             ReferenciaCache referenciaCache,
+                             PlatformTransactionManager transactionManager,
+                             ObjectMapper objectMapper) {
+        this.anotacaoRepository = anotacaoRepository;
+        this.referenciaCache = referenciaCache;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.objectMapper = objectMapper;
+        this.writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    public StreamingResponseBody exportar(Long usuarioId) {
+        referenciaCache.exigirUsuario(usuarioId);
+        return out -> escrever(usuarioId, out);
+    }
+
+    // As linhas vêm de um cursor do banco como projeções, sem passar pelo contexto de persistência,
+    // então o heap usado não depende de quantas anotações o usuário tem.
+    void escrever(Long usuarioId, OutputStream out) {
+        transactionTemplate.executeWithoutResult(status -> {
+            try (Stream<AnotacaoExportacaoDTO> anotacoes = anotacaoRepository.streamExportacaoByUsuarioId(usuarioId);
+                 JsonGenerator linhas = objectMapper.getFactory().createGenerator(out)
+                         .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)) {
+                linhas.setRootValueSeparator(null);
+                Iterator<AnotacaoExportacaoDTO> it = anotacoes.iterator();
+                int escritas = 0;
+                while (it.hasNext()) {
+                    writer.writeValue(linhas, it.next());
+                    linhas.writeRaw('\n');
+                    if (++escritas % FLUSH_A_CADA == 0) {
+                        linhas.flush();
+                    }
+                }
+                linhas.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+}
@@ -0,0 +1,424 @@
+package com.ifsp.app.service;
+
+import com.ifsp.app.controller.dto.CadernoDTO;
+import com.ifsp.app.controller.dto.ImportacaoDTO;
+import com.ifsp.app.model.repository.NovaAnotacao;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+import java.util.zip.ZipInputStream;
+
+/**
+ * Importa um ZIP de pastas com arquivos Markdown: cada pasta vira um caderno e cada arquivo uma anotação.
+ * O corpo da requisição é copiado para um arquivo temporário e processado em segundo plano por duas
+ * threads ligadas por uma fila limitada em bytes (uma lê o ZIP entrada a entrada, a outra grava em lotes JDBC),
+ * então o heap usado não depende do tamanho do arquivo. Todo byte descompactado, inclusive das entradas
+ * ignoradas, conta para {@link #LIMITE_DESCOMPACTADO}; passar dele faz a importação falhar (ZIP bombs).
+ */
+@Service
+public class ImportacaoService {
+
+    private static final Logger log = LoggerFactory.getLogger(ImportacaoService.class);
+
+    static final long LIMITE_ARQUIVO = 1L << 30;
+    static final long LIMITE_DESCOMPACTADO = 4L << 30;
+    static final int LIMITE_ENTRADA = 1 << 20;
+    static final int LIMITE_TITULO = 255;
+    // Texto em memória por importação, somando fila e lote em montagem; cabe com folga a maior entrada.
+    static final int LIMITE_MEMORIA = 16 << 20;
+
+    private static final int IMPORTACOES_SIMULTANEAS = 2;
+    private static final int TAMANHO_FILA = 2_000;
+    private static final int TAMANHO_LOTE = 500;
+    private static final Duration RETENCAO = Duration.ofHours(1);
+    private static final NovaAnotacao FIM = new NovaAnotacao(null, null, null, null);
+
+    private final AnotacaoService anotacaoService;
+    private final CadernoService cadernoService;
+    private final ReferenciaCache referenciaCache;
+    private final long limiteDescompactado;
+    private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+    private final Semaphore vagas = new Semaphore(IMPORTACOES_SIMULTANEAS);
+    // Duas threads por importação (leitura e gravação); o semáforo garante que ambas sempre têm vaga.
+    private final ExecutorService executor = Executors.newFixedThreadPool(2 * IMPORTACOES_SIMULTANEAS,
+            Thread.ofPlatform().name("importacao-", 0).daemon().factory());
+
+    public ImportacaoService(AnotacaoService anotacaoService,
+                             CadernoService cadernoService,
+                             ReferenciaCache referenciaCache) {
+        this(anotacaoService, cadernoService, referenciaCache, LIMITE_DESCOMPACTADO);
+    }
+
+    ImportacaoService(AnotacaoService anotacaoService,
+                      CadernoService cadernoService,
+                      ReferenciaCache referenciaCache,
+                      long limiteDescompactado) {
+        this.anotacaoService = anotacaoService;
+        this.cadernoService = cadernoService;
+        this.referenciaCache = referenciaCache;
+        this.limiteDescompactado = limiteDescompactado;
+    }
+
+    public ImportacaoDTO iniciar(Long usuarioId, InputStream corpo) {
+        referenciaCache.exigirUsuario(usuarioId);
+        if (!vagas.tryAcquire()) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
+                    "Muitas importações em andamento, tente novamente mais tarde");
+        }
+        Path arquivo = null;
+        try {
+            arquivo = Files.createTempFile("importacao-", ".zip");
+            copiar(corpo, arquivo);
+        } catch (IOException | RuntimeException e) {
+            vagas.release();
+            apagar(arquivo);
+            if (e instanceof ResponseStatusException rse) {
+                throw rse;
+            }
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Falha ao receber o arquivo");
+        }
+
+        descartarAntigos();
+        Job job = new Job(UUID.randomUUID().toString(), usuarioId);
+        jobs.put(job.id, job);
+        BlockingQueue<NovaAnotacao> fila = new ArrayBlockingQueue<>(TAMANHO_FILA);
+        Path zip = arquivo;
+        executor.execute(() -> {
+            try {
+                ler(job, zip, fila);
+            } finally {
+                concluirEtapa(job, zip);
+            }
+        });
+        executor.execute(() -> {
+            try {
+                gravar(job, fila);
+            } finally {
+                concluirEtapa(job, zip);
+            }
+        });
+        return job.resumo();
+    }
+
+    public ImportacaoDTO consultar(Long usuarioId, String jobId) {
+        Job job = jobs.get(jobId);
+        if (job == null || !job.usuarioId.equals(usuarioId)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Importação não encontrada");
+        }
+        return job.resumo();
+    }
+
+    @PreDestroy
+    void encerrar() {
+        executor.shutdownNow();
+    }
+
+    private void ler(Job job, Path arquivo, BlockingQueue<NovaAnotacao> fila) {
+        Map<String, Long> cadernos = new HashMap<>();
+        try (ZipInputStream zip = new ZipInputStream(Files.newInputStream(arquivo), StandardCharsets.UTF_8)) {
+            // As entradas são lidas até o fim por aqui, para o getNextEntry não descompactar nada fora da contagem.
+            InputStream conteudo = new Contagem(zip, limiteDescompactado);
+            ZipEntry entrada;
+            while (!job.falhou() && (entrada = zip.getNextEntry()) != null) {
+                String caminho = entrada.getName().replace('\\', '/');
+                int barra = caminho.lastIndexOf('/');
+                String pasta = barra < 0 ? null : caminho.substring(0, barra);
+                String nome = caminho.substring(barra + 1);
+                if (entrada.isDirectory() || nome.startsWith(".") || caminho.startsWith("__MACOSX/")) {
+                    descartar(conteudo);
+                    continue;
+                }
+                int ponto = nome.lastIndexOf('.');
+                if (ponto <= 0 || !ehMarkdown(nome.substring(ponto + 1))) {
+                    descartar(conteudo);
+                    job.ignoradas.incrementAndGet();
+                    continue;
+                }
+                String texto = lerLimitado(conteudo);
+                if (texto == null) {
+                    job.ignoradas.incrementAndGet();
+                    continue;
+                }
+                Long cadernoId = pasta == null || pasta.isEmpty() ? null
+                        : cadernos.computeIfAbsent(pasta, p -> criarCaderno(job, p));
+                enfileirar(job, fila, new NovaAnotacao(truncar(nome.substring(0, ponto)), texto, job.usuarioId,
+                        cadernoId));
+            }
+        } catch (LimiteExcedido e) {
+            job.falhar("Conteúdo descompactado maior que o permitido");
+        } catch (ZipException e) {
+            job.falhar("Arquivo ZIP inválido");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            job.falhar("Importação interrompida");
+        } catch (Exception e) {
+            log.warn("Falha ao ler a importação {}", job.id, e);
+            job.falhar("Falha ao ler o arquivo");
+        } finally {
+            try {
+                enfileirar(job, fila, FIM);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void gravar(Job job, BlockingQueue<NovaAnotacao> fila) {
+        List<NovaAnotacao> lote = new ArrayList<>(TAMANHO_LOTE);
+        int pesoLote = 0;
+        try {
+            while (true) {
+                NovaAnotacao item = fila.poll(1, TimeUnit.SECONDS);
+                if (item == FIM || item == null && job.falhou()) {
+                    break;
+                }
+                if (item != null) {
+                    lote.add(item);
+                    pesoLote += peso(item);
+                    // Grava antes de o lote ocupar metade da reserva, para a leitura nunca ficar sem espaço.
+                    if (lote.size() == TAMANHO_LOTE || pesoLote >= LIMITE_MEMORIA / 2) {
+                        gravarLote(job, lote);
+                        job.memoria.release(pesoLote);
+                        pesoLote = 0;
+                    }
+                }
+            }
+            gravarLote(job, lote);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            job.falhar("Importação interrompida");
+        } catch (Exception e) {
+            log.warn("Falha ao gravar a importação {}", job.id, e);
+            job.falhar("Falha ao gravar as anotações");
+        }
+    }
+
+    private void gravarLote(Job job, List<NovaAnotacao> lote) {
+        if (lote.isEmpty()) {
+            return;
+        }
+        anotacaoService.inserir(lote);
+        job.anotacoes.addAndGet(lote.size());
+        lote.clear();
+    }
+
+    private Long criarCaderno(Job job, String pasta) {
+        Long id = cadernoService.save(new CadernoDTO(truncar(pasta), job.usuarioId)).id();
+        job.cadernos.incrementAndGet();
+        return id;
+    }
+
+    // Leitura e gravação desistem ao ver a falha da outra ponta em vez de bloquear na fila para sempre.
+    private static void enfileirar(Job job, BlockingQueue<NovaAnotacao> fila, NovaAnotacao item)
+            throws InterruptedException {
+        int peso = peso(item);
+        while (!job.memoria.tryAcquire(peso, 1, TimeUnit.SECONDS)) {
+            if (job.falhou()) {
+                return;
+            }
+        }
+        while (!fila.offer(item, 1, TimeUnit.SECONDS)) {
+            if (job.falhou()) {
+                return;
+            }
+        }
+    }
+
+    private void concluirEtapa(Job job, Path arquivo) {
+        if (job.etapasPendentes.decrementAndGet() == 0) {
+            job.fim = Instant.now();
+            apagar(arquivo);
+            vagas.release();
+        }
+    }
+
+    private void descartarAntigos() {
+        Instant limite = Instant.now().minus(RETENCAO);
+        jobs.values().removeIf(job -> job.fim != null && job.fim.isBefore(limite));
+    }
+
+    private static void copiar(InputStream corpo, Path destino) throws IOException {
+        byte[] buffer = new byte[64 * 1024];
+        long total = 0;
+        try (OutputStream out = Files.newOutputStream(destino)) {
+            int lidos;
+            while ((lidos = corpo.read(buffer)) != -1) {
+                total += lidos;
+                if (total > LIMITE_ARQUIVO) {
+                    throw new ResponseStatusException(HttpStatus.PAYLOAD_TOO_LARGE, "Arquivo maior que 1 GB");
+                }
+                out.write(buffer, 0, lidos);
+            }
+        }
+    }
+
+    // Entradas maiores que LIMITE_ENTRADA são puladas, mas o resto delas ainda é descompactado e contado.
+    private static String lerLimitado(InputStream entrada) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8 * 1024];
+        int lidos;
+        while ((lidos = entrada.read(buffer)) != -1) {
+            if (bytes.size() + lidos > LIMITE_ENTRADA) {
+                descartar(entrada);
+                return null;
+            }
+            bytes.write(buffer, 0, lidos);
+        }
+        String texto = bytes.toString(StandardCharsets.UTF_8);
+        return texto.startsWith("\uFEFF") ? texto.substring(1) : texto;
+    }
+
+    private static void descartar(InputStream entrada) throws IOException {
+        byte[] buffer = new byte[8 * 1024];
+        while (entrada.read(buffer) != -1) {
+            // só avança até o fim da entrada
+        }
+    }
+
+    private static boolean ehMarkdown(String extensao) {
+        return switch (extensao.toLowerCase()) {
+            case "md", "markdown", "txt" -> true;
+            default -> false;
+        };
+    }
+
+    // Bytes de heap do texto (UTF-16), contados na reserva de memória do job.
+    private static int peso(NovaAnotacao item) {
+        return item == FIM ? 0 : 2 * (item.titulo().length() + item.corpo().length());
+    }
+
+    private static String truncar(String texto) {
+        if (texto.length() <= LIMITE_TITULO) {
+            return texto;
+        }
+        // Não separa um par substituto (emoji) no corte.
+        int fim = Character.isHighSurrogate(texto.charAt(LIMITE_TITULO - 1)) ? LIMITE_TITULO - 1 : LIMITE_TITULO;
+        return texto.substring(0, fim);
+    }
+
+    private static void apagar(Path arquivo) {
+        if (arquivo == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(arquivo);
+        } catch (IOException e) {
+            log.warn("Não foi possível apagar {}", arquivo, e);
+        }
+    }
+
+    private static final class Job {
+
+        final String id;
+        final Long usuarioId;
+        final AtomicLong anotacoes = new AtomicLong();
+        final AtomicLong cadernos = new AtomicLong();
+        final AtomicLong ignoradas = new AtomicLong();
+        final AtomicInteger etapasPendentes = new AtomicInteger(2);
+        final Semaphore memoria = new Semaphore(LIMITE_MEMORIA);
+        volatile String erro;
+        volatile Instant fim;
+
+        Job(String id, Long usuarioId) {
+            this.id = id;
+            this.usuarioId = usuarioId;
+        }
+
+        void falhar(String motivo) {
+            if (erro == null) {
+                erro = motivo;
+            }
+        }
+
+        boolean falhou() {
+            return erro != null;
+        }
+
+        ImportacaoDTO resumo() {
+            String estado = fim == null ? "PROCESSANDO" : falhou() ? "FALHOU" : "CONCLUIDA";
+            return new ImportacaoDTO(id, estado, anotacoes.get(), cadernos.get(), ignoradas.get(), erro);
+        }
+    }
+
+    /** Conta os bytes descompactados do arquivo inteiro e desiste ao passar do limite. */
+    private static final class Contagem extends FilterInputStream {
+
+        private final long limite;
+        private long total;
+
+        Contagem(InputStream entrada, long limite) {
+            super(entrada);
+            this.limite = limite;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b != -1) {
+                somar(1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int lidos = super.read(b, off, len);
+            if (lidos > 0) {
+                somar(lidos);
+            }
+            return lidos;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long pulados = super.skip(n);
+            somar(pulados);
+            return pulados;
+        }
+
+        @Override
+        public void close() {
+            // o ZipInputStream é fechado por quem o abriu
+        }
+
+        private void somar(long bytes) throws LimiteExcedido {
+            total += bytes;
+            if (total > limite) {
+                throw new LimiteExcedido();
+            }
+        }
+    }
+
+    private static final class LimiteExcedido extends IOException {
+    }
+}
@@ -0,0 +1,36 @@
+package com.ifsp.app.service;
+
+import com.ifsp.app.controller.dto.PaginaDTO;
+import org.springframework.data.domain.Limit;
+
+import java.util.List;
+import java.util.function.Function;
+
+final class Paginacao {
+
+    static final int LIMITE_MAXIMO = 500;
+
+    private Paginacao() {
+    }
+
+    static int normalizar(int limite) {
+        return Math.max(1, Math.min(limite, LIMITE_MAXIMO));
+    }
+
+    static Long cursor(Long after) {
+        return after == null ? 0L : after;
+    }
+
+    // Busca uma linha a mais do que o pedido para saber se existe próxima página sem outra consulta.
+    static Limit consulta(int limite) {
+        return Limit.of(limite + 1);
+    }
+
+    static <T> PaginaDTO<T> pagina(List<T> linhas, int limite, Function<T, Long> id) {
+        if (linhas.size() <= limite) {
+            return new PaginaDTO<>(linhas, null);
+        }
+        List<T> itens = linhas.subList(0, limite);
+        return new PaginaDTO<>(itens, id.apply(itens.get(limite - 1)));
+    }
+}
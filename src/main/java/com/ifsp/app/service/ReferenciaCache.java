@@ -0,0 +1,129 @@
+package com.ifsp.app.service;
+
+import com.ifsp.app.model.repository.CadernoDono;
+import com.ifsp.app.model.repository.CadernoRepository;
+import com.ifsp.app.model.repository.UsuarioRepository;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Cache LRU das chaves estrangeiras usadas nas escritas: quais usuários existem e a quem pertence cada
+ * caderno. Só guarda resultados positivos, então um id inexistente sempre volta ao banco; exclusões de
+ * usuário e caderno precisam chamar os métodos de invalidação.
+ */
+@Component
+public class ReferenciaCache {
+
+    static final int CAPACIDADE = 10_000;
+
+    private final UsuarioRepository usuarioRepository;
+    private final CadernoRepository cadernoRepository;
+
+    private final Map<Long, Boolean> usuarios = lru();
+    private final Map<Long, Long> donoPorCaderno = lru();
+
+    public ReferenciaCache(UsuarioRepository usuarioRepository,
+                           CadernoRepository cadernoRepository) {
+        this.usuarioRepository = usuarioRepository;
+        this.cadernoRepository = cadernoRepository;
+    }
+
+    public void exigirUsuario(Long usuarioId) {
+        if (usuarioId == null) {
+            throw usuarioNaoEncontrado();
+        }
+        if (usuarios.containsKey(usuarioId)) {
+            return;
+        }
+        if (!usuarioRepository.existsById(usuarioId)) {
+            throw usuarioNaoEncontrado();
+        }
+        usuarios.put(usuarioId, Boolean.TRUE);
+    }
+
+    public void exigirUsuarios(Collection<Long> usuarioIds) {
+        List<Long> faltantes = usuarioIds.stream().filter(id -> !usuarios.containsKey(id)).distinct().toList();
+        if (faltantes.isEmpty()) {
+            return;
+        }
+        List<Long> encontrados = usuarioRepository.findIdsByIdIn(faltantes);
+        if (encontrados.size() != faltantes.size()) {
+            throw usuarioNaoEncontrado();
+        }
+        encontrados.forEach(id -> usuarios.put(id, Boolean.TRUE));
+    }
+
+    public Long exigirCaderno(Long cadernoId) {
+        Long dono = donoPorCaderno.get(cadernoId);
+        if (dono != null) {
+            return dono;
+        }
+        dono = cadernoRepository.findUsuarioIdById(cadernoId).orElseThrow(this::cadernoNaoEncontrado);
+        donoPorCaderno.put(cadernoId, dono);
+        return dono;
+    }
+
+    public Map<Long, Long> exigirCadernos(Collection<Long> cadernoIds) {
+        Set<Long> faltantes = cadernoIds.stream()
+                .filter(id -> !donoPorCaderno.containsKey(id))
+                .collect(Collectors.toSet());
+        if (!faltantes.isEmpty()) {
+            List<CadernoDono> encontrados = cadernoRepository.findDonosByIdIn(faltantes);
+            if (encontrados.size() != faltantes.size()) {
+                throw cadernoNaoEncontrado();
+            }
+            encontrados.forEach(c -> donoPorCaderno.put(c.getId(), c.getUsuarioId()));
+        }
+        Map<Long, Long> donos = new LinkedHashMap<>();
+        for (Long id : cadernoIds) {
+            Long dono = donoPorCaderno.get(id);
+            if (dono == null) {
+                // Invalidado entre a consulta e a leitura; resolve individualmente.
+                dono = exigirCaderno(id);
+            }
+            donos.put(id, dono);
+        }
+        return donos;
+    }
+
+    public void registrarCaderno(Long cadernoId, Long usuarioId) {
+        donoPorCaderno.put(cadernoId, usuarioId);
+    }
+
+    public void invalidarCaderno(Long cadernoId) {
+        donoPorCaderno.remove(cadernoId);
+    }
+
+    public void invalidarUsuario(Long usuarioId) {
+        usuarios.remove(usuarioId);
+        synchronized (donoPorCaderno) {
+            donoPorCaderno.values().removeIf(usuarioId::equals);
+        }
+    }
+
+    private ResponseStatusException usuarioNaoEncontrado() {
+        return new ResponseStatusException(HttpStatus.NOT_FOUND, "Usuário não encontrado");
+    }
+
+    private ResponseStatusException cadernoNaoEncontrado() {
+        return new ResponseStatusException(HttpStatus.NOT_FOUND, "Caderno não encontrado");
+    }
+
+    private static <V> Map<Long, V> lru() {
+        return Collections.synchronizedMap(new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, V> eldest) {
+                return size() > CAPACIDADE;
+            }
+        });
+    }
+}
@@ -0,0 +1,127 @@
+package com.ifsp.app.service;
+
+import com.ifsp.app.controller.dto.OperacaoTextoDTO;
+import com.ifsp.app.controller.dto.PaginaDTO;
+import com.ifsp.app.controller.dto.RevisaoDTO;
+import com.ifsp.app.controller.dto.RevisaoResumoDTO;
+import com.ifsp.app.model.Anotacao;
+import com.ifsp.app.model.AnotacaoRevisao;
+import com.ifsp.app.model.CorpoCodec;
+import com.ifsp.app.model.repository.AnotacaoRepository;
+import com.ifsp.app.model.repository.AnotacaoRevisaoRepository;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Histórico de revisões das anotações. A cada {@link #INTERVALO_COMPLETA} revisões uma guarda o corpo inteiro;
+ * entre elas só o delta da edição é gravado, então o custo por edição acompanha o tamanho da mudança e
+ * reconstruir qualquer revisão aplica no máximo {@code INTERVALO_COMPLETA - 1} deltas.
+ * A revisão 0 guarda o estado anterior à primeira edição e só é criada nesse momento.
+ */
+@Service
+public class RevisaoService {
+
+    static final int INTERVALO_COMPLETA = 20;
+
+    private final AnotacaoRevisaoRepository revisaoRepository;
+    private final AnotacaoRepository anotacaoRepository;
+
+    public RevisaoService(AnotacaoRevisaoRepository revisaoRepository, AnotacaoRepository anotacaoRepository) {
+        this.revisaoRepository = revisaoRepository;
+        this.anotacaoRepository = anotacaoRepository;
+    }
+
+    /** Com {@code usuarioId}, só lista revisões de anotações desse usuário. */
+    public PaginaDTO<RevisaoResumoDTO> findPage(Long anotacaoId, Long usuarioId, Long after, int limit) {
+        if (usuarioId != null) {
+            exigirDono(anotacaoId, usuarioId);
+        }
+        int limite = Paginacao.normalizar(limit);
+        List<RevisaoResumoDTO> linhas = revisaoRepository.findResumoByAnotacaoIdAndNumeroGreaterThan(anotacaoId,
+                after == null ? -1 : Math.toIntExact(after), Paginacao.consulta(limite));
+        if (linhas.isEmpty() && usuarioId == null && !anotacaoRepository.existsById(anotacaoId)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Anotação não encontrada");
+        }
+        return Paginacao.pagina(linhas, limite, r -> r.numero().longValue());
+    }
+
+    public RevisaoDTO findByNumero(Long anotacaoId, Long usuarioId, int numero) {
+        if (usuarioId != null) {
+            exigirDono(anotacaoId, usuarioId);
+        }
+        List<AnotacaoRevisao> cadeia = numero < 0 ? List.of()
+                : revisaoRepository.findByAnotacaoIdAndNumeroBetweenOrderByNumero(anotacaoId,
+                numero - numero % INTERVALO_COMPLETA, numero);
+        if (cadeia.isEmpty() || !cadeia.get(0).isCompleta() || cadeia.get(cadeia.size() - 1).getNumero() != numero) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Revisão não encontrada");
+        }
+        String titulo = null;
+        String corpo = null;
+        for (AnotacaoRevisao revisao : cadeia) {
+            if (revisao.isCompleta()) {
+                titulo = revisao.getTitulo();
+                corpo = CorpoCodec.decodificar(revisao.getDados());
+            } else {
+                if (revisao.getTitulo() != null) {
+                    titulo = revisao.getTitulo();
+                }
+                corpo = DeltaTexto.aplicar(corpo,
+                        DeltaTexto.desserializar(CorpoCodec.decodificarBytes(revisao.getDados())));
+            }
+        }
+        AnotacaoRevisao alvo = cadeia.get(cadeia.size() - 1);
+        return new RevisaoDTO(alvo.getNumero(), alvo.getVersao(), titulo, corpo, alvo.getCriadaEm());
+    }
+
+    /**
+     * Registra a edição já gravada em {@code anotacao}. Com {@code operacoes} nulo o delta é calculado a partir
+     * do corpo anterior; no PATCH as operações recebidas já são o delta.
+     */
+    void registrar(Anotacao anotacao, Long versaoAnterior, String tituloAnterior, String corpoAnterior,
+                   List<OperacaoTextoDTO> operacoes) {
+        boolean mudouTitulo = !Objects.equals(tituloAnterior, anotacao.getTitulo());
+        boolean mudouCorpo = !Objects.equals(texto(corpoAnterior), texto(anotacao.getCorpo()));
+        if (!mudouTitulo && !mudouCorpo) {
+            return;
+        }
+        Integer ultimo = revisaoRepository.findUltimoNumeroByAnotacaoId(anotacao.getId()).orElse(null);
+        try {
+            if (ultimo == null) {
+                ultimo = 0;
+                revisaoRepository.save(new AnotacaoRevisao(anotacao, ultimo, versaoAnterior, true, tituloAnterior,
+                        CorpoCodec.codificar(texto(corpoAnterior))));
+            }
+            int numero = ultimo + 1;
+            AnotacaoRevisao revisao;
+            if (numero % INTERVALO_COMPLETA == 0) {
+                revisao = new AnotacaoRevisao(anotacao, numero, anotacao.getVersao(), true, anotacao.getTitulo(),
+                        CorpoCodec.codificar(texto(anotacao.getCorpo())));
+            } else {
+                List<OperacaoTextoDTO> delta = !mudouCorpo ? List.of()
+                        : operacoes != null ? operacoes : DeltaTexto.diferenca(corpoAnterior, anotacao.getCorpo());
+                revisao = new AnotacaoRevisao(anotacao, numero, anotacao.getVersao(), false,
+                        mudouTitulo ? anotacao.getTitulo() : null,
+                        CorpoCodec.codificarBytes(DeltaTexto.serializar(delta)));
+            }
+            revisaoRepository.save(revisao);
+        } catch (DataIntegrityViolationException e) {
+            // Outra edição gravou a mesma revisão primeiro.
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "A anotação foi alterada por outra edição");
+        }
+    }
+
+    private static String texto(String corpo) {
+        return corpo == null ? "" : corpo;
+    }
+
+    private void exigirDono(Long anotacaoId, Long usuarioId) {
+        if (!anotacaoRepository.findUsuarioIdById(anotacaoId).map(usuarioId::equals).orElse(false)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Anotação não encontrada");
+        }
+    }
+}
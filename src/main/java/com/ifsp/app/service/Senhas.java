@@ -0,0 +1,107 @@
+package com.ifsp.app.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+/**
+ * Hash de senhas com BCrypt. O BCrypt é caro de propósito, então roda num pool próprio com no máximo
+ * {@code anote.senha.threads} threads (padrão: uma por núcleo) e uma fila de {@code anote.senha.fila}: uma rajada
+ * de logins ocupa só esse pool, e o que não cabe na fila volta na hora com 503 em vez de segurar threads de
+ * requisição. Senhas gravadas antes do hash (texto puro) ou com custo menor que {@code anote.senha.custo} ainda
+ * são aceitas e devem ser regravadas no login ({@link #precisaRecodificar}).
+ */
+@Component
+public class Senhas implements MeterBinder {
+
+    private static final Pattern BCRYPT = Pattern.compile("\\A\\$2[aby]?\\$\\d\\d\\$[./0-9A-Za-z]{53}\\z");
+
+    private final BCryptPasswordEncoder encoder;
+    private final ThreadPoolExecutor executor;
+    // Comparado quando o email não existe, para a resposta levar o mesmo tempo de uma senha errada.
+    private final String referencia;
+
+    public Senhas(@Value("${anote.senha.custo:10}") int custo,
+                  @Value("${anote.senha.threads:0}") int threads,
+                  @Value("${anote.senha.fila:64}") int fila) {
+        int tamanho = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        this.encoder = new BCryptPasswordEncoder(custo);
+        this.executor = new ThreadPoolExecutor(tamanho, tamanho, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(fila), Thread.ofPlatform().name("senha-", 0).daemon().factory());
+        this.referencia = encoder.encode("referencia");
+    }
+
+    public String codificar(String senha) {
+        return executar(() -> encoder.encode(senha));
+    }
+
+    public boolean confere(String senha, String armazenada) {
+        if (senha == null || armazenada == null) {
+            return false;
+        }
+        if (!ehHash(armazenada)) {
+            return MessageDigest.isEqual(senha.getBytes(StandardCharsets.UTF_8),
+                    armazenada.getBytes(StandardCharsets.UTF_8));
+        }
+        return executar(() -> encoder.matches(senha, armazenada));
+    }
+
+    public void simular(String senha) {
+        executar(() -> encoder.matches(senha == null ? "" : senha, referencia));
+    }
+
+    public boolean precisaRecodificar(String armazenada) {
+        return !ehHash(armazenada) || encoder.upgradeEncoding(armazenada);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        new ExecutorServiceMetrics(executor, "senha", List.of()).bindTo(registry);
+    }
+
+    @PreDestroy
+    void encerrar() {
+        executor.shutdownNow();
+    }
+
+    private static boolean ehHash(String armazenada) {
+        return armazenada != null && BCRYPT.matcher(armazenada).matches();
+    }
+
+    private <T> T executar(Supplier<T> tarefa) {
+        Future<T> futuro;
+        try {
+            futuro = executor.submit(tarefa::get);
+        } catch (RejectedExecutionException e) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
+                    "Muitos logins simultâneos, tente novamente em instantes");
+        }
+        try {
+            return futuro.get();
+        } catch (InterruptedException e) {
+            futuro.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Login interrompido");
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof RuntimeException causa ? causa : new IllegalStateException(e.getCause());
+        }
+    }
+}
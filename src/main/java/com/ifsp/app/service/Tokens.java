@@ -0,0 +1,127 @@
+package com.ifsp.app.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tokens de acesso assinados com HMAC-SHA256, no formato
+ * {@code base64url(usuarioId, expiração) + "." + base64url(assinatura)}. A verificação não consulta o banco; tokens
+ * já verificados ficam num cache pequeno até expirarem. O segredo vem de {@code anote.token.segredo} (Base64, 32
+ * bytes ou mais) e precisa ser o mesmo em todas as instâncias; sem ele, um segredo aleatório é gerado e os tokens
+ * deixam de valer quando a aplicação reinicia.
+ */
+@Component
+public class Tokens {
+
+    private static final Logger log = LoggerFactory.getLogger(Tokens.class);
+
+    static final int CAPACIDADE = 10_000;
+
+    private static final String ALGORITMO = "HmacSHA256";
+    private static final Base64.Encoder CODIFICADOR = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODIFICADOR = Base64.getUrlDecoder();
+
+    private final SecretKeySpec chave;
+    private final Duration validade;
+    // Sem ordem de acesso (LRU) para não serializar todas as requisições num lock; cheio, descarta tudo.
+    private final Map<String, Verificado> verificados = new ConcurrentHashMap<>();
+
+    public Tokens(@Value("${anote.token.segredo:}") String segredo,
+                  @Value("${anote.token.validade:12h}") Duration validade) {
+        byte[] bytes;
+        if (segredo == null || segredo.isBlank()) {
+            log.warn("anote.token.segredo não configurado: tokens valem só até a aplicação reiniciar");
+            bytes = new byte[32];
+            new SecureRandom().nextBytes(bytes);
+        } else {
+            bytes = Base64.getDecoder().decode(segredo.trim());
+            if (bytes.length < 32) {
+                throw new IllegalStateException("anote.token.segredo precisa ter pelo menos 32 bytes");
+            }
+        }
+        this.chave = new SecretKeySpec(bytes, ALGORITMO);
+        this.validade = validade;
+    }
+
+    public record Emitido(String valor, Instant expiraEm) {
+    }
+
+    public Emitido emitir(Long usuarioId) {
+        Instant expiraEm = Instant.now().plus(validade);
+        String carga = CODIFICADOR.encodeToString(ByteBuffer.allocate(16)
+                .putLong(usuarioId)
+                .putLong(expiraEm.getEpochSecond())
+                .array());
+        return new Emitido(carga + "." + CODIFICADOR.encodeToString(assinar(carga)), expiraEm);
+    }
+
+    /** Devolve o usuário do token, ou {@code null} se ele for inválido ou estiver expirado. */
+    public Long verificar(String token) {
+        long agora = Instant.now().getEpochSecond();
+        Verificado verificado = verificados.get(token);
+        if (verificado == null) {
+            verificado = decodificar(token);
+            if (verificado == null) {
+                return null;
+            }
+            if (verificados.size() >= CAPACIDADE) {
+                verificados.clear();
+            }
+            verificados.put(token, verificado);
+        }
+        if (verificado.expiraEm() <= agora) {
+            verificados.remove(token);
+            return null;
+        }
+        return verificado.usuarioId();
+    }
+
+    private Verificado decodificar(String token) {
+        int ponto = token.indexOf('.');
+        if (ponto <= 0 || ponto != token.lastIndexOf('.')) {
+            return null;
+        }
+        String carga = token.substring(0, ponto);
+        byte[] dados;
+        byte[] assinatura;
+        try {
+            dados = DECODIFICADOR.decode(carga);
+            assinatura = DECODIFICADOR.decode(token.substring(ponto + 1));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        if (dados.length != 16 || !MessageDigest.isEqual(assinatura, assinar(carga))) {
+            return null;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(dados);
+        return new Verificado(buffer.getLong(), buffer.getLong());
+    }
+
+    private byte[] assinar(String carga) {
+        try {
+            Mac mac = Mac.getInstance(ALGORITMO);
+            mac.init(chave);
+            return mac.doFinal(carga.getBytes(StandardCharsets.US_ASCII));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private record Verificado(long usuarioId, long expiraEm) {
+    }
+}
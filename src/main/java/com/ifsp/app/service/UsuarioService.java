@@ -1,49 +1,69 @@
 package com.ifsp.app.service;
 
 import com.ifsp.app.controller.dto.UsuarioDTO;
+import com.ifsp.app.controller.dto.UsuarioResponseDTO;
 import com.ifsp.app.model.Usuario;
 import com.ifsp.app.model.repository.UsuarioRepository;
+import com.ifsp.app.service.busca.IndiceBusca;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.web.server.ResponseStatusException;
 
-import java.util.List;
-
 @Service
 public class UsuarioService {
 
     private final UsuarioRepository usuarioRepository;
+    private final IndiceBusca indiceBusca;
+    private final ReferenciaCache referenciaCache;
+    private final Senhas senhas;
 
-    public UsuarioService(UsuarioRepository usuarioRepository) {
+    public UsuarioService(UsuarioRepository usuarioRepository,
+                          IndiceBusca indiceBusca,
+                          ReferenciaCache referenciaCache,
+                          Senhas senhas) {
         this.usuarioRepository = usuarioRepository;
+        this.indiceBusca = indiceBusca;
+        this.referenciaCache = referenciaCache;
+        this.senhas = senhas;
     }
 
-    public Usuario login(String email, String senha) {
-        Usuario usuario = usuarioRepository.findByEmail(email)
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Email ou senha inválidos"));
+    public UsuarioResponseDTO login(String email, String senha) {
+        Usuario usuario = usuarioRepository.findByEmail(email).orElse(null);
+        if (usuario == null) {
+            senhas.simular(senha);
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Email ou senha inválidos");
+        }
 
-        if (!usuario.getSenha().equals(senha)) {
+        if (!senhas.confere(senha, usuario.getSenha())) {
             throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Email ou senha inválidos");
         }
 
-        return usuario;
+        // Senha em texto puro ou com custo antigo: regrava com o hash atual, sem alterar a versão do usuário.
+        if (senhas.precisaRecodificar(usuario.getSenha())) {
+            usuarioRepository.updateSenha(usuario.getId(), usuario.getSenha(), senhas.codificar(senha));
+        }
+
+        return UsuarioResponseDTO.de(usuario);
     }
 
-    public List<Usuario> findAll() {
-        return usuarioRepository.findAll();
+    public UsuarioResponseDTO findById(Long id) {
+        return usuarioRepository.findResponseById(id)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Usuário não encontrado"));
     }
 
-    public Usuario findById(Long id) {
-        return usuarioRepository.findById(id)
+    public Long findVersao(Long id) {
+        return usuarioRepository.findVersaoById(id)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Usuário não encontrado"));
     }
 
-    public Usuario save(UsuarioDTO usuarioDTO) {
+    public UsuarioResponseDTO save(UsuarioDTO usuarioDTO) {
         Usuario usuario = new Usuario();
         usuario.setNome(usuarioDTO.getNome());
         usuario.setEmail(usuarioDTO.getEmail());
-        usuario.setSenha(usuarioDTO.getSenha());
-        return usuarioRepository.save(usuario);
+        usuario.setSenha(usuarioDTO.getSenha() == null ? null : senhas.codificar(usuarioDTO.getSenha()));
+        return UsuarioResponseDTO.de(salvar(usuario));
     }
 
     public void deleteById(Long id) {
@@ -51,10 +71,15 @@ public class UsuarioService {
             throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Usuário não encontrado");
         }
         usuarioRepository.deleteById(id);
+        AposCommit.executar(() -> {
+            referenciaCache.invalidarUsuario(id);
+            indiceBusca.removerUsuario(id);
+        });
     }
 
-    public Usuario update(Long id, UsuarioDTO usuarioDTO) {
-        Usuario usuario = findById(id);
+    public UsuarioResponseDTO update(Long id, UsuarioDTO usuarioDTO) {
+        Usuario usuario = usuarioRepository.findById(id)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Usuário não encontrado"));
         if (usuarioDTO.getNome() != null) {
             usuario.setNome(usuarioDTO.getNome());
         }
@@ -62,8 +87,18 @@ public class UsuarioService {
             usuario.setEmail(usuarioDTO.getEmail());
         }
         if (usuarioDTO.getSenha() != null) {
-            usuario.setSenha(usuarioDTO.getSenha());
+            usuario.setSenha(senhas.codificar(usuarioDTO.getSenha()));
+        }
+        return UsuarioResponseDTO.de(salvar(usuario));
+    }
+
+    private Usuario salvar(Usuario usuario) {
+        try {
+            return usuarioRepository.save(usuario);
+        } catch (DataIntegrityViolationException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Email já cadastrado");
+        } catch (ObjectOptimisticLockingFailureException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "O usuário foi alterado por outra edição");
         }
-        return usuarioRepository.save(usuario);
     }
 }
@@ -0,0 +1,93 @@
+package com.ifsp.app.service.busca;
+
+import com.ifsp.app.controller.dto.ResultadoBuscaDTO;
+import com.ifsp.app.model.repository.AnotacaoRepository;
+import com.ifsp.app.model.repository.AnotacaoTexto;
+import com.ifsp.app.model.repository.MigracaoCorpo;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Índices invertidos em memória, um por usuário. São reconstruídos do banco na subida, antes de o servidor aceitar
+ * requisições: assim nenhuma edição concorrente é sobrescrita por um lote antigo da reconstrução, e as buscas não
+ * voltam vazias enquanto ela roda.
+ */
+@Component
+public class IndiceBusca implements SmartInitializingSingleton {
+
+    private static final Logger log = LoggerFactory.getLogger(IndiceBusca.class);
+    private static final int LOTE_RECONSTRUCAO = 1000;
+
+    private final AnotacaoRepository anotacaoRepository;
+    private final MigracaoCorpo migracaoCorpo;
+    private final Map<Long, IndiceUsuario> porUsuario = new ConcurrentHashMap<>();
+
+    public IndiceBusca(AnotacaoRepository anotacaoRepository, MigracaoCorpo migracaoCorpo) {
+        this.anotacaoRepository = anotacaoRepository;
+        this.migracaoCorpo = migracaoCorpo;
+    }
+
+    public void indexar(Long usuarioId, Long anotacaoId, String titulo, String corpo) {
+        porUsuario.computeIfAbsent(usuarioId, id -> new IndiceUsuario()).indexar(anotacaoId, titulo, corpo);
+    }
+
+    public void remover(Long usuarioId, Long anotacaoId) {
+        IndiceUsuario indice = porUsuario.get(usuarioId);
+        if (indice != null) {
+            indice.remover(anotacaoId);
+        }
+    }
+
+    public void remover(Long usuarioId, Collection<Long> anotacaoIds) {
+        IndiceUsuario indice = porUsuario.get(usuarioId);
+        if (indice != null) {
+            anotacaoIds.forEach(indice::remover);
+        }
+    }
+
+    public void removerUsuario(Long usuarioId) {
+        porUsuario.remove(usuarioId);
+    }
+
+    public List<ResultadoBuscaDTO> buscar(Long usuarioId, String consulta, int limite) {
+        IndiceUsuario indice = porUsuario.get(usuarioId);
+        if (indice == null) {
+            return List.of();
+        }
+        return indice.buscar(consulta, limite).stream()
+                .map(r -> new ResultadoBuscaDTO(r.anotacaoId(), r.titulo(), r.pontuacao()))
+                .toList();
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        // Os corpos antigos só ficam legíveis depois da migração para a coluna conteudo.
+        migracaoCorpo.migrar();
+        reconstruir();
+    }
+
+    void reconstruir() {
+        long inicio = System.nanoTime();
+        long total = 0;
+        Long cursor = 0L;
+        List<AnotacaoTexto> lote;
+        do {
+            lote = anotacaoRepository.findTextoByIdGreaterThan(cursor, Limit.of(LOTE_RECONSTRUCAO));
+            for (AnotacaoTexto a : lote) {
+                indexar(a.getUsuarioId(), a.getId(), a.getTitulo(), a.getCorpo());
+                cursor = a.getId();
+            }
+            total += lote.size();
+        } while (lote.size() == LOTE_RECONSTRUCAO);
+        log.info("Índice de busca reconstruído com {} anotações em {} ms", total,
+                (System.nanoTime() - inicio) / 1_000_000);
+    }
+}
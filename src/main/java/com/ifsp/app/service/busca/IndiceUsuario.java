@@ -0,0 +1,243 @@
+package com.ifsp.app.service.busca;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Índice invertido das anotações de um único usuário. Cada documento ocupa um "slot" e as listas de
+ * postagens guardam slots e frequências em arrays primitivos. Remoções e reindexações só marcam o slot
+ * antigo como morto; a compactação acontece quando os mortos passam a ser maioria.
+ */
+class IndiceUsuario {
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final int PESO_TITULO = 2;
+    private static final int COMPACTAR_A_PARTIR_DE = 64;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<Long, Integer> slotPorAnotacao = new HashMap<>();
+    private final Map<String, Postagens> termos = new HashMap<>();
+
+    private long[] anotacoes = new long[16];
+    private int[] tamanhos = new int[16];
+    private String[] titulos = new String[16];
+    private String[][] termosDoSlot = new String[16][];
+    private int slots;
+    private int vivos;
+    private long tamanhoTotal;
+
+    void indexar(long anotacaoId, String titulo, String corpo) {
+        Map<String, Integer> frequencias = new HashMap<>();
+        int[] tamanho = new int[1];
+        Tokenizador.tokens(titulo, t -> {
+            frequencias.merge(t, PESO_TITULO, Integer::sum);
+            tamanho[0] += PESO_TITULO;
+        });
+        Tokenizador.tokens(corpo, t -> {
+            frequencias.merge(t, 1, Integer::sum);
+            tamanho[0]++;
+        });
+
+        lock.writeLock().lock();
+        try {
+            removerSemLock(anotacaoId);
+            compactarSeNecessario();
+            garantirCapacidade();
+            int slot = slots++;
+            anotacoes[slot] = anotacaoId;
+            tamanhos[slot] = tamanho[0];
+            titulos[slot] = titulo;
+            String[] distintos = frequencias.keySet().toArray(new String[0]);
+            termosDoSlot[slot] = distintos;
+            for (String termo : distintos) {
+                termos.computeIfAbsent(termo, k -> new Postagens()).adicionar(slot, frequencias.get(termo));
+            }
+            slotPorAnotacao.put(anotacaoId, slot);
+            vivos++;
+            tamanhoTotal += tamanho[0];
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void remover(long anotacaoId) {
+        lock.writeLock().lock();
+        try {
+            removerSemLock(anotacaoId);
+            compactarSeNecessario();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    int slots() {
+        lock.readLock().lock();
+        try {
+            return slots;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    List<Resultado> buscar(String consulta, int limite) {
+        List<String> termosConsulta = new ArrayList<>();
+        Tokenizador.tokens(consulta, t -> {
+            if (!termosConsulta.contains(t)) {
+                termosConsulta.add(t);
+            }
+        });
+        if (termosConsulta.isEmpty()) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            if (vivos == 0) {
+                return List.of();
+            }
+            double media = (double) tamanhoTotal / vivos;
+            double[] pontuacoes = new double[slots];
+            int[] tocados = new int[16];
+            int totalTocados = 0;
+            for (String termo : termosConsulta) {
+                Postagens p = termos.get(termo);
+                if (p == null || p.df == 0) {
+                    continue;
+                }
+                double idf = Math.log(1 + (vivos - p.df + 0.5) / (p.df + 0.5));
+                for (int i = 0; i < p.tamanho; i++) {
+                    int slot = p.slots[i];
+                    if (anotacoes[slot] < 0) {
+                        continue;
+                    }
+                    int tf = p.frequencias[i];
+                    double normalizacao = K1 * (1 - B + B * tamanhos[slot] / media);
+                    if (pontuacoes[slot] == 0) {
+                        if (totalTocados == tocados.length) {
+                            tocados = Arrays.copyOf(tocados, totalTocados * 2);
+                        }
+                        tocados[totalTocados++] = slot;
+                    }
+                    pontuacoes[slot] += idf * tf * (K1 + 1) / (tf + normalizacao);
+                }
+            }
+
+            PriorityQueue<Resultado> melhores = new PriorityQueue<>(limite + 1,
+                    (x, y) -> Double.compare(x.pontuacao(), y.pontuacao()));
+            for (int i = 0; i < totalTocados; i++) {
+                int slot = tocados[i];
+                if (melhores.size() == limite && pontuacoes[slot] <= melhores.peek().pontuacao()) {
+                    continue;
+                }
+                melhores.add(new Resultado(anotacoes[slot], titulos[slot], pontuacoes[slot]));
+                if (melhores.size() > limite) {
+                    melhores.poll();
+                }
+            }
+            List<Resultado> resultado = new ArrayList<>(melhores);
+            resultado.sort((x, y) -> Double.compare(y.pontuacao(), x.pontuacao()));
+            return resultado;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void removerSemLock(long anotacaoId) {
+        Integer slot = slotPorAnotacao.remove(anotacaoId);
+        if (slot == null) {
+            return;
+        }
+        for (String termo : termosDoSlot[slot]) {
+            termos.get(termo).df--;
+        }
+        anotacoes[slot] = -1;
+        titulos[slot] = null;
+        termosDoSlot[slot] = null;
+        tamanhoTotal -= tamanhos[slot];
+        vivos--;
+    }
+
+    private void garantirCapacidade() {
+        if (slots < anotacoes.length) {
+            return;
+        }
+        int novo = anotacoes.length * 2;
+        anotacoes = Arrays.copyOf(anotacoes, novo);
+        tamanhos = Arrays.copyOf(tamanhos, novo);
+        titulos = Arrays.copyOf(titulos, novo);
+        termosDoSlot = Arrays.copyOf(termosDoSlot, novo);
+    }
+
+    private void compactarSeNecessario() {
+        if (slots - vivos > COMPACTAR_A_PARTIR_DE && slots - vivos > vivos) {
+            compactar();
+        }
+    }
+
+    private void compactar() {
+        int[] novoSlot = new int[slots];
+        int destino = 0;
+        for (int slot = 0; slot < slots; slot++) {
+            if (anotacoes[slot] < 0) {
+                novoSlot[slot] = -1;
+                continue;
+            }
+            novoSlot[slot] = destino;
+            anotacoes[destino] = anotacoes[slot];
+            tamanhos[destino] = tamanhos[slot];
+            titulos[destino] = titulos[slot];
+            termosDoSlot[destino] = termosDoSlot[slot];
+            slotPorAnotacao.put(anotacoes[destino], destino);
+            destino++;
+        }
+        Arrays.fill(titulos, destino, slots, null);
+        Arrays.fill(termosDoSlot, destino, slots, null);
+        slots = destino;
+        termos.values().removeIf(p -> p.df == 0);
+        for (Postagens p : termos.values()) {
+            p.remapear(novoSlot);
+        }
+    }
+
+    record Resultado(long anotacaoId, String titulo, double pontuacao) {
+    }
+
+    private static final class Postagens {
+        int[] slots = new int[4];
+        int[] frequencias = new int[4];
+        int tamanho;
+        int df;
+
+        void adicionar(int slot, int frequencia) {
+            if (tamanho == slots.length) {
+                slots = Arrays.copyOf(slots, tamanho * 2);
+                frequencias = Arrays.copyOf(frequencias, tamanho * 2);
+            }
+            slots[tamanho] = slot;
+            frequencias[tamanho] = frequencia;
+            tamanho++;
+            df++;
+        }
+
+        void remapear(int[] novoSlot) {
+            int destino = 0;
+            for (int i = 0; i < tamanho; i++) {
+                int slot = novoSlot[slots[i]];
+                if (slot >= 0) {
+                    slots[destino] = slot;
+                    frequencias[destino] = frequencias[i];
+                    destino++;
+                }
+            }
+            tamanho = destino;
+        }
+    }
+}
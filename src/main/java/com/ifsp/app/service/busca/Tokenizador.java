@@ -0,0 +1,56 @@
+package com.ifsp.app.service.busca;
+
+import java.text.Normalizer;
+import java.util.Set;
+import java.util.function.Consumer;
+
+public final class Tokenizador {
+
+    private static final int TAMANHO_MINIMO = 2;
+    private static final int TAMANHO_MAXIMO = 40;
+
+    // Já sem acentos, pois a comparação é feita depois da normalização.
+    private static final Set<String> STOPWORDS = Set.of(
+            "a", "o", "as", "os", "um", "uma", "uns", "umas",
+            "de", "da", "do", "das", "dos", "em", "no", "na", "nos", "nas",
+            "num", "numa", "ao", "aos", "pelo", "pela", "pelos", "pelas",
+            "para", "por", "com", "sem", "sob", "sobre", "entre", "ate",
+            "e", "ou", "mas", "que", "se", "como", "mais", "menos", "muito",
+            "ja", "nao", "sim", "isso", "isto", "aquilo", "este", "esta", "esse", "essa",
+            "ele", "ela", "eles", "elas", "eu", "voce", "lhe", "me", "te", "seu", "sua");
+
+    private Tokenizador() {
+    }
+
+    public static void tokens(String texto, Consumer<String> destino) {
+        if (texto == null || texto.isEmpty()) {
+            return;
+        }
+        String decomposto = Normalizer.normalize(texto, Normalizer.Form.NFD);
+        StringBuilder atual = new StringBuilder();
+        for (int i = 0; i < decomposto.length(); i++) {
+            char c = decomposto.charAt(i);
+            if (Character.getType(c) == Character.NON_SPACING_MARK) {
+                continue;
+            }
+            if (Character.isLetterOrDigit(c)) {
+                if (atual.length() < TAMANHO_MAXIMO) {
+                    atual.append(Character.toLowerCase(c));
+                }
+            } else {
+                emitir(atual, destino);
+            }
+        }
+        emitir(atual, destino);
+    }
+
+    private static void emitir(StringBuilder atual, Consumer<String> destino) {
+        if (atual.length() >= TAMANHO_MINIMO) {
+            String token = atual.toString();
+            if (!STOPWORDS.contains(token)) {
+                destino.accept(token);
+            }
+        }
+        atual.setLength(0);
+    }
+}
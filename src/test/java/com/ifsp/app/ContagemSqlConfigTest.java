@@ -0,0 +1,52 @@
+package com.ifsp.app;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ContagemSqlConfigTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final OncePerRequestFilter filtro = new ContagemSqlConfig().contagemSqlFilter(registry);
+
+    @Test
+    void filtro_devePublicarComandosNoCabecalhoAntesDoCorpoERegistrarMetricaPorRota() throws Exception {
+        ContadorSql.incrementar();
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/cadernos/7");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filtro.doFilter(request, response, (req, res) -> {
+            ContadorSql.incrementar();
+            ContadorSql.incrementar();
+            req.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/cadernos/{id}");
+            res.getOutputStream().write("{}".getBytes(StandardCharsets.UTF_8));
+            res.flushBuffer();
+            ContadorSql.incrementar();
+        });
+
+        assertEquals("2", response.getHeader(ContagemSqlConfig.CABECALHO));
+        DistributionSummary sql = registry.get(ContagemSqlConfig.METRICA)
+                .tag("method", "GET").tag("uri", "/cadernos/{id}").summary();
+        assertEquals(1, sql.count());
+        assertEquals(3, sql.totalAmount());
+    }
+
+    @Test
+    void filtro_quandoNadaForEscrito_deveGravarCabecalhoAoFinal() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filtro.doFilter(new MockHttpServletRequest("DELETE", "/anotacoes/1"), response,
+                (req, res) -> ContadorSql.incrementar());
+
+        assertEquals("1", response.getHeader(ContagemSqlConfig.CABECALHO));
+        assertEquals(1, registry.get(ContagemSqlConfig.METRICA).tag("uri", "UNKNOWN").summary().count());
+    }
+}
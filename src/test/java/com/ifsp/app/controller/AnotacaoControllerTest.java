@@ -1,13 +1,26 @@
 package com.ifsp.app.controller;
 
 import com.ifsp.app.controller.dto.AnotacaoDTO;
-import com.ifsp.app.model.Anotacao;
+import com.ifsp.app.controller.dto.AnotacaoResponseDTO;
+import com.ifsp.app.controller.dto.AnotacaoResumoDTO;
+import com.ifsp.app.controller.dto.OperacaoTextoDTO;
+import com.ifsp.app.controller.dto.PaginaDTO;
+import com.ifsp.app.controller.dto.PatchAnotacaoDTO;
+import com.ifsp.app.controller.dto.ResultadoLoteDTO;
+import com.ifsp.app.controller.dto.VersaoDTO;
 import com.ifsp.app.service.AnotacaoService;
+import com.ifsp.app.service.RevisaoService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.util.List;
 
@@ -19,62 +32,159 @@ class AnotacaoControllerTest {
     @Mock
     private AnotacaoService anotacaoService;
 
+    @Mock
+    private RevisaoService revisaoService;
+
     @InjectMocks
     private AnotacaoController anotacaoController;
 
-    private Anotacao anotacao;
+    private AnotacaoResponseDTO anotacao;
     private AnotacaoDTO anotacaoDTO;
 
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
-        anotacao = new Anotacao();
+        anotacao = new AnotacaoResponseDTO(1L, 0L, "T", "B", 2L, null);
         anotacaoDTO = new AnotacaoDTO();
     }
 
     @Test
-    void deveListarTodasAnotacoes() {
-        when(anotacaoService.findAll()).thenReturn(List.of(anotacao));
+    void deveListarPaginaDeAnotacoes() {
+        AnotacaoResumoDTO resumo = new AnotacaoResumoDTO(1L, "T", 2L, null);
+        when(anotacaoService.findPageByUsuario(2L, null, 50)).thenReturn(new PaginaDTO<>(List.of(resumo), null));
 
-        List<Anotacao> resultado = anotacaoController.findAll();
+        PaginaDTO<AnotacaoResumoDTO> resultado = anotacaoController.findAll(null, 50, 2L);
 
-        assertEquals(1, resultado.size());
-        verify(anotacaoService, times(1)).findAll();
+        assertEquals(1, resultado.itens().size());
+        assertNull(resultado.proximoCursor());
+        verify(anotacaoService, times(1)).findPageByUsuario(2L, null, 50);
     }
 
     @Test
     void deveBuscarAnotacaoPorId() {
         when(anotacaoService.findById(1L)).thenReturn(anotacao);
 
-        Anotacao resultado = anotacaoController.findById(1L);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        AnotacaoResponseDTO resultado = anotacaoController.findById(1L, 2L,
+                new ServletWebRequest(new MockHttpServletRequest("GET", "/anotacoes/1"), response));
 
         assertEquals(anotacao, resultado);
+        assertEquals("\"1-0\"", response.getHeader("ETag"));
         verify(anotacaoService, times(1)).findById(1L);
+        verify(anotacaoService, never()).findVersao(any(), any());
+    }
+
+    @Test
+    void deveResponderNotModifiedSemCarregarAnotacaoQuandoEtagConferir() {
+        when(anotacaoService.findVersao(1L, 2L)).thenReturn(3L);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/anotacoes/1");
+        request.addHeader("If-None-Match", "\"1-3\"");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        AnotacaoResponseDTO resultado = anotacaoController.findById(1L, 2L, new ServletWebRequest(request, response));
+
+        assertNull(resultado);
+        assertEquals(304, response.getStatus());
+        verify(anotacaoService, never()).findById(any());
+    }
+
+    @Test
+    void etagDeAnotacaoDeOutroUsuario_deveResponderNotFoundEmVezDeNotModified() {
+        when(anotacaoService.findVersao(1L, 3L)).thenThrow(
+                new ResponseStatusException(HttpStatus.NOT_FOUND, "Anotação não encontrada"));
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/anotacoes/1");
+        request.addHeader("If-None-Match", "\"1-0\"");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        ResponseStatusException ex = assertThrows(ResponseStatusException.class,
+                () -> anotacaoController.findById(1L, 3L, new ServletWebRequest(request, response)));
+        assertEquals(HttpStatus.NOT_FOUND, ex.getStatusCode());
+        assertNotEquals(304, response.getStatus());
+    }
+
+    @Test
+    void deveRetornarAnotacaoQuandoEtagEstiverDesatualizada() {
+        when(anotacaoService.findVersao(1L, 2L)).thenReturn(0L);
+        when(anotacaoService.findById(1L)).thenReturn(anotacao);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/anotacoes/1");
+        request.addHeader("If-None-Match", "\"1-2\"");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        AnotacaoResponseDTO resultado = anotacaoController.findById(1L, 2L, new ServletWebRequest(request, response));
+
+        assertEquals(anotacao, resultado);
+        assertEquals(200, response.getStatus());
+        assertEquals("\"1-0\"", response.getHeader("ETag"));
+    }
+
+    @Test
+    void deveResponderNotFoundQuandoAnotacaoForDeOutroUsuario() {
+        when(anotacaoService.findById(1L)).thenReturn(anotacao);
+
+        ResponseStatusException ex = assertThrows(ResponseStatusException.class, () -> anotacaoController.findById(
+                1L, 3L, new ServletWebRequest(new MockHttpServletRequest("GET", "/anotacoes/1"),
+                        new MockHttpServletResponse())));
+        assertEquals(HttpStatus.NOT_FOUND, ex.getStatusCode());
     }
 
     @Test
-    void deveCriarNovaAnotacao() {
+    void deveCriarNovaAnotacaoParaOUsuarioDoToken() {
+        anotacaoDTO.setUsuarioId(9L);
         when(anotacaoService.save(anotacaoDTO)).thenReturn(anotacao);
 
-        Anotacao resultado = anotacaoController.create(anotacaoDTO);
+        AnotacaoResponseDTO resultado = anotacaoController.create(anotacaoDTO, 2L);
 
         assertEquals(anotacao, resultado);
+        assertEquals(2L, anotacaoDTO.getUsuarioId());
         verify(anotacaoService, times(1)).save(anotacaoDTO);
     }
 
+    @Test
+    void deveCriarAnotacoesEmLote() {
+        List<AnotacaoDTO> dtos = List.of(anotacaoDTO, anotacaoDTO);
+        when(anotacaoService.saveAll(dtos)).thenReturn(List.of(1L, 2L));
+
+        List<Long> resultado = anotacaoController.createAll(dtos, 2L);
+
+        assertEquals(List.of(1L, 2L), resultado);
+        verify(anotacaoService, times(1)).saveAll(dtos);
+    }
+
     @Test
     void deveAtualizarAnotacao() {
         when(anotacaoService.update(1L, anotacaoDTO)).thenReturn(anotacao);
 
-        Anotacao resultado = anotacaoController.update(1L, anotacaoDTO);
+        AnotacaoResponseDTO resultado = anotacaoController.update(1L, anotacaoDTO, 2L);
 
         assertEquals(anotacao, resultado);
+        assertEquals(2L, anotacaoDTO.getUsuarioId());
         verify(anotacaoService, times(1)).update(1L, anotacaoDTO);
     }
 
+    @Test
+    void deveAplicarPatchERetornarSomenteANovaVersao() {
+        PatchAnotacaoDTO patch = new PatchAnotacaoDTO(3L, null, List.of(new OperacaoTextoDTO(0, 1, "x")));
+        when(anotacaoService.patch(1L, 2L, patch)).thenReturn(new VersaoDTO(1L, 4L));
+
+        ResponseEntity<VersaoDTO> resultado = anotacaoController.patch(1L, patch, 2L);
+
+        assertEquals(new VersaoDTO(1L, 4L), resultado.getBody());
+        assertEquals("\"1-4\"", resultado.getHeaders().getETag());
+    }
+
+    @Test
+    void deveDeletarAnotacoesEmLote() {
+        when(anotacaoService.deleteAll(1L, List.of(2L, 3L))).thenReturn(2);
+
+        ResultadoLoteDTO resultado = anotacaoController.deleteAll(List.of(2L, 3L), 1L);
+
+        assertEquals(2, resultado.afetadas());
+    }
+
     @Test
     void deveDeletarAnotacao() {
-        anotacaoController.deleteById(1L);
-        verify(anotacaoService, times(1)).deleteById(1L);
+        anotacaoController.deleteById(1L, 2L);
+        verify(anotacaoService, times(1)).deleteById(1L, 2L);
     }
 }
@@ -0,0 +1,112 @@
+package com.ifsp.app.controller;
+
+import com.ifsp.app.service.Tokens;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AutenticacaoFilterTest {
+
+    private final Tokens tokens = new Tokens(Base64.getEncoder().encodeToString(new byte[32]), Duration.ofHours(1));
+    private final AutenticacaoFilter filtro = new AutenticacaoFilter(tokens);
+
+    @Test
+    void deveDeixarOUsuarioDoTokenNaRequisicao() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("PUT", "/anotacoes/1");
+        request.addHeader("Authorization", "Bearer " + tokens.emitir(7L).valor());
+        MockFilterChain chain = new MockFilterChain();
+
+        filtro.doFilter(request, new MockHttpServletResponse(), chain);
+
+        assertEquals(7L, request.getAttribute(AutenticacaoFilter.USUARIO));
+        assertNotNull(chain.getRequest());
+    }
+
+    @Test
+    void semToken_deveResponderUnauthorized() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+
+        filtro.doFilter(new MockHttpServletRequest("GET", "/anotacoes/1"), response, chain);
+
+        assertEquals(401, response.getStatus());
+        assertEquals("Bearer", response.getHeader("WWW-Authenticate"));
+        assertNull(chain.getRequest());
+    }
+
+    @Test
+    void rotaDeOutroUsuario_deveResponderForbidden() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/usuarios/8/anotacoes");
+        request.addHeader("Authorization", "Bearer " + tokens.emitir(7L).valor());
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+
+        filtro.doFilter(request, response, chain);
+
+        assertEquals(403, response.getStatus());
+        assertNull(chain.getRequest());
+    }
+
+    @Test
+    void idCodificadoOuComSinal_deveResponderForbidden() throws Exception {
+        for (String caminho : new String[]{"/usuarios/+8", "/usuarios/%38/changes", "/usuarios/8;x/export"}) {
+            MockHttpServletRequest request = new MockHttpServletRequest("DELETE", caminho);
+            request.addHeader("Authorization", "Bearer " + tokens.emitir(7L).valor());
+            MockHttpServletResponse response = new MockHttpServletResponse();
+            MockFilterChain chain = new MockFilterChain();
+
+            filtro.doFilter(request, response, chain);
+
+            assertEquals(403, response.getStatus(), caminho);
+            assertNull(chain.getRequest());
+        }
+    }
+
+    @Test
+    void eventos_devemAceitarTokenNoParametro() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/usuarios/7/events");
+        request.setParameter("token", tokens.emitir(7L).valor());
+        MockFilterChain chain = new MockFilterChain();
+
+        filtro.doFilter(request, new MockHttpServletResponse(), chain);
+
+        assertEquals(7L, request.getAttribute(AutenticacaoFilter.USUARIO));
+    }
+
+    @Test
+    void loginECadastro_naoDevemExigirToken() throws Exception {
+        for (String caminho : new String[]{"/usuarios/login", "/usuarios"}) {
+            MockFilterChain chain = new MockFilterChain();
+            MockHttpServletResponse response = new MockHttpServletResponse();
+
+            filtro.doFilter(new MockHttpServletRequest("POST", caminho), response, chain);
+
+            assertEquals(200, response.getStatus());
+            assertNotNull(chain.getRequest());
+        }
+    }
+
+    @Test
+    void sondasDeSaude_naoDevemExigirTokenMasMetricasSim() throws Exception {
+        for (String caminho : new String[]{"/livez", "/readyz", "/actuator/health"}) {
+            MockFilterChain chain = new MockFilterChain();
+
+            filtro.doFilter(new MockHttpServletRequest("GET", caminho), new MockHttpServletResponse(), chain);
+
+            assertNotNull(chain.getRequest(), caminho);
+        }
+        for (String caminho : new String[]{"/actuator/metrics", "/actuator/prometheus"}) {
+            MockHttpServletResponse response = new MockHttpServletResponse();
+
+            filtro.doFilter(new MockHttpServletRequest("GET", caminho), response, new MockFilterChain());
+
+            assertEquals(401, response.getStatus(), caminho);
+        }
+    }
+}
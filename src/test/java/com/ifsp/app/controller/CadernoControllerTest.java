@@ -1,13 +1,23 @@
 package com.ifsp.app.controller;
 
+import com.ifsp.app.controller.dto.AnotacaoResumoDTO;
 import com.ifsp.app.controller.dto.CadernoDTO;
-import com.ifsp.app.model.Caderno;
+import com.ifsp.app.controller.dto.CadernoResponseDTO;
+import com.ifsp.app.controller.dto.MoverAnotacoesDTO;
+import com.ifsp.app.controller.dto.PaginaDTO;
+import com.ifsp.app.controller.dto.ResultadoLoteDTO;
+import com.ifsp.app.service.AnotacaoService;
 import com.ifsp.app.service.CadernoService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.util.List;
 
@@ -19,46 +29,109 @@ class CadernoControllerTest {
     @Mock
     private CadernoService cadernoService;
 
+    @Mock
+    private AnotacaoService anotacaoService;
+
     @InjectMocks
     private CadernoController cadernoController;
 
-    private Caderno caderno;
+    private CadernoResponseDTO caderno;
     private CadernoDTO cadernoDTO;
 
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
-        caderno = new Caderno();
+        caderno = new CadernoResponseDTO(1L, 0L, "C", 2L);
         cadernoDTO = new CadernoDTO();
     }
 
     @Test
-    void deveListarTodosCadernos() {
-        when(cadernoService.findAll()).thenReturn(List.of(caderno));
+    void deveListarPaginaDeCadernos() {
+        when(cadernoService.findPageByUsuario(2L, 10L, 20)).thenReturn(new PaginaDTO<>(List.of(caderno), 11L));
 
-        List<Caderno> resultado = cadernoController.findAll();
+        PaginaDTO<CadernoResponseDTO> resultado = cadernoController.findAll(10L, 20, 2L);
 
-        assertEquals(1, resultado.size());
-        verify(cadernoService, times(1)).findAll();
+        assertEquals(1, resultado.itens().size());
+        assertEquals(11L, resultado.proximoCursor());
+        verify(cadernoService, times(1)).findPageByUsuario(2L, 10L, 20);
     }
 
     @Test
     void deveBuscarCadernoPorId() {
         when(cadernoService.findById(1L)).thenReturn(caderno);
 
-        Caderno resultado = cadernoController.findById(1L);
+        CadernoResponseDTO resultado = cadernoController.findById(1L, 2L, new ServletWebRequest(
+                new MockHttpServletRequest("GET", "/cadernos/1"), new MockHttpServletResponse()));
 
         assertEquals(caderno, resultado);
         verify(cadernoService, times(1)).findById(1L);
     }
 
+    @Test
+    void deveResponderNotFoundQuandoCadernoForDeOutroUsuario() {
+        when(cadernoService.findById(1L)).thenReturn(caderno);
+
+        ResponseStatusException ex = assertThrows(ResponseStatusException.class, () -> cadernoController.findById(
+                1L, 3L, new ServletWebRequest(new MockHttpServletRequest("GET", "/cadernos/1"),
+                        new MockHttpServletResponse())));
+        assertEquals(HttpStatus.NOT_FOUND, ex.getStatusCode());
+    }
+
+    @Test
+    void deveResponderNotModifiedSemCarregarCadernoQuandoEtagConferir() {
+        when(cadernoService.findVersao(1L, 2L)).thenReturn(5L);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/cadernos/1");
+        request.addHeader("If-None-Match", "\"1-5\"");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        assertNull(cadernoController.findById(1L, 2L, new ServletWebRequest(request, response)));
+        assertEquals(304, response.getStatus());
+        verify(cadernoService, never()).findById(any());
+    }
+
+    @Test
+    void etagDeCadernoDeOutroUsuario_deveResponderNotFoundEmVezDeNotModified() {
+        when(cadernoService.findVersao(1L, 3L)).thenThrow(
+                new ResponseStatusException(HttpStatus.NOT_FOUND, "Caderno não encontrado"));
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/cadernos/1");
+        request.addHeader("If-None-Match", "\"1-5\"");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        ResponseStatusException ex = assertThrows(ResponseStatusException.class,
+                () -> cadernoController.findById(1L, 3L, new ServletWebRequest(request, response)));
+        assertEquals(HttpStatus.NOT_FOUND, ex.getStatusCode());
+        assertNotEquals(304, response.getStatus());
+    }
+
+    @Test
+    void deveListarAnotacoesDoCaderno() {
+        AnotacaoResumoDTO anotacao = new AnotacaoResumoDTO(3L, "T", 2L, 1L);
+        when(anotacaoService.findPageByCaderno(1L, 2L, null, 50)).thenReturn(new PaginaDTO<>(List.of(anotacao), null));
+
+        PaginaDTO<AnotacaoResumoDTO> resultado = cadernoController.findAnotacoes(1L, null, 50, 2L);
+
+        assertEquals(List.of(anotacao), resultado.itens());
+        verify(anotacaoService, times(1)).findPageByCaderno(1L, 2L, null, 50);
+    }
+
+    @Test
+    void deveMoverAnotacoesDoUsuarioDoToken() {
+        when(anotacaoService.moveAll(1L, 2L, List.of(3L, 4L))).thenReturn(2);
+
+        ResultadoLoteDTO resultado = cadernoController.moveAnotacoes(1L, new MoverAnotacoesDTO(List.of(3L, 4L)), 2L);
+
+        assertEquals(2, resultado.afetadas());
+        verify(anotacaoService, times(1)).moveAll(1L, 2L, List.of(3L, 4L));
+    }
+
     @Test
     void deveCriarNovoCaderno() {
         when(cadernoService.save(cadernoDTO)).thenReturn(caderno);
 
-        Caderno resultado = cadernoController.create(cadernoDTO);
+        CadernoResponseDTO resultado = cadernoController.create(cadernoDTO, 2L);
 
         assertEquals(caderno, resultado);
+        assertEquals(2L, cadernoDTO.getUsuarioId());
         verify(cadernoService, times(1)).save(cadernoDTO);
     }
 
@@ -66,7 +139,7 @@ class CadernoControllerTest {
     void deveAtualizarCaderno() {
         when(cadernoService.update(1L, cadernoDTO)).thenReturn(caderno);
 
-        Caderno resultado = cadernoController.update(1L, cadernoDTO);
+        CadernoResponseDTO resultado = cadernoController.update(1L, cadernoDTO, 2L);
 
         assertEquals(caderno, resultado);
         verify(cadernoService, times(1)).update(1L, cadernoDTO);
@@ -74,7 +147,7 @@ class CadernoControllerTest {
 
     @Test
     void deveDeletarCaderno() {
-        cadernoController.deleteById(1L);
-        verify(cadernoService, times(1)).deleteById(1L);
+        cadernoController.deleteById(1L, 2L);
+        verify(cadernoService, times(1)).deleteById(1L, 2L);
     }
 }
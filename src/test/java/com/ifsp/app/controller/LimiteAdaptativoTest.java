@@ -0,0 +1,70 @@
+package com.ifsp.app.controller;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LimiteAdaptativoTest {
+
+    private static final long RAPIDA = 10_000_000L;
+    private static final long LENTA = 100_000_000L;
+
+    @Test
+    void comLatenciaEstavelEUsoNoLimite_deveCrescerAteOMaximo() {
+        LimiteAdaptativo limite = new LimiteAdaptativo(20, 4, 50);
+
+        for (int i = 0; i < 500; i++) {
+            limite.amostrar(RAPIDA, limite.limite(), false);
+        }
+
+        assertEquals(50, limite.limite());
+    }
+
+    @Test
+    void quandoLatenciaSobe_deveEncolherAteOMinimoERecuperarDepois() {
+        LimiteAdaptativo limite = new LimiteAdaptativo(20, 4, 50);
+        for (int i = 0; i < 500; i++) {
+            limite.amostrar(RAPIDA, limite.limite(), false);
+        }
+
+        for (int i = 0; i < 200; i++) {
+            limite.amostrar(LENTA, limite.limite(), false);
+        }
+        assertEquals(4, limite.limite());
+
+        for (int i = 0; i < 1000; i++) {
+            limite.amostrar(RAPIDA, limite.limite(), false);
+        }
+        assertEquals(50, limite.limite());
+    }
+
+    @Test
+    void semUsoPertoDoLimite_naoDeveCrescer() {
+        LimiteAdaptativo limite = new LimiteAdaptativo(20, 4, 50);
+
+        for (int i = 0; i < 500; i++) {
+            limite.amostrar(RAPIDA, 2, false);
+        }
+
+        assertEquals(20, limite.limite());
+    }
+
+    @Test
+    void falhas_devemCortarOLimite() {
+        LimiteAdaptativo limite = new LimiteAdaptativo(20, 4, 50);
+
+        limite.amostrar(RAPIDA, 20, true);
+        assertEquals(18, limite.limite());
+
+        for (int i = 0; i < 50; i++) {
+            limite.amostrar(RAPIDA, 20, true);
+        }
+        assertEquals(4, limite.limite());
+    }
+
+    @Test
+    void construtor_quandoInicialForaDosLimites_deveFalhar() {
+        assertThrows(IllegalStateException.class, () -> new LimiteAdaptativo(2, 4, 50));
+        assertThrows(IllegalStateException.class, () -> new LimiteAdaptativo(60, 4, 50));
+    }
+}
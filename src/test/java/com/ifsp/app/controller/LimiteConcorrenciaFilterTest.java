@@ -0,0 +1,118 @@
+package com.ifsp.app.controller;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static com.ifsp.app.controller.LimiteConcorrenciaFilter.Prioridade.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class LimiteConcorrenciaFilterTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final LimiteConcorrenciaFilter filtro = new LimiteConcorrenciaFilter(new LimiteAdaptativo(4, 4, 4),
+            registry);
+
+    @Test
+    void prioridade_deveSepararLeiturasPontuaisDeEscritasEVarreduras() {
+        assertEquals(LEITURA, LimiteConcorrenciaFilter.prioridade("GET", "/anotacoes/1"));
+        assertEquals(LEITURA, LimiteConcorrenciaFilter.prioridade("GET", "/usuarios/1/changes"));
+        assertEquals(VARREDURA, LimiteConcorrenciaFilter.prioridade("GET", "/anotacoes"));
+        assertEquals(VARREDURA, LimiteConcorrenciaFilter.prioridade("GET", "/anotacoes/search"));
+        assertEquals(VARREDURA, LimiteConcorrenciaFilter.prioridade("GET", "/usuarios/1/anotacoes"));
+        assertEquals(ESCRITA, LimiteConcorrenciaFilter.prioridade("POST", "/anotacoes"));
+        assertEquals(ESCRITA, LimiteConcorrenciaFilter.prioridade("PUT", "/anotacoes/1"));
+        assertEquals(VARREDURA, LimiteConcorrenciaFilter.prioridade("POST", "/anotacoes/bulk"));
+        assertEquals(VARREDURA, LimiteConcorrenciaFilter.prioridade("DELETE", "/anotacoes"));
+    }
+
+    @Test
+    void sobCarga_deveRecusarVarredurasAntesDasLeituras() throws Exception {
+        Map<String, Integer> status = new HashMap<>();
+        // Três requisições em andamento: com limite 4, varreduras (75%) já não cabem e leituras ainda cabem.
+        emAndamento(3, (req, res) -> {
+            status.put("varredura", executar("GET", "/anotacoes", new MockFilterChain()).getStatus());
+            status.put("leitura", executar("GET", "/anotacoes/1", new MockFilterChain()).getStatus());
+        });
+
+        assertEquals(503, status.get("varredura"));
+        assertEquals(200, status.get("leitura"));
+        assertEquals(1, registry.get(LimiteConcorrenciaFilter.METRICA).tag("prioridade", "varredura").counter()
+                .count());
+        assertEquals(0, registry.get("anote.concorrencia.em-voo").gauge().value());
+    }
+
+    @Test
+    void recusada_deveResponderNaHoraComRetryAfter() throws Exception {
+        MockHttpServletResponse[] recusada = new MockHttpServletResponse[1];
+        emAndamento(4, (req, res) -> recusada[0] = executar("GET", "/anotacoes/2", new MockFilterChain()));
+
+        assertEquals(503, recusada[0].getStatus());
+        assertEquals("1", recusada[0].getHeader("Retry-After"));
+    }
+
+    @Test
+    void eventosEActuator_naoDevemContar() throws Exception {
+        FilterChain dentro = (req, res) -> assertEquals(0, registry.get("anote.concorrencia.em-voo").gauge().value());
+
+        executar("GET", "/usuarios/1/events", dentro);
+        executar("GET", "/actuator/health", dentro);
+    }
+
+    @Test
+    void respostas503DaAplicacao_naoDevemReduzirOLimite() throws Exception {
+        LimiteAdaptativo adaptativo = new LimiteAdaptativo(20, 4, 200);
+        LimiteConcorrenciaFilter isolado = new LimiteConcorrenciaFilter(adaptativo, new SimpleMeterRegistry());
+
+        isolado.doFilter(new MockHttpServletRequest("POST", "/usuarios/login"), new MockHttpServletResponse(),
+                (req, res) -> ((HttpServletResponse) res).sendError(503));
+        assertEquals(20, adaptativo.limite());
+
+        isolado.doFilter(new MockHttpServletRequest("GET", "/anotacoes/1"), new MockHttpServletResponse(),
+                (req, res) -> ((HttpServletResponse) res).sendError(500));
+        assertEquals(18, adaptativo.limite());
+    }
+
+    @Test
+    void streaming_deveSegurarAVagaAteTerminar() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/usuarios/1/export");
+        request.setAsyncSupported(true);
+
+        filtro.doFilter(request, new MockHttpServletResponse(), (req, res) -> req.startAsync());
+        assertEquals(1, registry.get("anote.concorrencia.em-voo").gauge().value());
+
+        request.getAsyncContext().complete();
+        assertEquals(0, registry.get("anote.concorrencia.em-voo").gauge().value());
+    }
+
+    // Executa a cadeia com n leituras em andamento, uma dentro da outra.
+    private void emAndamento(int n, FilterChain chain) {
+        FilterChain atual = chain;
+        for (int i = 0; i < n; i++) {
+            FilterChain dentro = atual;
+            atual = (req, res) -> executar("GET", "/anotacoes/1", dentro);
+        }
+        try {
+            atual.doFilter(new MockHttpServletRequest(), new MockHttpServletResponse());
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private MockHttpServletResponse executar(String metodo, String caminho, FilterChain chain) {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        try {
+            filtro.doFilter(new MockHttpServletRequest(metodo, caminho), response, chain);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+        return response;
+    }
+}
@@ -0,0 +1,113 @@
+package com.ifsp.app.controller;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LimiteTaxaFilterTest {
+
+    private final AtomicLong relogio = new AtomicLong(-5_000);
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final LimiteTaxaFilter filtro = new LimiteTaxaFilter(10, 5, 4, 1,
+            "GET /anotacoes=5, GET /usuarios/*/export=50", 3, registry, relogio::get);
+
+    @Test
+    void deveRecusarAlemDaCapacidadeComRetryAfter() throws Exception {
+        for (int i = 0; i < 10; i++) {
+            assertEquals(200, requisitar("GET", "/anotacoes/1", 7L).getStatus());
+        }
+
+        MockHttpServletResponse recusada = requisitar("GET", "/anotacoes/1", 7L);
+
+        assertEquals(429, recusada.getStatus());
+        assertEquals("1", recusada.getHeader("Retry-After"));
+        assertEquals(1, registry.get(LimiteTaxaFilter.METRICA).tag("tipo", "usuario").tag("rota", "outras")
+                .counter().count());
+    }
+
+    @Test
+    void deveReporFichasComOTempo() throws Exception {
+        for (int i = 0; i < 10; i++) {
+            requisitar("GET", "/anotacoes/1", 7L);
+        }
+        relogio.addAndGet(TimeUnit.MILLISECONDS.toNanos(400));
+
+        assertEquals(200, requisitar("GET", "/anotacoes/1", 7L).getStatus());
+        assertEquals(200, requisitar("GET", "/anotacoes/1", 7L).getStatus());
+        assertEquals(429, requisitar("GET", "/anotacoes/1", 7L).getStatus());
+    }
+
+    @Test
+    void listagemCompletaDeveCustarMais() throws Exception {
+        assertEquals(200, requisitar("GET", "/anotacoes", 7L).getStatus());
+        assertEquals(200, requisitar("GET", "/anotacoes", 7L).getStatus());
+
+        MockHttpServletResponse recusada = requisitar("GET", "/anotacoes", 7L);
+
+        assertEquals(429, recusada.getStatus());
+        assertEquals(1, registry.get(LimiteTaxaFilter.METRICA).tag("rota", "GET /anotacoes").counter().count());
+        assertEquals(200, requisitar("GET", "/anotacoes", 8L).getStatus());
+    }
+
+    @Test
+    void custoAcimaDaCapacidadeDevePassarComBaldeCheio() throws Exception {
+        assertEquals(200, requisitar("GET", "/usuarios/7/export", 7L).getStatus());
+        assertEquals(429, requisitar("GET", "/anotacoes/1", 7L).getStatus());
+    }
+
+    @Test
+    void semUsuarioDeveLimitarPorIp() throws Exception {
+        for (int i = 0; i < 4; i++) {
+            assertEquals(200, requisitar("POST", "/usuarios/login", null).getStatus());
+        }
+        MockHttpServletResponse recusada = requisitar("POST", "/usuarios/login", null);
+
+        assertEquals(429, recusada.getStatus());
+        assertEquals("1", recusada.getHeader("Retry-After"));
+        assertEquals(1, registry.get(LimiteTaxaFilter.METRICA).tag("tipo", "ip").counter().count());
+    }
+
+    @Test
+    void deveDescartarBaldesCheiosENaoPassarDoLimiteDeChaves() throws Exception {
+        for (long usuario = 1; usuario <= 5; usuario++) {
+            requisitar("GET", "/anotacoes/1", usuario);
+        }
+        assertEquals(3, filtro.baldes());
+
+        relogio.addAndGet(TimeUnit.MINUTES.toNanos(1));
+        requisitar("GET", "/anotacoes/1", 9L);
+
+        assertEquals(1, filtro.baldes());
+    }
+
+    @Test
+    void chavesAlemDoLimiteNaoDevemDividirUmUnicoBalde() throws Exception {
+        for (long usuario = 1; usuario <= 3; usuario++) {
+            requisitar("GET", "/anotacoes/1", usuario);
+        }
+        for (int i = 0; i < 10; i++) {
+            requisitar("GET", "/anotacoes/1", 4L);
+        }
+
+        assertEquals(429, requisitar("GET", "/anotacoes/1", 4L).getStatus());
+        assertEquals(200, requisitar("GET", "/anotacoes/1", 5L).getStatus());
+        assertEquals(3, filtro.baldes());
+    }
+
+    private MockHttpServletResponse requisitar(String metodo, String caminho, Long usuarioId) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest(metodo, caminho);
+        if (usuarioId != null) {
+            request.setAttribute(AutenticacaoFilter.USUARIO, usuarioId);
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filtro.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+}
@@ -0,0 +1,83 @@
+package com.ifsp.app.controller;
+
+import com.ifsp.app.service.AlteracaoService;
+import com.ifsp.app.service.AnotacaoService;
+import com.ifsp.app.service.CadernoService;
+import com.ifsp.app.service.DistribuidorEventos;
+import com.ifsp.app.service.ExportacaoService;
+import com.ifsp.app.service.ImportacaoService;
+import com.ifsp.app.service.Tokens;
+import com.ifsp.app.service.UsuarioService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.server.ResponseStatusException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class UsuarioControllerTest {
+
+    @Mock
+    private UsuarioService usuarioService;
+
+    @Mock
+    private AnotacaoService anotacaoService;
+
+    @Mock
+    private CadernoService cadernoService;
+
+    @Mock
+    private ExportacaoService exportacaoService;
+
+    @Mock
+    private ImportacaoService importacaoService;
+
+    @Mock
+    private AlteracaoService alteracaoService;
+
+    @Mock
+    private DistribuidorEventos distribuidorEventos;
+
+    @Mock
+    private Tokens tokens;
+
+    @InjectMocks
+    private UsuarioController usuarioController;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    @Test
+    void deveExcluirOProprioUsuario() {
+        usuarioController.deleteById(7L, 7L);
+
+        verify(usuarioService, times(1)).deleteById(7L);
+    }
+
+    @Test
+    void outroUsuario_deveResponderForbidden() {
+        ResponseStatusException excecao = assertThrows(ResponseStatusException.class,
+                () -> usuarioController.deleteById(5L, 7L));
+
+        assertEquals(HttpStatus.FORBIDDEN, excecao.getStatusCode());
+        verify(usuarioService, never()).deleteById(anyLong());
+    }
+
+    @Test
+    void outroUsuario_naoDeveExportarNemConsultarVersao() {
+        ServletWebRequest request = new ServletWebRequest(new MockHttpServletRequest());
+
+        assertThrows(ResponseStatusException.class, () -> usuarioController.export(5L, 7L));
+        assertThrows(ResponseStatusException.class, () -> usuarioController.findById(5L, 7L, request));
+
+        verifyNoInteractions(exportacaoService, usuarioService);
+    }
+}
@@ -0,0 +1,63 @@
+package com.ifsp.app.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CorpoCodecTest {
+
+    @Test
+    void codificar_quandoCorpoForPequeno_deveGravarUtf8Puro() {
+        byte[] conteudo = CorpoCodec.codificar("lista de compras: pão");
+
+        assertArrayEquals("lista de compras: pão".getBytes(StandardCharsets.UTF_8), conteudo);
+        assertFalse(CorpoCodec.comprimido(conteudo));
+    }
+
+    @Test
+    void codificar_quandoCorpoForGrande_deveComprimirEDecodificarIgual() {
+        String corpo = "Reunião de planejamento: revisar orçamento e metas do trimestre.\n".repeat(100);
+
+        byte[] conteudo = CorpoCodec.codificar(corpo);
+
+        assertTrue(CorpoCodec.comprimido(conteudo));
+        assertTrue(conteudo.length < corpo.getBytes(StandardCharsets.UTF_8).length / 3);
+        assertEquals(corpo, CorpoCodec.decodificar(conteudo));
+    }
+
+    @Test
+    void codificar_quandoCompressaoNaoReduzir_deveGravarUtf8Puro() {
+        byte[] aleatorio = new byte[4_000];
+        new Random(42).nextBytes(aleatorio);
+        String corpo = new String(aleatorio, StandardCharsets.ISO_8859_1);
+
+        byte[] conteudo = CorpoCodec.codificar(corpo);
+
+        assertFalse(CorpoCodec.comprimido(conteudo));
+        assertEquals(corpo, CorpoCodec.decodificar(conteudo));
+    }
+
+    @Test
+    void decodificar_quandoLinhaAntigaSemCabecalho_deveLerComoUtf8() {
+        String corpo = "texto antigo ".repeat(100);
+
+        assertEquals(corpo, CorpoCodec.decodificar(corpo.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    void decodificar_quandoNulo_deveRetornarNulo() {
+        assertNull(CorpoCodec.decodificar(null));
+        assertNull(CorpoCodec.codificar(null));
+    }
+
+    @Test
+    void decodificar_quandoFormatoDesconhecido_deveLancar() {
+        byte[] conteudo = CorpoCodec.codificar("a".repeat(CorpoCodec.LIMIAR));
+        conteudo[1] = 9;
+
+        assertThrows(IllegalStateException.class, () -> CorpoCodec.decodificar(conteudo));
+    }
+}
@@ -0,0 +1,40 @@
+package com.ifsp.app.model.repository;
+
+import com.ifsp.app.model.enums.TipoAlteracao;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AlteracaoLoteRepositoryTest {
+
+    @Test
+    void mysql_deveUsarApelidoDeLinhaEmVezDeValues() {
+        String sql = AlteracaoLoteRepository.registrar("MySQL");
+
+        assertTrue(sql.contains("as novo on duplicate key update seq = novo.seq, removida = novo.removida"));
+        assertFalse(sql.contains("values(seq)"));
+        assertTrue(AlteracaoLoteRepository.registrar("MariaDB").contains("seq = values(seq)"));
+    }
+
+    @Test
+    void registrar_deveRegravarALinhaDaEntidadeComONovoNumero() {
+        JdbcTemplate jdbc = new JdbcTemplate(new DriverManagerDataSource(
+                "jdbc:h2:mem:alteracao;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1", "sa", ""));
+        jdbc.execute("create table alteracao_sequencia (usuario_id bigint primary key, valor bigint not null)");
+        jdbc.execute("create table alteracao (id bigint auto_increment primary key, usuario_id bigint not null, "
+                + "tipo varchar(16) not null, entidade_id bigint not null, seq bigint not null, "
+                + "removida boolean not null, unique (usuario_id, tipo, entidade_id))");
+        AlteracaoLoteRepository repository = new AlteracaoLoteRepository(jdbc);
+
+        assertEquals(2, repository.registrar(1L, TipoAlteracao.ANOTACAO, List.of(10L, 11L), false));
+        assertEquals(3, repository.registrar(1L, TipoAlteracao.ANOTACAO, List.of(10L), true));
+
+        assertEquals(List.of(2L, 3L),
+                jdbc.queryForList("select seq from alteracao order by seq", Long.class));
+        assertTrue(jdbc.queryForObject("select removida from alteracao where entidade_id = 10", Boolean.class));
+    }
+}
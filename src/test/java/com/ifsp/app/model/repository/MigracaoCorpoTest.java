@@ -0,0 +1,32 @@
+package com.ifsp.app.model.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MigracaoCorpoTest {
+
+    @Test
+    void mysql_deveConverterOCorpoParaUtf8AntesDeCopiar() {
+        assertTrue(MigracaoCorpo.migrar("MySQL").contains("conteudo = convert(corpo using utf8mb4)"));
+        assertTrue(MigracaoCorpo.migrar("MariaDB").contains("conteudo = convert(corpo using utf8mb4)"));
+    }
+
+    @Test
+    void deveMigrarCorpoComAcentosEmUtf8() {
+        JdbcTemplate jdbc = new JdbcTemplate(new DriverManagerDataSource(
+                "jdbc:h2:mem:migracao;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1", "sa", ""));
+        jdbc.execute("create table anotacao (id bigint primary key, corpo varchar(255), conteudo longblob)");
+        jdbc.update("insert into anotacao (id, corpo) values (1, ?)", "Reunião às 10h ☕");
+
+        new MigracaoCorpo(jdbc).afterSingletonsInstantiated();
+
+        byte[] conteudo = jdbc.queryForObject("select conteudo from anotacao where id = 1", byte[].class);
+        assertEquals("Reunião às 10h ☕", new String(conteudo, StandardCharsets.UTF_8));
+        assertNull(jdbc.queryForObject("select corpo from anotacao where id = 1", String.class));
+    }
+}
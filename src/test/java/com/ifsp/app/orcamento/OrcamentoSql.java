@@ -0,0 +1,43 @@
+package com.ifsp.app.orcamento;
+
+import com.ifsp.app.ContagemSqlConfig;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Executa uma requisição pela pilha inteira (filtros, controller, serviço, banco embutido) e confere quantos
+ * comandos SQL ela executou, pelo cabeçalho que {@link ContagemSqlConfig} preenche a partir do proxy do
+ * DataSource. Falha se a requisição não der 2xx/304 ou passar do orçamento declarado. Com {@code token}, as
+ * requisições saem autenticadas.
+ */
+public final class OrcamentoSql {
+
+    private final MockMvc mockMvc;
+    private final String token;
+
+    public OrcamentoSql(MockMvc mockMvc, String token) {
+        this.mockMvc = mockMvc;
+        this.token = token;
+    }
+
+    public MvcResult exigir(int orcamento, RequestBuilder requisicao) throws Exception {
+        if (token != null && requisicao instanceof MockHttpServletRequestBuilder http) {
+            http.header(HttpHeaders.AUTHORIZATION, "Bearer " + token);
+        }
+        MvcResult resultado = mockMvc.perform(requisicao).andReturn();
+        String descricao = resultado.getRequest().getMethod() + " " + resultado.getRequest().getRequestURI();
+        int status = resultado.getResponse().getStatus();
+        assertTrue(status / 100 == 2 || status == 304, descricao + " respondeu HTTP " + status);
+        String cabecalho = resultado.getResponse().getHeader(ContagemSqlConfig.CABECALHO);
+        assertNotNull(cabecalho, descricao + " sem o cabeçalho " + ContagemSqlConfig.CABECALHO);
+        int comandos = Integer.parseInt(cabecalho);
+        assertTrue(comandos <= orcamento,
+                descricao + " executou " + comandos + " comandos SQL (orçamento: " + orcamento + ")");
+        return resultado;
+    }
+}
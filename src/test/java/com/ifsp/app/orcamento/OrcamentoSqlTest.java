@@ -0,0 +1,170 @@
+package com.ifsp.app.orcamento;
+
+import com.ifsp.app.controller.dto.AnotacaoDTO;
+import com.ifsp.app.controller.dto.CadernoDTO;
+import com.ifsp.app.controller.dto.UsuarioDTO;
+import com.ifsp.app.service.AnotacaoService;
+import com.ifsp.app.service.CadernoService;
+import com.ifsp.app.service.ReferenciaCache;
+import com.ifsp.app.service.Tokens;
+import com.ifsp.app.service.UsuarioService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+
+/**
+ * Orçamento de comandos SQL por endpoint, contra o H2 do perfil {@code embedded}. Cada teste tem o seu usuário,
+ * caderno e anotações, sem nada deles no cache de referências, então os orçamentos são as contagens exatas com o
+ * cache frio: uma consulta a mais no caminho já reprova o endpoint.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("embedded")
+class OrcamentoSqlTest {
+
+    private static int fixtures;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UsuarioService usuarioService;
+
+    @Autowired
+    private CadernoService cadernoService;
+
+    @Autowired
+    private AnotacaoService anotacaoService;
+
+    @Autowired
+    private Tokens tokens;
+
+    @Autowired
+    private ReferenciaCache referenciaCache;
+
+    private OrcamentoSql orcamento;
+    private String email;
+    private Long usuarioId;
+    private Long cadernoId;
+    private Long anotacaoId;
+
+    @BeforeEach
+    void popular() {
+        email = "orcamento" + ++fixtures + "@anote.dev";
+        usuarioId = usuarioService.save(new UsuarioDTO("Orçamento", email, "senha")).id();
+        orcamento = new OrcamentoSql(mockMvc, tokens.emitir(usuarioId).valor());
+        cadernoId = cadernoService.save(new CadernoDTO("Caderno", usuarioId)).id();
+        for (int i = 0; i < 3; i++) {
+            anotacaoId = anotacaoService.save(new AnotacaoDTO("Anotação " + i, "corpo " + i, usuarioId, cadernoId))
+                    .id();
+        }
+        // Os saves acima aquecem o cache; os orçamentos contam as consultas de usuário e caderno.
+        referenciaCache.invalidarUsuario(usuarioId);
+    }
+
+    @Test
+    void login() throws Exception {
+        orcamento.exigir(1, json(post("/usuarios/login"), "{\"email\":\"" + email + "\",\"senha\":\"senha\"}"));
+    }
+
+    @Test
+    void buscarUsuario() throws Exception {
+        String etag = orcamento.exigir(1, get("/usuarios/{id}", usuarioId)).getResponse().getHeader(HttpHeaders.ETAG);
+        orcamento.exigir(1, get("/usuarios/{id}", usuarioId).header(HttpHeaders.IF_NONE_MATCH, etag));
+    }
+
+    @Test
+    void listarAnotacoesDoUsuario() throws Exception {
+        orcamento.exigir(1, get("/usuarios/{id}/anotacoes", usuarioId));
+    }
+
+    @Test
+    void listarCadernosDoUsuario() throws Exception {
+        orcamento.exigir(1, get("/usuarios/{id}/cadernos", usuarioId));
+    }
+
+    @Test
+    void listarAlteracoes() throws Exception {
+        // Usuário (fora do cache) e a página.
+        orcamento.exigir(2, get("/usuarios/{id}/changes", usuarioId));
+    }
+
+    @Test
+    void listarAnotacoes() throws Exception {
+        orcamento.exigir(1, get("/anotacoes"));
+    }
+
+    @Test
+    void buscarAnotacao() throws Exception {
+        orcamento.exigir(1, get("/anotacoes/{id}", anotacaoId));
+    }
+
+    @Test
+    void listarRevisoes() throws Exception {
+        // Dono da anotação e a página.
+        orcamento.exigir(2, get("/anotacoes/{id}/revisions", anotacaoId));
+    }
+
+    @Test
+    void listarCadernos() throws Exception {
+        orcamento.exigir(1, get("/cadernos"));
+    }
+
+    @Test
+    void buscarCaderno() throws Exception {
+        orcamento.exigir(1, get("/cadernos/{id}", cadernoId));
+        // Versão e, como não confere, o caderno.
+        orcamento.exigir(2, get("/cadernos/{id}", cadernoId).header(HttpHeaders.IF_NONE_MATCH, "\"desatualizada\""));
+    }
+
+    @Test
+    void listarAnotacoesDoCaderno() throws Exception {
+        // Dono do caderno (fora do cache) e a página.
+        orcamento.exigir(2, get("/cadernos/{id}/anotacoes", cadernoId));
+    }
+
+    @Test
+    void criarAnotacao() throws Exception {
+        // Usuário e caderno (2), insert e o registro de alteração (3).
+        orcamento.exigir(6, json(post("/anotacoes"), "{\"titulo\":\"Nova\",\"corpo\":\"texto\",\"usuarioId\":"
+                + usuarioId + ",\"cadernoId\":" + cadernoId + "}"));
+    }
+
+    @Test
+    void editarAnotacao() throws Exception {
+        // Anotação e corpo (2), caderno (1), update, última revisão, revisões 0 e 1 (2) e alteração (3).
+        orcamento.exigir(10, json(put("/anotacoes/{id}", anotacaoId), "{\"titulo\":\"Editada\",\"corpo\":\"depois\","
+                + "\"cadernoId\":" + cadernoId + "}"));
+    }
+
+    @Test
+    void excluirAnotacao() throws Exception {
+        // Dono, carga e delete da entidade, e alteração (3).
+        orcamento.exigir(6, delete("/anotacoes/{id}", anotacaoId));
+    }
+
+    @Test
+    void criarCaderno() throws Exception {
+        // Usuário, insert e alteração (3).
+        orcamento.exigir(5, json(post("/cadernos"), "{\"titulo\":\"Novo\",\"usuarioId\":" + usuarioId + "}"));
+    }
+
+    @Test
+    void editarCaderno() throws Exception {
+        // Caderno, update e alteração (3).
+        orcamento.exigir(5, json(put("/cadernos/{id}", cadernoId), "{\"titulo\":\"Renomeado\"}"));
+    }
+
+    private static MockHttpServletRequestBuilder json(MockHttpServletRequestBuilder requisicao, String corpo) {
+        return requisicao.contentType(MediaType.APPLICATION_JSON).content(corpo);
+    }
+}
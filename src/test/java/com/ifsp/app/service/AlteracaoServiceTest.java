@@ -0,0 +1,95 @@
+package com.ifsp.app.service;
+
+import com.ifsp.app.controller.dto.AlteracaoDTO;
+import com.ifsp.app.controller.dto.AlteracoesDTO;
+import com.ifsp.app.model.enums.TipoAlteracao;
+import com.ifsp.app.model.repository.AlteracaoLoteRepository;
+import com.ifsp.app.model.repository.AlteracaoRepository;
+import com.ifsp.app.model.repository.CadernoRepository;
+import com.ifsp.app.model.repository.UsuarioRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class AlteracaoServiceTest {
+
+    @Mock
+    private AlteracaoRepository alteracaoRepository;
+
+    @Mock
+    private AlteracaoLoteRepository alteracaoLoteRepository;
+
+    @Mock
+    private UsuarioRepository usuarioRepository;
+
+    @Mock
+    private CadernoRepository cadernoRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventos;
+
+    private AlteracaoService alteracaoService;
+
+    @BeforeEach
+    void setup() {
+        MockitoAnnotations.openMocks(this);
+        when(usuarioRepository.existsById(1L)).thenReturn(true);
+        alteracaoService = new AlteracaoService(alteracaoRepository, alteracaoLoteRepository,
+                new ReferenciaCache(usuarioRepository, cadernoRepository), eventos);
+    }
+
+    @Test
+    void findDesde_quandoHouverMais_deveDevolverCursorDoUltimoItem() {
+        AlteracaoDTO a = new AlteracaoDTO(11L, TipoAlteracao.ANOTACAO, 5L, false);
+        AlteracaoDTO b = new AlteracaoDTO(12L, TipoAlteracao.CADERNO, 2L, true);
+        AlteracaoDTO c = new AlteracaoDTO(15L, TipoAlteracao.ANOTACAO, 6L, false);
+        when(alteracaoRepository.findByUsuarioIdAndSeqGreaterThan(1L, 10L, Limit.of(3))).thenReturn(List.of(a, b, c));
+
+        AlteracoesDTO resultado = alteracaoService.findDesde(1L, 10L, 2);
+
+        assertEquals(List.of(a, b), resultado.alteracoes());
+        assertEquals(12L, resultado.cursor());
+        assertTrue(resultado.maisAlteracoes());
+    }
+
+    @Test
+    void findDesde_semAlteracoes_deveManterCursorRecebido() {
+        when(alteracaoRepository.findByUsuarioIdAndSeqGreaterThan(1L, 42L, Limit.of(101))).thenReturn(List.of());
+
+        AlteracoesDTO resultado = alteracaoService.findDesde(1L, 42L, 100);
+
+        assertTrue(resultado.alteracoes().isEmpty());
+        assertEquals(42L, resultado.cursor());
+        assertFalse(resultado.maisAlteracoes());
+    }
+
+    @Test
+    void registrar_devePublicarAlteracoesComOsSeqReservados() {
+        when(alteracaoLoteRepository.registrar(eq(1L), eq(TipoAlteracao.CADERNO), anyCollection(), eq(false)))
+                .thenReturn(21L);
+
+        alteracaoService.registrar(1L, TipoAlteracao.CADERNO, List.of(7L, 8L), false);
+
+        verify(eventos).publishEvent(new AlteracoesRegistradas(1L, List.of(
+                new AlteracaoDTO(20L, TipoAlteracao.CADERNO, 7L, false),
+                new AlteracaoDTO(21L, TipoAlteracao.CADERNO, 8L, false))));
+    }
+
+    @Test
+    void registrar_deveIgnorarIdsRepetidosELotesVazios() {
+        alteracaoService.registrar(1L, TipoAlteracao.ANOTACAO, List.of(3L, 4L, 3L), true);
+        alteracaoService.registrar(1L, TipoAlteracao.ANOTACAO, List.of(), true);
+
+        verify(alteracaoLoteRepository).registrar(eq(1L), eq(TipoAlteracao.ANOTACAO),
+                argThat(ids -> List.copyOf(ids).equals(List.of(3L, 4L))), eq(true));
+        verifyNoMoreInteractions(alteracaoLoteRepository);
+    }
+}
@@ -1,19 +1,35 @@
 package com.ifsp.app.service;
 
 import com.ifsp.app.controller.dto.AnotacaoDTO;
+import com.ifsp.app.controller.dto.AnotacaoResponseDTO;
+import com.ifsp.app.controller.dto.AnotacaoResumoDTO;
+import com.ifsp.app.controller.dto.OperacaoTextoDTO;
+import com.ifsp.app.controller.dto.PaginaDTO;
+import com.ifsp.app.controller.dto.PatchAnotacaoDTO;
+import com.ifsp.app.controller.dto.ResultadoBuscaDTO;
+import com.ifsp.app.controller.dto.VersaoDTO;
 import com.ifsp.app.model.Anotacao;
 import com.ifsp.app.model.Caderno;
 import com.ifsp.app.model.Usuario;
+import com.ifsp.app.model.enums.TipoAlteracao;
+import com.ifsp.app.model.repository.AnotacaoLoteRepository;
 import com.ifsp.app.model.repository.AnotacaoRepository;
+import com.ifsp.app.model.repository.CadernoDono;
 import com.ifsp.app.model.repository.CadernoRepository;
+import com.ifsp.app.model.repository.NovaAnotacao;
 import com.ifsp.app.model.repository.UsuarioRepository;
+import com.ifsp.app.service.busca.IndiceBusca;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.*;
+import org.springframework.data.domain.Limit;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -29,40 +45,106 @@ class AnotacaoServiceTest {
     @Mock
     private CadernoRepository cadernoRepository;
 
-    @InjectMocks
+    @Mock
+    private AnotacaoLoteRepository anotacaoLoteRepository;
+
+    @Mock
+    private IndiceBusca indiceBusca;
+
+    @Mock
+    private RevisaoService revisaoService;
+
+    @Mock
+    private AlteracaoService alteracaoService;
+
+    private ReferenciaCache referenciaCache;
+
     private AnotacaoService anotacaoService;
 
     @BeforeEach
     void setup() {
         MockitoAnnotations.openMocks(this);
+        referenciaCache = new ReferenciaCache(usuarioRepository, cadernoRepository);
+        anotacaoService = new AnotacaoService(anotacaoRepository, usuarioRepository, cadernoRepository,
+                anotacaoLoteRepository, indiceBusca, referenciaCache, revisaoService,
+                alteracaoService);
     }
 
     @Test
-    void findAll_deveRetornarLista() {
-        Anotacao a = new Anotacao();
-        when(anotacaoRepository.findAll()).thenReturn(List.of(a));
+    void findPageByUsuario_quandoUltimaPagina_deveRetornarSemCursor() {
+        AnotacaoResumoDTO a = new AnotacaoResumoDTO(1L, "T", 2L, null);
+        when(anotacaoRepository.findResumoByUsuarioIdAndIdGreaterThan(2L, 0L, Limit.of(11))).thenReturn(List.of(a));
 
-        List<Anotacao> resultado = anotacaoService.findAll();
+        PaginaDTO<AnotacaoResumoDTO> resultado = anotacaoService.findPageByUsuario(2L, null, 10);
 
         assertNotNull(resultado);
-        assertEquals(1, resultado.size());
-        verify(anotacaoRepository, times(1)).findAll();
+        assertEquals(1, resultado.itens().size());
+        assertNull(resultado.proximoCursor());
+        verify(anotacaoRepository, never()).findAll();
+    }
+
+    @Test
+    void findPageByUsuario_quandoHouverMais_deveRetornarCursorDoUltimoItem() {
+        AnotacaoResumoDTO a = new AnotacaoResumoDTO(6L, "a", 1L, null);
+        AnotacaoResumoDTO b = new AnotacaoResumoDTO(7L, "b", 1L, null);
+        AnotacaoResumoDTO c = new AnotacaoResumoDTO(8L, "c", 1L, null);
+        when(anotacaoRepository.findResumoByUsuarioIdAndIdGreaterThan(1L, 5L, Limit.of(3)))
+                .thenReturn(List.of(a, b, c));
+
+        PaginaDTO<AnotacaoResumoDTO> resultado = anotacaoService.findPageByUsuario(1L, 5L, 2);
+
+        assertEquals(List.of(a, b), resultado.itens());
+        assertEquals(7L, resultado.proximoCursor());
+    }
+
+    @Test
+    void findPageByUsuario_deveLimitarTamanhoDaPagina() {
+        when(anotacaoRepository.findResumoByUsuarioIdAndIdGreaterThan(anyLong(), anyLong(), any(Limit.class)))
+                .thenReturn(List.of());
+
+        anotacaoService.findPageByUsuario(1L, 0L, 100_000);
+
+        verify(anotacaoRepository).findResumoByUsuarioIdAndIdGreaterThan(1L, 0L, Limit.of(501));
+    }
+
+    @Test
+    void findPageByUsuario_deveConsultarSomenteAnotacoesDoUsuario() {
+        AnotacaoResumoDTO a = new AnotacaoResumoDTO(1L, "T", 3L, null);
+        when(anotacaoRepository.findResumoByUsuarioIdAndIdGreaterThan(3L, 0L, Limit.of(51)))
+                .thenReturn(List.of(a));
+
+        PaginaDTO<AnotacaoResumoDTO> resultado = anotacaoService.findPageByUsuario(3L, null, 50);
+
+        assertEquals(List.of(a), resultado.itens());
+        assertNull(resultado.proximoCursor());
+        verify(anotacaoRepository, never()).findAll();
     }
 
     @Test
-    void findById_quandoExistir_deveRetornar() {
-        Anotacao a = new Anotacao();
-        when(anotacaoRepository.findById(1L)).thenReturn(Optional.of(a));
+    void findPageByCaderno_deveConsultarSomenteAnotacoesDoCaderno() {
+        when(anotacaoRepository.findResumoByCadernoIdAndIdGreaterThan(4L, 9L, Limit.of(21)))
+                .thenReturn(List.of());
 
-        Anotacao resultado = anotacaoService.findById(1L);
+        PaginaDTO<AnotacaoResumoDTO> resultado = anotacaoService.findPageByCaderno(4L, null, 9L, 20);
+
+        assertTrue(resultado.itens().isEmpty());
+        verify(anotacaoRepository).findResumoByCadernoIdAndIdGreaterThan(4L, 9L, Limit.of(21));
+    }
+
+    @Test
+    void findById_quandoExistir_deveRetornarProjecaoSemCarregarEntidade() {
+        AnotacaoResponseDTO a = new AnotacaoResponseDTO(1L, 0L, "T", "B", 2L, 3L);
+        when(anotacaoRepository.findResponseById(1L)).thenReturn(Optional.of(a));
+
+        AnotacaoResponseDTO resultado = anotacaoService.findById(1L);
 
         assertSame(a, resultado);
-        verify(anotacaoRepository).findById(1L);
+        verify(anotacaoRepository, never()).findById(any());
     }
 
     @Test
     void findById_quandoNaoExistir_deveLancarNotFound() {
-        when(anotacaoRepository.findById(1L)).thenReturn(Optional.empty());
+        when(anotacaoRepository.findResponseById(1L)).thenReturn(Optional.empty());
 
         ResponseStatusException ex = assertThrows(ResponseStatusException.class,
                 () -> anotacaoService.findById(1L));
@@ -70,12 +152,30 @@ class AnotacaoServiceTest {
         assertTrue(ex.getReason().contains("Anotação não encontrada"));
     }
 
+    @Test
+    void findVersao_deveConsultarSomenteAVersao() {
+        when(anotacaoRepository.findVersaoByIdAndUsuarioId(1L, 2L)).thenReturn(Optional.of(4L));
+
+        assertEquals(4L, anotacaoService.findVersao(1L, 2L));
+        verify(anotacaoRepository, never()).findById(any());
+        verify(anotacaoRepository, never()).findResponseById(any());
+    }
+
+    @Test
+    void findVersao_quandoNaoExistirOuForDeOutroUsuario_deveLancarNotFound() {
+        when(anotacaoRepository.findVersaoByIdAndUsuarioId(1L, 3L)).thenReturn(Optional.empty());
+
+        ResponseStatusException ex = assertThrows(ResponseStatusException.class,
+                () -> anotacaoService.findVersao(1L, 3L));
+        assertEquals(org.springframework.http.HttpStatus.NOT_FOUND, ex.getStatusCode());
+    }
+
     @Test
     void save_quandoUsuarioENaoExistir_deveLancarNotFound() {
         AnotacaoDTO dto = new AnotacaoDTO();
         dto.setUsuarioId(1L);
 
-        when(usuarioRepository.findById(1L)).thenReturn(Optional.empty());
+        when(usuarioRepository.existsById(1L)).thenReturn(false);
 
         ResponseStatusException ex = assertThrows(ResponseStatusException.class,
                 () -> anotacaoService.save(dto));
@@ -83,7 +183,7 @@ class AnotacaoServiceTest {
         assertTrue(ex.getReason().contains("Usuário não encontrado"));
 
         verify(anotacaoRepository, never()).save(any());
-        verify(cadernoRepository, never()).findById(any());
+        verify(cadernoRepository, never()).findUsuarioIdById(any());
     }
 
     @Test
@@ -92,9 +192,8 @@ class AnotacaoServiceTest {
         dto.setUsuarioId(1L);
         dto.setCadernoId(2L);
 
-        Usuario usuario = new Usuario();
-        when(usuarioRepository.findById(1L)).thenReturn(Optional.of(usuario));
-        when(cadernoRepository.findById(2L)).thenReturn(Optional.empty());
+        when(usuarioRepository.existsById(1L)).thenReturn(true);
+        when(cadernoRepository.findUsuarioIdById(2L)).thenReturn(Optional.empty());
 
         ResponseStatusException ex = assertThrows(ResponseStatusException.class,
                 () -> anotacaoService.save(dto));
@@ -113,14 +212,17 @@ class AnotacaoServiceTest {
         dto.setCadernoId(null);
 
         Usuario usuario = new Usuario();
-        when(usuarioRepository.findById(1L)).thenReturn(Optional.of(usuario));
+        when(usuarioRepository.existsById(1L)).thenReturn(true);
+        when(usuarioRepository.getReferenceById(1L)).thenReturn(usuario);
 
         Anotacao saved = new Anotacao();
+        saved.setTitulo("T");
         when(anotacaoRepository.save(any(Anotacao.class))).thenReturn(saved);
 
-        Anotacao resultado = anotacaoService.save(dto);
+        AnotacaoResponseDTO resultado = anotacaoService.save(dto);
 
-        assertSame(saved, resultado);
+        assertEquals("T", resultado.titulo());
+        assertNull(resultado.cadernoId());
 
         ArgumentCaptor<Anotacao> captor = ArgumentCaptor.forClass(Anotacao.class);
         verify(anotacaoRepository).save(captor.capture());
@@ -130,7 +232,27 @@ class AnotacaoServiceTest {
         assertSame(usuario, capt.getUsuario());
         assertNull(capt.getCaderno());
 
-        verify(cadernoRepository, never()).findById(any());
+        verify(usuarioRepository, never()).findById(any());
+        verify(cadernoRepository, never()).findUsuarioIdById(any());
+        verify(indiceBusca).indexar(1L, saved.getId(), saved.getTitulo(), saved.getCorpo());
+    }
+
+    @Test
+    void search_deveConsultarIndiceDoUsuario() {
+        List<ResultadoBuscaDTO> esperado = List.of(new ResultadoBuscaDTO(1L, "T", 1.5));
+        when(indiceBusca.buscar(2L, "pao", 20)).thenReturn(esperado);
+
+        List<ResultadoBuscaDTO> resultado = anotacaoService.search(2L, "pao", 20);
+
+        assertSame(esperado, resultado);
+        verify(anotacaoRepository, never()).findAll();
+    }
+
+    @Test
+    void search_semUsuario_deveLancarBadRequest() {
+        ResponseStatusException ex = assertThrows(ResponseStatusException.class,
+                () -> anotacaoService.search(null, "pao", 20));
+        assertEquals(org.springframework.http.HttpStatus.BAD_REQUEST, ex.getStatusCode());
     }
 
     @Test
@@ -144,40 +266,201 @@ class AnotacaoServiceTest {
         Usuario usuario = new Usuario();
         Caderno caderno = new Caderno();
 
-        when(usuarioRepository.findById(1L)).thenReturn(Optional.of(usuario));
-        when(cadernoRepository.findById(2L)).thenReturn(Optional.of(caderno));
+        when(usuarioRepository.existsById(1L)).thenReturn(true);
+        when(usuarioRepository.getReferenceById(1L)).thenReturn(usuario);
+        when(cadernoRepository.findUsuarioIdById(2L)).thenReturn(Optional.of(1L));
+        when(cadernoRepository.getReferenceById(2L)).thenReturn(caderno);
         when(anotacaoRepository.save(any(Anotacao.class))).thenAnswer(i -> i.getArgument(0));
 
-        Anotacao resultado = anotacaoService.save(dto);
+        AnotacaoResponseDTO resultado = anotacaoService.save(dto);
 
         assertNotNull(resultado);
-        assertEquals("Titulo", resultado.getTitulo());
-        assertEquals("Corpo", resultado.getCorpo());
-        assertSame(usuario, resultado.getUsuario());
-        assertSame(caderno, resultado.getCaderno());
+        assertEquals("Titulo", resultado.titulo());
+        assertEquals("Corpo", resultado.corpo());
+
+        ArgumentCaptor<Anotacao> captor = ArgumentCaptor.forClass(Anotacao.class);
+        verify(anotacaoRepository).save(captor.capture());
+        assertSame(usuario, captor.getValue().getUsuario());
+        assertSame(caderno, captor.getValue().getCaderno());
 
         verify(anotacaoRepository).save(any());
+        verify(usuarioRepository, never()).findById(any());
+        verify(cadernoRepository, never()).findById(any());
+    }
+
+    @Test
+    void save_quandoReferenciasJaConhecidas_naoDeveConsultarUsuarioNemCaderno() {
+        when(usuarioRepository.existsById(1L)).thenReturn(true);
+        when(cadernoRepository.findUsuarioIdById(2L)).thenReturn(Optional.of(1L));
+        when(anotacaoRepository.save(any(Anotacao.class))).thenAnswer(i -> i.getArgument(0));
+
+        anotacaoService.save(new AnotacaoDTO("a", "a", 1L, 2L));
+        anotacaoService.save(new AnotacaoDTO("b", "b", 1L, 2L));
+
+        verify(usuarioRepository, times(1)).existsById(1L);
+        verify(cadernoRepository, times(1)).findUsuarioIdById(2L);
+        verify(anotacaoRepository, times(2)).save(any());
+    }
+
+    @Test
+    void save_quandoCadernoForDeOutroUsuario_deveLancarNotFound() {
+        when(usuarioRepository.existsById(1L)).thenReturn(true);
+        when(cadernoRepository.findUsuarioIdById(2L)).thenReturn(Optional.of(9L));
+
+        ResponseStatusException ex = assertThrows(ResponseStatusException.class,
+                () -> anotacaoService.save(new AnotacaoDTO("a", "a", 1L, 2L)));
+        assertEquals(org.springframework.http.HttpStatus.NOT_FOUND, ex.getStatusCode());
+        assertTrue(ex.getReason().contains("Caderno não encontrado"));
+        verify(anotacaoRepository, never()).save(any());
+    }
+
+    @Test
+    void saveAll_quandoCadernoForDeOutroUsuario_deveLancarNotFound() {
+        List<AnotacaoDTO> dtos = List.of(new AnotacaoDTO("A", "a", 1L, 10L));
+        CadernoDono dono = dono(10L, 9L);
+        when(usuarioRepository.findIdsByIdIn(anyCollection())).thenReturn(List.of(1L));
+        when(cadernoRepository.findDonosByIdIn(Set.of(10L))).thenReturn(List.of(dono));
+
+        ResponseStatusException ex = assertThrows(ResponseStatusException.class,
+                () -> anotacaoService.saveAll(dtos));
+        assertTrue(ex.getReason().contains("Caderno não encontrado"));
+        verify(anotacaoLoteRepository, never()).inserir(any());
+    }
+
+    @Test
+    void saveAll_deveResolverIdsDistintosUmaVezEInserirEmLote() {
+        List<AnotacaoDTO> dtos = List.of(
+                new AnotacaoDTO("A", "a", 1L, 10L),
+                new AnotacaoDTO("B", "b", 1L, 10L),
+                new AnotacaoDTO("C", "c", 2L, null),
+                new AnotacaoDTO("D", "d", 2L, 0L));
+        CadernoDono dono = dono(10L, 1L);
+        when(usuarioRepository.findIdsByIdIn(anyCollection())).thenReturn(List.of(1L, 2L));
+        when(cadernoRepository.findDonosByIdIn(Set.of(10L))).thenReturn(List.of(dono));
+        when(anotacaoLoteRepository.inserir(anyList())).thenReturn(List.of(100L, 101L, 102L, 103L));
+
+        List<Long> ids = anotacaoService.saveAll(dtos);
+
+        assertEquals(List.of(100L, 101L, 102L, 103L), ids);
+        verify(alteracaoService).registrar(1L, TipoAlteracao.ANOTACAO, List.of(100L, 101L), false);
+        verify(alteracaoService).registrar(2L, TipoAlteracao.ANOTACAO, List.of(102L, 103L), false);
+        verify(usuarioRepository, times(1)).findIdsByIdIn(any());
+        verify(cadernoRepository, times(1)).findDonosByIdIn(any());
+        verify(usuarioRepository, never()).findById(any());
+        verify(cadernoRepository, never()).findById(any());
+        verify(anotacaoLoteRepository).inserir(List.of(
+                new NovaAnotacao("A", "a", 1L, 10L),
+                new NovaAnotacao("B", "b", 1L, 10L),
+                new NovaAnotacao("C", "c", 2L, null),
+                new NovaAnotacao("D", "d", 2L, null)));
+        verify(indiceBusca).indexar(2L, 103L, "D", "d");
+    }
+
+    @Test
+    void saveAll_quandoAlgumUsuarioNaoExistir_deveLancarNotFound() {
+        List<AnotacaoDTO> dtos = List.of(new AnotacaoDTO("A", "a", 1L, null), new AnotacaoDTO("B", "b", 9L, null));
+        when(usuarioRepository.findIdsByIdIn(anyCollection())).thenReturn(List.of(1L));
+
+        ResponseStatusException ex = assertThrows(ResponseStatusException.class,
+                () -> anotacaoService.saveAll(dtos));
+        assertEquals(org.springframework.http.HttpStatus.NOT_FOUND, ex.getStatusCode());
+        assertTrue(ex.getReason().contains("Usuário não encontrado"));
+        verify(anotacaoLoteRepository, never()).inserir(any());
+    }
+
+    @Test
+    void saveAll_quandoAlgumCadernoNaoExistir_deveLancarNotFound() {
+        List<AnotacaoDTO> dtos = List.of(new AnotacaoDTO("A", "a", 1L, 10L), new AnotacaoDTO("B", "b", 1L, 11L));
+        CadernoDono dono = dono(10L, 1L);
+        when(usuarioRepository.findIdsByIdIn(anyCollection())).thenReturn(List.of(1L));
+        when(cadernoRepository.findDonosByIdIn(Set.of(10L, 11L))).thenReturn(List.of(dono));
+
+        ResponseStatusException ex = assertThrows(ResponseStatusException.class,
+                () -> anotacaoService.saveAll(dtos));
+        assertTrue(ex.getReason().contains("Caderno não encontrado"));
+        verify(anotacaoLoteRepository, never()).inserir(any());
+    }
+
+    @Test
+    void moveAll_deveExecutarUmUnicoUpdateComVerificacaoDePosse() {
+        when(cadernoRepository.findUsuarioIdById(7L)).thenReturn(Optional.of(1L));
+        when(anotacaoRepository.updateCadernoByIdIn(7L, 1L, List.of(1L, 2L, 3L))).thenReturn(3);
+
+        int movidas = anotacaoService.moveAll(7L, 1L, List.of(1L, 2L, 3L));
+
+        assertEquals(3, movidas);
+        verify(anotacaoRepository, never()).findById(any());
+        verify(anotacaoRepository, never()).save(any());
+    }
+
+    @Test
+    void moveAll_quandoCadernoForDeOutroUsuario_deveLancarNotFound() {
+        when(cadernoRepository.findUsuarioIdById(7L)).thenReturn(Optional.of(9L));
+
+        ResponseStatusException ex = assertThrows(ResponseStatusException.class,
+                () -> anotacaoService.moveAll(7L, 1L, List.of(1L)));
+        assertEquals(org.springframework.http.HttpStatus.NOT_FOUND, ex.getStatusCode());
+        verify(anotacaoRepository, never()).updateCadernoByIdIn(any(), any(), any());
+    }
+
+    @Test
+    void moveAll_semIds_naoDeveConsultarBanco() {
+        assertEquals(0, anotacaoService.moveAll(7L, 1L, List.of()));
+        verifyNoInteractions(anotacaoRepository);
+    }
+
+    @Test
+    void moveAll_semUsuario_deveLancarBadRequest() {
+        ResponseStatusException ex = assertThrows(ResponseStatusException.class,
+                () -> anotacaoService.moveAll(7L, null, List.of(1L)));
+        assertEquals(org.springframework.http.HttpStatus.BAD_REQUEST, ex.getStatusCode());
+    }
+
+    @Test
+    void deleteAll_deveExecutarUmUnicoDeleteERemoverDoIndice() {
+        when(anotacaoRepository.findIdsByIdInAndUsuarioId(List.of(4L, 5L, 6L), 1L)).thenReturn(List.of(4L, 5L));
+        when(anotacaoRepository.deleteByIdInAndUsuarioId(List.of(4L, 5L, 6L), 1L)).thenReturn(2);
+
+        int removidas = anotacaoService.deleteAll(1L, List.of(4L, 5L, 6L));
+
+        assertEquals(2, removidas);
+        verify(anotacaoRepository, never()).deleteById(any());
+        verify(indiceBusca).remover(1L, List.of(4L, 5L, 6L));
+        verify(alteracaoService).registrar(1L, TipoAlteracao.ANOTACAO, List.of(4L, 5L), true);
     }
 
     @Test
     void deleteById_quandoNaoExistir_deveLancarNotFound() {
-        when(anotacaoRepository.existsById(1L)).thenReturn(false);
+        when(anotacaoRepository.findUsuarioIdById(1L)).thenReturn(Optional.empty());
 
         ResponseStatusException ex = assertThrows(ResponseStatusException.class,
-                () -> anotacaoService.deleteById(1L));
+                () -> anotacaoService.deleteById(1L, null));
         assertEquals(org.springframework.http.HttpStatus.NOT_FOUND, ex.getStatusCode());
         assertTrue(ex.getReason().contains("Anotação não encontrada"));
 
         verify(anotacaoRepository, never()).deleteById(any());
+        verify(indiceBusca, never()).remover(any(), anyLong());
     }
 
     @Test
-    void deleteById_quandoExistir_deveDeletar() {
-        when(anotacaoRepository.existsById(1L)).thenReturn(true);
+    void deleteById_quandoExistir_deveDeletarERemoverDoIndice() {
+        when(anotacaoRepository.findUsuarioIdById(1L)).thenReturn(Optional.of(3L));
 
-        anotacaoService.deleteById(1L);
+        anotacaoService.deleteById(1L, 3L);
 
         verify(anotacaoRepository).deleteById(1L);
+        verify(indiceBusca).remover(3L, 1L);
+        verify(alteracaoService).registrar(3L, TipoAlteracao.ANOTACAO, 1L, true);
+    }
+
+    @Test
+    void deleteById_quandoForDeOutroUsuario_deveLancarNotFoundSemDeletar() {
+        when(anotacaoRepository.findUsuarioIdById(1L)).thenReturn(Optional.of(3L));
+
+        ResponseStatusException ex = assertThrows(ResponseStatusException.class,
+                () -> anotacaoService.deleteById(1L, 4L));
+        assertEquals(org.springframework.http.HttpStatus.NOT_FOUND, ex.getStatusCode());
+        verify(anotacaoRepository, never()).deleteById(any());
     }
 
     @Test
@@ -191,33 +474,37 @@ class AnotacaoServiceTest {
     }
 
     @Test
-    void update_quandoUsuarioIdFornecidoEMasUsuarioNaoExistir_deveLancarNotFound() {
+    void update_quandoAnotacaoForDeOutroUsuario_deveLancarNotFoundSemConsultarUsuario() {
         Anotacao existing = new Anotacao();
         existing.setTitulo("old");
         existing.setCorpo("old");
+        existing.setUsuario(usuario(1L));
         when(anotacaoRepository.findById(1L)).thenReturn(Optional.of(existing));
 
         AnotacaoDTO dto = new AnotacaoDTO();
-        dto.setUsuarioId(5L); // causará a busca no usuarioRepository
-
-        when(usuarioRepository.findById(5L)).thenReturn(Optional.empty());
+        dto.setUsuarioId(5L);
+        dto.setTitulo("novo");
 
         ResponseStatusException ex = assertThrows(ResponseStatusException.class,
                 () -> anotacaoService.update(1L, dto));
         assertEquals(org.springframework.http.HttpStatus.NOT_FOUND, ex.getStatusCode());
-        assertTrue(ex.getReason().contains("Usuário não encontrado"));
+        assertTrue(ex.getReason().contains("Anotação não encontrada"));
+        assertEquals("old", existing.getTitulo());
+        verifyNoInteractions(usuarioRepository);
+        verify(anotacaoRepository, never()).save(any());
     }
 
     @Test
     void update_quandoCadernoIdFornecidoEMasCadernoNaoExistir_deveLancarNotFound() {
         Anotacao existing = new Anotacao();
         existing.setTitulo("old");
+        existing.setUsuario(usuario(1L));
         when(anotacaoRepository.findById(1L)).thenReturn(Optional.of(existing));
 
         AnotacaoDTO dto = new AnotacaoDTO();
         dto.setCadernoId(10L);
 
-        when(cadernoRepository.findById(10L)).thenReturn(Optional.empty());
+        when(cadernoRepository.findUsuarioIdById(10L)).thenReturn(Optional.empty());
 
         ResponseStatusException ex = assertThrows(ResponseStatusException.class,
                 () -> anotacaoService.update(1L, dto));
@@ -232,6 +519,7 @@ class AnotacaoServiceTest {
         existing.setTitulo("velho");
         existing.setCorpo("velho corpo");
         existing.setCaderno(initialCaderno);
+        existing.setUsuario(new Usuario());
 
         when(anotacaoRepository.findById(1L)).thenReturn(Optional.of(existing));
         when(anotacaoRepository.save(any(Anotacao.class))).thenAnswer(i -> i.getArgument(0));
@@ -241,31 +529,158 @@ class AnotacaoServiceTest {
         dto.setCorpo("novo corpo");
         // dto.cadernoId == null -> service deve setar caderno = null
 
-        Anotacao atualizado = anotacaoService.update(1L, dto);
+        AnotacaoResponseDTO atualizado = anotacaoService.update(1L, dto);
 
-        assertEquals("novo", atualizado.getTitulo());
-        assertEquals("novo corpo", atualizado.getCorpo());
-        assertNull(atualizado.getCaderno());
+        assertEquals("novo", atualizado.titulo());
+        assertEquals("novo corpo", atualizado.corpo());
+        assertNull(atualizado.cadernoId());
+        assertNull(existing.getCaderno());
         verify(anotacaoRepository).save(existing);
+        verify(revisaoService).registrar(existing, null, "velho", "velho corpo", null);
     }
 
     @Test
     void update_quandoFornecerCadernoValido_deveAtribuirCaderno() {
         Anotacao existing = new Anotacao();
         existing.setTitulo("t");
+        existing.setUsuario(usuario(1L));
         when(anotacaoRepository.findById(1L)).thenReturn(Optional.of(existing));
 
         Caderno novo = new Caderno();
-        when(cadernoRepository.findById(2L)).thenReturn(Optional.of(novo));
+        when(cadernoRepository.findUsuarioIdById(2L)).thenReturn(Optional.of(1L));
+        when(cadernoRepository.getReferenceById(2L)).thenReturn(novo);
         when(anotacaoRepository.save(any(Anotacao.class))).thenAnswer(i -> i.getArgument(0));
 
         AnotacaoDTO dto = new AnotacaoDTO();
         dto.setCadernoId(2L);
 
-        Anotacao atualizado = anotacaoService.update(1L, dto);
+        anotacaoService.update(1L, dto);
 
-        assertSame(novo, atualizado.getCaderno());
-        verify(cadernoRepository).findById(2L);
+        assertSame(novo, existing.getCaderno());
+        verify(cadernoRepository).getReferenceById(2L);
+        verify(cadernoRepository, never()).findById(any());
         verify(anotacaoRepository).save(existing);
     }
+
+    @Test
+    void update_quandoCadernoForDeOutroUsuario_deveLancarNotFound() {
+        Anotacao existing = new Anotacao();
+        existing.setUsuario(usuario(1L));
+        when(anotacaoRepository.findById(1L)).thenReturn(Optional.of(existing));
+        when(cadernoRepository.findUsuarioIdById(2L)).thenReturn(Optional.of(9L));
+
+        AnotacaoDTO dto = new AnotacaoDTO();
+        dto.setUsuarioId(1L);
+        dto.setCadernoId(2L);
+
+        ResponseStatusException ex = assertThrows(ResponseStatusException.class,
+                () -> anotacaoService.update(1L, dto));
+        assertTrue(ex.getReason().contains("Caderno não encontrado"));
+        verify(anotacaoRepository, never()).save(any());
+    }
+
+    @Test
+    void patch_deveAplicarDeltaNoCorpoERetornarNovaVersao() {
+        Anotacao existing = anotacaoComVersao(3L, "linha um\nlinha dois");
+        when(anotacaoRepository.findById(1L)).thenReturn(Optional.of(existing));
+        when(anotacaoRepository.saveAndFlush(existing)).thenAnswer(i -> {
+            ReflectionTestUtils.setField(existing, "versao", 4L);
+            return existing;
+        });
+
+        List<OperacaoTextoDTO> operacoes = List.of(new OperacaoTextoDTO(6, 3, "1"));
+        VersaoDTO resultado = anotacaoService.patch(1L, null, new PatchAnotacaoDTO(3L, null, operacoes));
+
+        assertEquals(4L, resultado.versao());
+        assertEquals("linha 1\nlinha dois", existing.getCorpo());
+        verify(indiceBusca).indexar(null, null, null, "linha 1\nlinha dois");
+        verify(revisaoService).registrar(existing, 3L, null, "linha um\nlinha dois", operacoes);
+    }
+
+    @Test
+    void patch_quandoVersaoBaseDesatualizada_deveLancarConflito() {
+        when(anotacaoRepository.findById(1L)).thenReturn(Optional.of(anotacaoComVersao(5L, "abc")));
+
+        ResponseStatusException ex = assertThrows(ResponseStatusException.class, () -> anotacaoService.patch(1L, null,
+                new PatchAnotacaoDTO(4L, null, List.of(new OperacaoTextoDTO(0, 0, "x")))));
+        assertEquals(org.springframework.http.HttpStatus.CONFLICT, ex.getStatusCode());
+        verify(anotacaoRepository, never()).saveAndFlush(any());
+    }
+
+    @Test
+    void patch_quandoOutraEdicaoGravarAntes_deveLancarConflito() {
+        Anotacao existing = anotacaoComVersao(5L, "abc");
+        when(anotacaoRepository.findById(1L)).thenReturn(Optional.of(existing));
+        when(anotacaoRepository.saveAndFlush(existing))
+                .thenThrow(new ObjectOptimisticLockingFailureException(Anotacao.class, 1L));
+
+        ResponseStatusException ex = assertThrows(ResponseStatusException.class, () -> anotacaoService.patch(1L, null,
+                new PatchAnotacaoDTO(5L, null, List.of(new OperacaoTextoDTO(0, 0, "x")))));
+        assertEquals(org.springframework.http.HttpStatus.CONFLICT, ex.getStatusCode());
+        verify(indiceBusca, never()).indexar(any(), any(), any(), any());
+    }
+
+    @Test
+    void patch_quandoDeltaInvalido_deveLancarBadRequest() {
+        when(anotacaoRepository.findById(1L)).thenReturn(Optional.of(anotacaoComVersao(0L, "abc")));
+
+        ResponseStatusException ex = assertThrows(ResponseStatusException.class, () -> anotacaoService.patch(1L, null,
+                new PatchAnotacaoDTO(0L, null, List.of(new OperacaoTextoDTO(2, 5, "")))));
+        assertEquals(org.springframework.http.HttpStatus.BAD_REQUEST, ex.getStatusCode());
+    }
+
+    @Test
+    void patch_quandoAnotacaoForDeOutroUsuario_deveLancarNotFound() {
+        Anotacao existing = anotacaoComVersao(3L, "abc");
+        existing.setUsuario(usuario(1L));
+        when(anotacaoRepository.findById(1L)).thenReturn(Optional.of(existing));
+
+        ResponseStatusException ex = assertThrows(ResponseStatusException.class, () -> anotacaoService.patch(1L, 2L,
+                new PatchAnotacaoDTO(3L, null, List.of(new OperacaoTextoDTO(0, 0, "x")))));
+        assertEquals(org.springframework.http.HttpStatus.NOT_FOUND, ex.getStatusCode());
+        verify(anotacaoRepository, never()).saveAndFlush(any());
+    }
+
+    @Test
+    void patch_semVersaoBase_deveLancarBadRequest() {
+        ResponseStatusException ex = assertThrows(ResponseStatusException.class,
+                () -> anotacaoService.patch(1L, null, new PatchAnotacaoDTO(null, "t", List.of())));
+        assertEquals(org.springframework.http.HttpStatus.BAD_REQUEST, ex.getStatusCode());
+        verifyNoInteractions(anotacaoRepository);
+    }
+
+    private Anotacao anotacaoComVersao(Long versao, String corpo) {
+        Anotacao anotacao = new Anotacao();
+        anotacao.setCorpo(corpo);
+        anotacao.setUsuario(new Usuario());
+        ReflectionTestUtils.setField(anotacao, "versao", versao);
+        return anotacao;
+    }
+
+    private static Usuario usuario(Long id) {
+        Usuario usuario = new Usuario();
+        ReflectionTestUtils.setField(usuario, "id", id);
+        return usuario;
+    }
+
+    private CadernoDono dono(Long cadernoId, Long usuarioId) {
+        CadernoDono dono = mock(CadernoDono.class);
+        when(dono.getId()).thenReturn(cadernoId);
+        when(dono.getUsuarioId()).thenReturn(usuarioId);
+        return dono;
+    }
+
+    @Test
+    void update_quandoOutraEdicaoGravarAntes_deveLancarConflito() {
+        Anotacao existing = new Anotacao();
+        existing.setUsuario(new Usuario());
+        when(anotacaoRepository.findById(1L)).thenReturn(Optional.of(existing));
+        when(anotacaoRepository.save(any(Anotacao.class))).thenAnswer(i -> i.getArgument(0));
+        doThrow(new ObjectOptimisticLockingFailureException(Anotacao.class, 1L)).when(anotacaoRepository).flush();
+
+        ResponseStatusException ex = assertThrows(ResponseStatusException.class,
+                () -> anotacaoService.update(1L, new AnotacaoDTO()));
+        assertEquals(org.springframework.http.HttpStatus.CONFLICT, ex.getStatusCode());
+        verify(revisaoService, never()).registrar(any(), any(), any(), any(), any());
+    }
 }
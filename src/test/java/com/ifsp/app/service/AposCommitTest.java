@@ -0,0 +1,53 @@
+package com.ifsp.app.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AposCommitTest {
+
+    @AfterEach
+    void limpar() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void semTransacao_deveExecutarNaHora() {
+        AtomicInteger execucoes = new AtomicInteger();
+
+        AposCommit.executar(execucoes::incrementAndGet);
+
+        assertEquals(1, execucoes.get());
+    }
+
+    @Test
+    void comTransacao_deveEsperarOCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        AtomicInteger execucoes = new AtomicInteger();
+
+        AposCommit.executar(execucoes::incrementAndGet);
+        assertEquals(0, execucoes.get());
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        assertEquals(1, execucoes.get());
+    }
+
+    @Test
+    void rollback_naoDeveExecutar() {
+        TransactionSynchronizationManager.initSynchronization();
+        AtomicInteger execucoes = new AtomicInteger();
+
+        AposCommit.executar(execucoes::incrementAndGet);
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        assertEquals(0, execucoes.get());
+    }
+}
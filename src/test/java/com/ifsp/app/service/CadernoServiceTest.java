@@ -1,13 +1,21 @@
 package com.ifsp.app.service;
 
 import com.ifsp.app.controller.dto.CadernoDTO;
+import com.ifsp.app.controller.dto.CadernoResponseDTO;
+import com.ifsp.app.controller.dto.PaginaDTO;
 import com.ifsp.app.model.Caderno;
 import com.ifsp.app.model.Usuario;
+import com.ifsp.app.model.enums.TipoAlteracao;
+import com.ifsp.app.model.repository.AnotacaoRepository;
 import com.ifsp.app.model.repository.CadernoRepository;
 import com.ifsp.app.model.repository.UsuarioRepository;
+import com.ifsp.app.service.busca.IndiceBusca;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.*;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.util.List;
@@ -24,39 +32,50 @@ class CadernoServiceTest {
     @Mock
     private UsuarioRepository usuarioRepository;
 
-    @InjectMocks
+    @Mock
+    private AnotacaoRepository anotacaoRepository;
+
+    @Mock
+    private IndiceBusca indiceBusca;
+
+    @Mock
+    private AlteracaoService alteracaoService;
+
     private CadernoService cadernoService;
 
     @BeforeEach
     void setup() {
         MockitoAnnotations.openMocks(this);
+        cadernoService = new CadernoService(cadernoRepository, usuarioRepository, anotacaoRepository, indiceBusca,
+                new ReferenciaCache(usuarioRepository, cadernoRepository), alteracaoService);
     }
 
     @Test
-    void findAll_deveRetornarLista() {
-        Caderno c = new Caderno();
-        when(cadernoRepository.findAll()).thenReturn(List.of(c));
+    void findPageByUsuario_deveConsultarSomenteCadernosDoUsuario() {
+        CadernoResponseDTO c = new CadernoResponseDTO(1L, 0L, "C", 2L);
+        when(cadernoRepository.findResponseByUsuarioIdAndIdGreaterThan(2L, 0L, Limit.of(51)))
+                .thenReturn(List.of(c));
 
-        List<Caderno> resultado = cadernoService.findAll();
+        PaginaDTO<CadernoResponseDTO> resultado = cadernoService.findPageByUsuario(2L, null, 50);
 
-        assertNotNull(resultado);
-        assertEquals(1, resultado.size());
-        verify(cadernoRepository).findAll();
+        assertEquals(List.of(c), resultado.itens());
+        verify(cadernoRepository, never()).findAll();
     }
 
     @Test
     void findById_quandoExistir_deveRetornar() {
-        Caderno c = new Caderno();
-        when(cadernoRepository.findById(1L)).thenReturn(Optional.of(c));
+        CadernoResponseDTO c = new CadernoResponseDTO(1L, 0L, "C", 2L);
+        when(cadernoRepository.findResponseById(1L)).thenReturn(Optional.of(c));
 
-        Caderno res = cadernoService.findById(1L);
+        CadernoResponseDTO res = cadernoService.findById(1L);
 
         assertSame(c, res);
+        verify(cadernoRepository, never()).findById(any());
     }
 
     @Test
     void findById_quandoNaoExistir_deveLancarNotFound() {
-        when(cadernoRepository.findById(1L)).thenReturn(Optional.empty());
+        when(cadernoRepository.findResponseById(1L)).thenReturn(Optional.empty());
 
         ResponseStatusException ex = assertThrows(ResponseStatusException.class,
                 () -> cadernoService.findById(1L));
@@ -69,7 +88,7 @@ class CadernoServiceTest {
         CadernoDTO dto = new CadernoDTO();
         dto.setUsuarioId(2L);
 
-        when(usuarioRepository.findById(2L)).thenReturn(Optional.empty());
+        when(usuarioRepository.existsById(2L)).thenReturn(false);
 
         ResponseStatusException ex = assertThrows(ResponseStatusException.class,
                 () -> cadernoService.save(dto));
@@ -86,22 +105,25 @@ class CadernoServiceTest {
         dto.setTitulo("Meu Caderno");
 
         Usuario usuario = new Usuario();
-        when(usuarioRepository.findById(1L)).thenReturn(Optional.of(usuario));
+        when(usuarioRepository.existsById(1L)).thenReturn(true);
+        when(usuarioRepository.getReferenceById(1L)).thenReturn(usuario);
         when(cadernoRepository.save(any(Caderno.class))).thenAnswer(i -> i.getArgument(0));
 
-        Caderno salvo = cadernoService.save(dto);
+        CadernoResponseDTO salvo = cadernoService.save(dto);
 
-        assertEquals("Meu Caderno", salvo.getTitulo());
-        assertSame(usuario, salvo.getUsuario());
-        verify(cadernoRepository).save(any(Caderno.class));
+        assertEquals("Meu Caderno", salvo.titulo());
+        ArgumentCaptor<Caderno> captor = ArgumentCaptor.forClass(Caderno.class);
+        verify(cadernoRepository).save(captor.capture());
+        assertSame(usuario, captor.getValue().getUsuario());
+        verify(usuarioRepository, never()).findById(any());
     }
 
     @Test
     void deleteById_quandoNaoExistir_deveLancarNotFound() {
-        when(cadernoRepository.existsById(1L)).thenReturn(false);
+        when(cadernoRepository.findUsuarioIdById(1L)).thenReturn(Optional.empty());
 
         ResponseStatusException ex = assertThrows(ResponseStatusException.class,
-                () -> cadernoService.deleteById(1L));
+                () -> cadernoService.deleteById(1L, null));
         assertEquals(org.springframework.http.HttpStatus.NOT_FOUND, ex.getStatusCode());
         assertTrue(ex.getReason().contains("Caderno não encontrado"));
 
@@ -109,12 +131,27 @@ class CadernoServiceTest {
     }
 
     @Test
-    void deleteById_quandoExistir_deveDeletar() {
-        when(cadernoRepository.existsById(1L)).thenReturn(true);
+    void deleteById_quandoExistir_deveDeletarERemoverAnotacoesDoIndice() {
+        when(cadernoRepository.findUsuarioIdById(1L)).thenReturn(Optional.of(5L));
+        when(anotacaoRepository.findIdsByCadernoId(1L)).thenReturn(List.of(10L, 11L));
 
-        cadernoService.deleteById(1L);
+        cadernoService.deleteById(1L, 5L);
 
         verify(cadernoRepository).deleteById(1L);
+        verify(indiceBusca).remover(5L, List.of(10L, 11L));
+        verify(alteracaoService).registrar(5L, TipoAlteracao.CADERNO, 1L, true);
+        verify(alteracaoService).registrar(5L, TipoAlteracao.ANOTACAO, List.of(10L, 11L), true);
+    }
+
+    @Test
+    void deleteById_quandoForDeOutroUsuario_deveLancarNotFoundSemDeletar() {
+        when(cadernoRepository.findUsuarioIdById(1L)).thenReturn(Optional.of(5L));
+
+        ResponseStatusException ex = assertThrows(ResponseStatusException.class,
+                () -> cadernoService.deleteById(1L, 6L));
+        assertEquals(org.springframework.http.HttpStatus.NOT_FOUND, ex.getStatusCode());
+        verify(cadernoRepository, never()).deleteById(any());
+        verifyNoInteractions(alteracaoService);
     }
 
     @Test
@@ -128,34 +165,52 @@ class CadernoServiceTest {
     }
 
     @Test
-    void update_quandoUsuarioIdFornecidoEMasUsuarioNaoExistir_deveLancarNotFound() {
+    void update_quandoCadernoForDeOutroUsuario_deveLancarNotFoundSemConsultarUsuario() {
+        Usuario dono = new Usuario();
+        ReflectionTestUtils.setField(dono, "id", 5L);
         Caderno existing = new Caderno();
+        existing.setUsuario(dono);
         when(cadernoRepository.findById(1L)).thenReturn(Optional.of(existing));
 
         CadernoDTO dto = new CadernoDTO();
         dto.setUsuarioId(10L);
 
-        when(usuarioRepository.findById(10L)).thenReturn(Optional.empty());
-
         ResponseStatusException ex = assertThrows(ResponseStatusException.class,
                 () -> cadernoService.update(1L, dto));
         assertEquals(org.springframework.http.HttpStatus.NOT_FOUND, ex.getStatusCode());
-        assertTrue(ex.getReason().contains("Usuário não encontrado"));
+        assertTrue(ex.getReason().contains("Caderno não encontrado"));
+        verifyNoInteractions(usuarioRepository);
+        verify(cadernoRepository, never()).save(any());
     }
 
     @Test
     void update_quandoAlterarTitulo_deveSalvarComTituloAtualizado() {
         Caderno existing = new Caderno();
         existing.setTitulo("antigo");
+        existing.setUsuario(new Usuario());
         when(cadernoRepository.findById(1L)).thenReturn(Optional.of(existing));
         when(cadernoRepository.save(any(Caderno.class))).thenAnswer(i -> i.getArgument(0));
 
         CadernoDTO dto = new CadernoDTO();
         dto.setTitulo("novo");
 
-        Caderno updated = cadernoService.update(1L, dto);
+        CadernoResponseDTO updated = cadernoService.update(1L, dto);
 
-        assertEquals("novo", updated.getTitulo());
+        assertEquals("novo", updated.titulo());
         verify(cadernoRepository).save(existing);
     }
+
+    @Test
+    void update_quandoOutraEdicaoGravarAntes_deveLancarConflito() {
+        Caderno existing = new Caderno();
+        existing.setUsuario(new Usuario());
+        when(cadernoRepository.findById(1L)).thenReturn(Optional.of(existing));
+        when(cadernoRepository.save(any(Caderno.class))).thenAnswer(i -> i.getArgument(0));
+        doThrow(new ObjectOptimisticLockingFailureException(Caderno.class, 1L)).when(cadernoRepository).flush();
+
+        ResponseStatusException ex = assertThrows(ResponseStatusException.class,
+                () -> cadernoService.update(1L, new CadernoDTO()));
+        assertEquals(org.springframework.http.HttpStatus.CONFLICT, ex.getStatusCode());
+        verifyNoInteractions(alteracaoService);
+    }
 }
@@ -0,0 +1,69 @@
+package com.ifsp.app.service;
+
+import com.ifsp.app.controller.dto.AnotacaoDTO;
+import com.ifsp.app.controller.dto.CadernoDTO;
+import com.ifsp.app.controller.dto.CadernoResponseDTO;
+import com.ifsp.app.controller.dto.UsuarioDTO;
+import com.ifsp.app.controller.dto.UsuarioResponseDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class CargaSinteticaTest {
+
+    @Mock
+    private UsuarioService usuarioService;
+
+    @Mock
+    private CadernoService cadernoService;
+
+    @Mock
+    private AnotacaoService anotacaoService;
+
+    @BeforeEach
+    void setup() {
+        MockitoAnnotations.openMocks(this);
+        AtomicLong ids = new AtomicLong();
+        when(usuarioService.save(any())).thenAnswer(i -> new UsuarioResponseDTO(ids.incrementAndGet(), 0L,
+                null, i.<UsuarioDTO>getArgument(0).getEmail()));
+        when(cadernoService.save(any())).thenAnswer(i -> new CadernoResponseDTO(100 + ids.incrementAndGet(), 0L,
+                null, i.<CadernoDTO>getArgument(0).getUsuarioId()));
+    }
+
+    @Test
+    void afterSingletonsInstantiated_deveCriarUsuariosCadernosEAnotacoesConfigurados() {
+        new CargaSintetica(usuarioService, cadernoService, anotacaoService, 2, 3, 40, 300, "segredo")
+                .afterSingletonsInstantiated();
+
+        ArgumentCaptor<UsuarioDTO> usuarios = ArgumentCaptor.forClass(UsuarioDTO.class);
+        verify(usuarioService, times(2)).save(usuarios.capture());
+        assertEquals(List.of("carga1@anote.local", "carga2@anote.local"),
+                usuarios.getAllValues().stream().map(UsuarioDTO::getEmail).toList());
+        assertTrue(usuarios.getAllValues().stream().allMatch(u -> "segredo".equals(u.getSenha())));
+        verify(cadernoService, times(6)).save(any());
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<AnotacaoDTO>> lotes = ArgumentCaptor.forClass(List.class);
+        verify(anotacaoService, times(2)).saveAll(lotes.capture());
+        for (List<AnotacaoDTO> lote : lotes.getAllValues()) {
+            assertEquals(40, lote.size());
+            Long usuarioId = lote.get(0).getUsuarioId();
+            assertTrue(lote.stream().allMatch(a -> usuarioId.equals(a.getUsuarioId())
+                    && a.getCorpo().length() <= 300 && !a.getTitulo().isBlank()));
+            Set<Long> cadernos = new HashSet<>();
+            lote.forEach(a -> cadernos.add(a.getCadernoId()));
+            assertTrue(cadernos.size() > 1);
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.ifsp.app.service;
+
+import com.ifsp.app.controller.dto.OperacaoTextoDTO;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DeltaTextoTest {
+
+    @Test
+    void aplicar_deveTrocarInserirERemoverTrechosDoTextoBase() {
+        String resultado = DeltaTexto.aplicar("Olá mundo", List.of(
+                new OperacaoTextoDTO(0, 3, "Oi"),
+                new OperacaoTextoDTO(4, 5, "gente"),
+                new OperacaoTextoDTO(9, 0, "!")));
+
+        assertEquals("Oi gente!", resultado);
+    }
+
+    @Test
+    void aplicar_quandoBaseNula_deveTratarComoTextoVazio() {
+        assertEquals("novo", DeltaTexto.aplicar(null, List.of(new OperacaoTextoDTO(0, 0, "novo"))));
+    }
+
+    @Test
+    void aplicar_quandoSomenteRemover_deveApagarTrecho() {
+        assertEquals("ac", DeltaTexto.aplicar("abc", List.of(new OperacaoTextoDTO(1, 1, null))));
+    }
+
+    @Test
+    void aplicar_quandoOperacoesForaDeOrdem_deveRejeitar() {
+        assertThrows(IllegalArgumentException.class, () -> DeltaTexto.aplicar("abc", List.of(
+                new OperacaoTextoDTO(2, 0, "x"),
+                new OperacaoTextoDTO(1, 0, "y"))));
+    }
+
+    @Test
+    void aplicar_quandoIntervaloPassarDoFim_deveRejeitar() {
+        assertThrows(IllegalArgumentException.class,
+                () -> DeltaTexto.aplicar("abc", List.of(new OperacaoTextoDTO(1, Integer.MAX_VALUE, ""))));
+        assertThrows(IllegalArgumentException.class,
+                () -> DeltaTexto.aplicar("abc", List.of(new OperacaoTextoDTO(0, -1, ""))));
+    }
+
+    @Test
+    void diferenca_deveGerarUmaOperacaoSoComOTrechoAlterado() {
+        List<OperacaoTextoDTO> delta = DeltaTexto.diferenca("linha um\nlinha dois", "linha 1\nlinha dois");
+
+        assertEquals(1, delta.size());
+        assertEquals(6, delta.get(0).getPosicao());
+        assertEquals(2, delta.get(0).getRemover());
+        assertEquals("1", delta.get(0).getInserir());
+        assertEquals("linha 1\nlinha dois", DeltaTexto.aplicar("linha um\nlinha dois", delta));
+    }
+
+    @Test
+    void diferenca_quandoTextosIguais_deveSerVazia() {
+        assertTrue(DeltaTexto.diferenca("abc", "abc").isEmpty());
+    }
+
+    @Test
+    void diferenca_naoDeveSepararParDeSurrogates() {
+        String antes = "a\uD83D\uDE00b";
+        String depois = "a\uD83D\uDE01b";
+
+        List<OperacaoTextoDTO> delta = DeltaTexto.diferenca(antes, depois);
+
+        assertEquals("\uD83D\uDE01", delta.get(0).getInserir());
+        assertEquals(depois, DeltaTexto.aplicar(antes, delta));
+    }
+
+    @Test
+    void serializar_deveIdaEVoltaPreservandoTextoLongoESurrogateIsolado() {
+        String longo = "ç".repeat(50_000);
+        List<OperacaoTextoDTO> operacoes = List.of(
+                new OperacaoTextoDTO(0, 2, longo),
+                new OperacaoTextoDTO(10, 0, "\uDE00"),
+                new OperacaoTextoDTO(12, 3, null));
+
+        List<OperacaoTextoDTO> lidas = DeltaTexto.desserializar(DeltaTexto.serializar(operacoes));
+
+        assertEquals(3, lidas.size());
+        assertEquals(longo, lidas.get(0).getInserir());
+        assertEquals("\uDE00", lidas.get(1).getInserir());
+        assertEquals("", lidas.get(2).getInserir());
+        assertEquals(12, lidas.get(2).getPosicao());
+        assertEquals(3, lidas.get(2).getRemover());
+    }
+}
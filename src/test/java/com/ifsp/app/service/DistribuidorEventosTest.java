@@ -0,0 +1,141 @@
+package com.ifsp.app.service;
+
+import com.ifsp.app.controller.dto.AlteracaoDTO;
+import com.ifsp.app.model.enums.TipoAlteracao;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DistribuidorEventosTest {
+
+    @Mock
+    private ReferenciaCache referenciaCache;
+
+    private DistribuidorEventos distribuidor;
+
+    @BeforeEach
+    void setup() {
+        MockitoAnnotations.openMocks(this);
+        distribuidor = new DistribuidorEventos(referenciaCache);
+    }
+
+    @AfterEach
+    void encerrar() {
+        distribuidor.encerrar();
+    }
+
+    @Test
+    void publicar_deveEntregarAlteracaoAoAssinanteDoUsuario() throws Exception {
+        EmitterGravador emitter = new EmitterGravador(false);
+        EmitterGravador outro = new EmitterGravador(false);
+        distribuidor.registrar(1L, emitter);
+        distribuidor.registrar(2L, outro);
+
+        distribuidor.publicar(new AlteracoesRegistradas(1L, List.of(alteracao(5L, 10L))));
+
+        aguardar(() -> emitter.contem("id:5"));
+        assertFalse(outro.contem("id:5"));
+    }
+
+    @Test
+    void publicar_quandoAssinanteAtrasado_deveJuntarEdicoesDaMesmaAnotacao() throws Exception {
+        EmitterGravador emitter = new EmitterGravador(true);
+        distribuidor.registrar(1L, emitter);
+
+        distribuidor.publicar(new AlteracoesRegistradas(1L, List.of(alteracao(2L, 7L))));
+        distribuidor.publicar(new AlteracoesRegistradas(1L, List.of(alteracao(3L, 7L))));
+        distribuidor.publicar(new AlteracoesRegistradas(1L, List.of(alteracao(4L, 8L))));
+        emitter.liberar.countDown();
+
+        aguardar(() -> emitter.contem("id:4"));
+        assertTrue(emitter.contem("id:3"));
+        assertFalse(emitter.contem("id:2"));
+    }
+
+    @Test
+    void publicar_quandoBufferEstourar_deveDesconectarAssinante() throws Exception {
+        EmitterGravador emitter = new EmitterGravador(true);
+        distribuidor.registrar(1L, emitter);
+        List<AlteracaoDTO> muitas = new ArrayList<>();
+        for (long i = 1; i <= DistribuidorEventos.LIMITE_BUFFER + 1; i++) {
+            muitas.add(alteracao(i, i));
+        }
+
+        distribuidor.publicar(new AlteracoesRegistradas(1L, muitas));
+
+        aguardar(() -> emitter.completo);
+        assertEquals(0, distribuidor.conectados(1L));
+    }
+
+    @Test
+    void registrar_quandoPassarDoLimitePorUsuario_deveLancarTooManyRequests() {
+        for (int i = 0; i < DistribuidorEventos.LIMITE_POR_USUARIO; i++) {
+            distribuidor.registrar(1L, new EmitterGravador(false));
+        }
+
+        ResponseStatusException ex = assertThrows(ResponseStatusException.class,
+                () -> distribuidor.registrar(1L, new EmitterGravador(false)));
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, ex.getStatusCode());
+    }
+
+    private static AlteracaoDTO alteracao(Long seq, Long id) {
+        return new AlteracaoDTO(seq, TipoAlteracao.ANOTACAO, id, false);
+    }
+
+    private static void aguardar(BooleanSupplier condicao) throws InterruptedException {
+        for (int i = 0; i < 500 && !condicao.getAsBoolean(); i++) {
+            Thread.sleep(10);
+        }
+        assertTrue(condicao.getAsBoolean());
+    }
+
+    private static class EmitterGravador extends SseEmitter {
+
+        final List<String> enviados = new CopyOnWriteArrayList<>();
+        final CountDownLatch liberar;
+        volatile boolean completo;
+
+        EmitterGravador(boolean bloqueado) {
+            liberar = new CountDownLatch(bloqueado ? 1 : 0);
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            try {
+                liberar.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException(e);
+            }
+            StringBuilder evento = new StringBuilder();
+            for (ResponseBodyEmitter.DataWithMediaType parte : builder.build()) {
+                evento.append(parte.getData());
+            }
+            enviados.add(evento.toString());
+        }
+
+        @Override
+        public void complete() {
+            completo = true;
+        }
+
+        boolean contem(String trecho) {
+            return enviados.stream().anyMatch(e -> e.contains(trecho));
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.ifsp.app.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ifsp.app.controller.dto.AnotacaoExportacaoDTO;
+import com.ifsp.app.model.repository.AnotacaoRepository;
+import com.ifsp.app.model.repository.CadernoRepository;
+import com.ifsp.app.model.repository.UsuarioRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.http.HttpStatus;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ExportacaoServiceTest {
+
+    @Mock
+    private AnotacaoRepository anotacaoRepository;
+
+    @Mock
+    private UsuarioRepository usuarioRepository;
+
+    @Mock
+    private CadernoRepository cadernoRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private ExportacaoService exportacaoService;
+
+    @BeforeEach
+    void setup() {
+        MockitoAnnotations.openMocks(this);
+        exportacaoService = new ExportacaoService(anotacaoRepository,
+                new ReferenciaCache(usuarioRepository, cadernoRepository), transactionManager, new ObjectMapper());
+    }
+
+    @Test
+    void exportar_quandoUsuarioNaoExistir_deveLancarNotFound() {
+        when(usuarioRepository.existsById(1L)).thenReturn(false);
+
+        ResponseStatusException ex = assertThrows(ResponseStatusException.class,
+                () -> exportacaoService.exportar(1L));
+        assertEquals(HttpStatus.NOT_FOUND, ex.getStatusCode());
+        verifyNoInteractions(anotacaoRepository);
+    }
+
+    @Test
+    void exportar_deveEscreverUmaLinhaPorAnotacaoEFecharOCursor() throws Exception {
+        AtomicBoolean fechado = new AtomicBoolean();
+        when(usuarioRepository.existsById(1L)).thenReturn(true);
+        when(anotacaoRepository.streamExportacaoByUsuarioId(1L)).thenReturn(Stream.of(
+                new AnotacaoExportacaoDTO(1L, 3L, "t1", "linha\nquebrada"),
+                new AnotacaoExportacaoDTO(2L, null, "t2", "c2")).onClose(() -> fechado.set(true)));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exportacaoService.exportar(1L).writeTo(out);
+
+        String[] linhas = out.toString(StandardCharsets.UTF_8).split("\n", -1);
+        assertEquals(3, linhas.length);
+        assertEquals("{\"id\":1,\"cadernoId\":3,\"titulo\":\"t1\",\"corpo\":\"linha\\nquebrada\"}", linhas[0]);
+        assertEquals("{\"id\":2,\"cadernoId\":null,\"titulo\":\"t2\",\"corpo\":\"c2\"}", linhas[1]);
+        assertEquals("", linhas[2]);
+        assertTrue(fechado.get());
+        verify(transactionManager).commit(any());
+    }
+
+    @Test
+    void exportar_quandoNaoHouverAnotacoes_deveEscreverCorpoVazio() throws Exception {
+        when(usuarioRepository.existsById(1L)).thenReturn(true);
+        when(anotacaoRepository.streamExportacaoByUsuarioId(1L)).thenReturn(Stream.empty());
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exportacaoService.exportar(1L).writeTo(out);
+
+        assertEquals(0, out.size());
+    }
+}
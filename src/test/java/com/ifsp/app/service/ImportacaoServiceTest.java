@@ -0,0 +1,210 @@
+package com.ifsp.app.service;
+
+import com.ifsp.app.controller.dto.CadernoDTO;
+import com.ifsp.app.controller.dto.CadernoResponseDTO;
+import com.ifsp.app.controller.dto.ImportacaoDTO;
+import com.ifsp.app.model.repository.NovaAnotacao;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+class ImportacaoServiceTest {
+
+    @Mock
+    private AnotacaoService anotacaoService;
+
+    @Mock
+    private CadernoService cadernoService;
+
+    @Mock
+    private ReferenciaCache referenciaCache;
+
+    private ImportacaoService importacaoService;
+
+    @BeforeEach
+    void setup() {
+        MockitoAnnotations.openMocks(this);
+        importacaoService = new ImportacaoService(anotacaoService, cadernoService, referenciaCache);
+    }
+
+    @AfterEach
+    void encerrar() {
+        importacaoService.encerrar();
+    }
+
+    @Test
+    void iniciar_deveCriarUmCadernoPorPastaEUmaAnotacaoPorArquivo() throws Exception {
+        CadernoResponseDTO trabalho = new CadernoResponseDTO(7L, 0L, "Trabalho", 1L);
+        CadernoResponseDTO pessoal = new CadernoResponseDTO(8L, 0L, "Pessoal", 1L);
+        when(cadernoService.save(argThat(dto -> dto != null && "Trabalho".equals(dto.getTitulo()))))
+                .thenReturn(trabalho);
+        when(cadernoService.save(argThat(dto -> dto != null && "Pessoal".equals(dto.getTitulo()))))
+                .thenReturn(pessoal);
+        List<NovaAnotacao> inseridas = new ArrayList<>();
+        when(anotacaoService.inserir(any())).thenAnswer(i -> {
+            List<NovaAnotacao> lote = i.getArgument(0);
+            inseridas.addAll(lote);
+            return List.of();
+        });
+
+        byte[] zip = zip(
+                "Trabalho/", null,
+                "Trabalho/reuniao.md", "# Pauta",
+                "Trabalho/orcamento.markdown", "valores",
+                "solta.md", "\uFEFFsem caderno",
+                "Pessoal/lista.txt", "pão",
+                "Pessoal/foto.png", "binario",
+                "__MACOSX/Trabalho/._reuniao.md", "lixo");
+
+        ImportacaoDTO resultado = aguardar(importacaoService.iniciar(1L, new ByteArrayInputStream(zip)).id());
+
+        assertEquals("CONCLUIDA", resultado.estado());
+        assertEquals(4, resultado.anotacoes());
+        assertEquals(2, resultado.cadernos());
+        assertEquals(1, resultado.ignoradas());
+        assertNull(resultado.erro());
+        assertEquals(List.of(
+                new NovaAnotacao("reuniao", "# Pauta", 1L, 7L),
+                new NovaAnotacao("orcamento", "valores", 1L, 7L),
+                new NovaAnotacao("solta", "sem caderno", 1L, null),
+                new NovaAnotacao("lista", "pão", 1L, 8L)), inseridas);
+        verify(cadernoService, times(2)).save(any(CadernoDTO.class));
+    }
+
+    @Test
+    void iniciar_quandoEntradaPassarDoLimite_deveIgnorarAEntrada() throws Exception {
+        when(anotacaoService.inserir(any())).thenReturn(List.of());
+        String grande = "a".repeat(ImportacaoService.LIMITE_ENTRADA + 1);
+
+        ImportacaoDTO resultado = aguardar(importacaoService.iniciar(1L,
+                new ByteArrayInputStream(zip("grande.md", grande, "pequena.md", "ok"))).id());
+
+        assertEquals("CONCLUIDA", resultado.estado());
+        assertEquals(1, resultado.anotacoes());
+        assertEquals(1, resultado.ignoradas());
+    }
+
+    @Test
+    void iniciar_deveGravarEmLotesLimitadosPelaMemoria() throws Exception {
+        List<Integer> pesos = new ArrayList<>();
+        when(anotacaoService.inserir(any())).thenAnswer(i -> {
+            List<NovaAnotacao> lote = i.getArgument(0);
+            pesos.add(lote.stream().mapToInt(n -> 2 * (n.titulo().length() + n.corpo().length())).sum());
+            return List.of();
+        });
+        String[] entradas = new String[2 * 20];
+        for (int i = 0; i < 20; i++) {
+            entradas[2 * i] = "nota" + i + ".md";
+            entradas[2 * i + 1] = "x".repeat(ImportacaoService.LIMITE_ENTRADA - 1);
+        }
+
+        ImportacaoDTO resultado = aguardar(importacaoService.iniciar(1L, new ByteArrayInputStream(zip(entradas))).id());
+
+        assertEquals("CONCLUIDA", resultado.estado());
+        assertEquals(20, resultado.anotacoes());
+        assertTrue(pesos.size() > 1);
+        assertTrue(pesos.stream().allMatch(p -> p < ImportacaoService.LIMITE_MEMORIA), pesos::toString);
+    }
+
+    @Test
+    void iniciar_naoDeveSepararEmojiAoTruncarTitulo() throws Exception {
+        List<NovaAnotacao> inseridas = new ArrayList<>();
+        when(anotacaoService.inserir(any())).thenAnswer(i -> {
+            inseridas.addAll(i.getArgument(0));
+            return List.of();
+        });
+        String titulo = "a".repeat(ImportacaoService.LIMITE_TITULO - 1) + "\uD83D\uDE00";
+
+        aguardar(importacaoService.iniciar(1L, new ByteArrayInputStream(zip(titulo + ".md", "ok"))).id());
+
+        assertEquals("a".repeat(ImportacaoService.LIMITE_TITULO - 1), inseridas.get(0).titulo());
+    }
+
+    @Test
+    void iniciar_quandoDescompactadoPassarDoLimite_deveFalharContandoEntradasIgnoradas() throws Exception {
+        importacaoService.encerrar();
+        importacaoService = new ImportacaoService(anotacaoService, cadernoService, referenciaCache, 64 * 1024);
+        when(anotacaoService.inserir(any())).thenReturn(List.of());
+        String zeros = "0".repeat(100 * 1024);
+
+        ImportacaoDTO resultado = aguardar(importacaoService.iniciar(1L,
+                new ByteArrayInputStream(zip("imagem.png", zeros, "nota.md", "ok"))).id());
+
+        assertEquals("FALHOU", resultado.estado());
+        assertEquals("Conteúdo descompactado maior que o permitido", resultado.erro());
+        assertEquals(0, resultado.anotacoes());
+    }
+
+    @Test
+    void iniciar_quandoGravacaoFalhar_deveMarcarImportacaoComoFalha() throws Exception {
+        when(anotacaoService.inserir(any())).thenThrow(new IllegalStateException("banco fora"));
+
+        ImportacaoDTO resultado = aguardar(importacaoService.iniciar(1L,
+                new ByteArrayInputStream(zip("a.md", "x"))).id());
+
+        assertEquals("FALHOU", resultado.estado());
+        assertEquals("Falha ao gravar as anotações", resultado.erro());
+    }
+
+    @Test
+    void iniciar_quandoUsuarioNaoExistir_deveLancarNotFound() {
+        doThrow(new ResponseStatusException(HttpStatus.NOT_FOUND, "Usuário não encontrado"))
+                .when(referenciaCache).exigirUsuario(1L);
+
+        ResponseStatusException ex = assertThrows(ResponseStatusException.class,
+                () -> importacaoService.iniciar(1L, new ByteArrayInputStream(new byte[0])));
+        assertEquals(HttpStatus.NOT_FOUND, ex.getStatusCode());
+    }
+
+    @Test
+    void consultar_quandoImportacaoForDeOutroUsuario_deveLancarNotFound() throws Exception {
+        String id = importacaoService.iniciar(1L, new ByteArrayInputStream(zip())).id();
+
+        ResponseStatusException ex = assertThrows(ResponseStatusException.class,
+                () -> importacaoService.consultar(2L, id));
+        assertEquals(HttpStatus.NOT_FOUND, ex.getStatusCode());
+    }
+
+    private ImportacaoDTO aguardar(String id) throws InterruptedException {
+        for (int i = 0; i < 500; i++) {
+            ImportacaoDTO resultado = importacaoService.consultar(1L, id);
+            if (!"PROCESSANDO".equals(resultado.estado())) {
+                return resultado;
+            }
+            Thread.sleep(10);
+        }
+        return fail("Importação não terminou");
+    }
+
+    private static byte[] zip(String... nomesEConteudos) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ZipOutputStream zip = new ZipOutputStream(bytes)) {
+            for (int i = 0; i < nomesEConteudos.length; i += 2) {
+                zip.putNextEntry(new ZipEntry(nomesEConteudos[i]));
+                if (nomesEConteudos[i + 1] != null) {
+                    zip.write(nomesEConteudos[i + 1].getBytes(StandardCharsets.UTF_8));
+                }
+                zip.closeEntry();
+            }
+        }
+        return bytes.toByteArray();
+    }
+}
@@ -0,0 +1,120 @@
+package com.ifsp.app.service;
+
+import com.ifsp.app.model.repository.CadernoDono;
+import com.ifsp.app.model.repository.CadernoRepository;
+import com.ifsp.app.model.repository.UsuarioRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ReferenciaCacheTest {
+
+    @Mock
+    private UsuarioRepository usuarioRepository;
+
+    @Mock
+    private CadernoRepository cadernoRepository;
+
+    private ReferenciaCache referenciaCache;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        referenciaCache = new ReferenciaCache(usuarioRepository, cadernoRepository);
+    }
+
+    @Test
+    void exigirUsuario_deveConsultarBancoSomenteNaPrimeiraVez() {
+        when(usuarioRepository.existsById(1L)).thenReturn(true);
+
+        referenciaCache.exigirUsuario(1L);
+        referenciaCache.exigirUsuario(1L);
+
+        verify(usuarioRepository, times(1)).existsById(1L);
+        verify(usuarioRepository, never()).findById(any());
+    }
+
+    @Test
+    void exigirUsuario_naoDeveGuardarResultadoNegativo() {
+        when(usuarioRepository.existsById(1L)).thenReturn(false, true);
+
+        assertThrows(ResponseStatusException.class, () -> referenciaCache.exigirUsuario(1L));
+        referenciaCache.exigirUsuario(1L);
+
+        verify(usuarioRepository, times(2)).existsById(1L);
+    }
+
+    @Test
+    void exigirCaderno_deveRetornarDonoEmCache() {
+        when(cadernoRepository.findUsuarioIdById(2L)).thenReturn(Optional.of(1L));
+
+        assertEquals(1L, referenciaCache.exigirCaderno(2L));
+        assertEquals(1L, referenciaCache.exigirCaderno(2L));
+
+        verify(cadernoRepository, times(1)).findUsuarioIdById(2L);
+    }
+
+    @Test
+    void invalidarCaderno_deveForcarNovaConsulta() {
+        when(cadernoRepository.findUsuarioIdById(2L)).thenReturn(Optional.of(1L), Optional.empty());
+
+        referenciaCache.exigirCaderno(2L);
+        referenciaCache.invalidarCaderno(2L);
+
+        assertThrows(ResponseStatusException.class, () -> referenciaCache.exigirCaderno(2L));
+    }
+
+    @Test
+    void invalidarUsuario_deveRemoverUsuarioESeusCadernos() {
+        when(usuarioRepository.existsById(1L)).thenReturn(true);
+        referenciaCache.exigirUsuario(1L);
+        referenciaCache.registrarCaderno(2L, 1L);
+        referenciaCache.registrarCaderno(3L, 9L);
+
+        referenciaCache.invalidarUsuario(1L);
+        referenciaCache.exigirUsuario(1L);
+        when(cadernoRepository.findUsuarioIdById(2L)).thenReturn(Optional.of(1L));
+        referenciaCache.exigirCaderno(2L);
+        referenciaCache.exigirCaderno(3L);
+
+        verify(usuarioRepository, times(2)).existsById(1L);
+        verify(cadernoRepository, times(1)).findUsuarioIdById(2L);
+        verify(cadernoRepository, never()).findUsuarioIdById(3L);
+    }
+
+    @Test
+    void exigirCadernos_deveConsultarSomenteOsQueFaltam() {
+        referenciaCache.registrarCaderno(2L, 1L);
+        CadernoDono dono = mock(CadernoDono.class);
+        when(dono.getId()).thenReturn(3L);
+        when(dono.getUsuarioId()).thenReturn(1L);
+        when(cadernoRepository.findDonosByIdIn(Set.of(3L))).thenReturn(List.of(dono));
+
+        Map<Long, Long> donos = referenciaCache.exigirCadernos(List.of(2L, 3L));
+
+        assertEquals(Map.of(2L, 1L, 3L, 1L), donos);
+        verify(cadernoRepository).findDonosByIdIn(Set.of(3L));
+    }
+
+    @Test
+    void capacidade_deveSerLimitada() {
+        for (long id = 1; id <= ReferenciaCache.CAPACIDADE + 1; id++) {
+            referenciaCache.registrarCaderno(id, 1L);
+        }
+        when(cadernoRepository.findUsuarioIdById(1L)).thenReturn(Optional.of(1L));
+
+        referenciaCache.exigirCaderno(1L);
+
+        verify(cadernoRepository).findUsuarioIdById(1L);
+    }
+}
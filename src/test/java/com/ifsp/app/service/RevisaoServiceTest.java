@@ -0,0 +1,164 @@
+package com.ifsp.app.service;
+
+import com.ifsp.app.controller.dto.PaginaDTO;
+import com.ifsp.app.controller.dto.RevisaoDTO;
+import com.ifsp.app.controller.dto.RevisaoResumoDTO;
+import com.ifsp.app.model.Anotacao;
+import com.ifsp.app.model.AnotacaoRevisao;
+import com.ifsp.app.model.repository.AnotacaoRepository;
+import com.ifsp.app.model.repository.AnotacaoRevisaoRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+class RevisaoServiceTest {
+
+    @Mock
+    private AnotacaoRevisaoRepository revisaoRepository;
+
+    @Mock
+    private AnotacaoRepository anotacaoRepository;
+
+    private RevisaoService revisaoService;
+
+    private final List<AnotacaoRevisao> gravadas = new ArrayList<>();
+
+    @BeforeEach
+    void setup() {
+        MockitoAnnotations.openMocks(this);
+        revisaoService = new RevisaoService(revisaoRepository, anotacaoRepository);
+        when(revisaoRepository.save(any(AnotacaoRevisao.class))).thenAnswer(i -> {
+            gravadas.add(i.getArgument(0));
+            return i.getArgument(0);
+        });
+        when(revisaoRepository.findUltimoNumeroByAnotacaoId(1L)).thenAnswer(i -> gravadas.isEmpty()
+                ? Optional.empty() : Optional.of(gravadas.get(gravadas.size() - 1).getNumero()));
+        when(revisaoRepository.findByAnotacaoIdAndNumeroBetweenOrderByNumero(eq(1L), anyInt(), anyInt()))
+                .thenAnswer(i -> {
+                    int de = i.getArgument(1);
+                    int ate = i.getArgument(2);
+                    return gravadas.stream().filter(r -> r.getNumero() >= de && r.getNumero() <= ate).toList();
+                });
+    }
+
+    @Test
+    void registrar_primeiraEdicao_deveGuardarEstadoAnteriorComoRevisaoZero() {
+        Anotacao anotacao = anotacao(1L, "Título", "texto novo");
+
+        revisaoService.registrar(anotacao, 0L, "Título", "texto", null);
+
+        assertEquals(2, gravadas.size());
+        assertTrue(gravadas.get(0).isCompleta());
+        assertFalse(gravadas.get(1).isCompleta());
+        assertNull(gravadas.get(1).getTitulo());
+        assertEquals("texto", revisaoService.findByNumero(1L, null, 0).corpo());
+        assertEquals("texto novo", revisaoService.findByNumero(1L, null, 1).corpo());
+    }
+
+    @Test
+    void registrar_quandoNadaMudou_naoDeveGravar() {
+        revisaoService.registrar(anotacao(1L, "t", "c"), 0L, "t", "c", null);
+
+        verify(revisaoRepository, never()).save(any());
+    }
+
+    @Test
+    void registrar_deltaDeveTerTamanhoDaEdicaoENaoDaAnotacao() {
+        String base = "parágrafo longo e variado número ".repeat(2_000);
+        revisaoService.registrar(anotacao(1L, "t", base + "!"), 0L, "t", base, null);
+
+        AnotacaoRevisao delta = gravadas.get(1);
+        assertTrue(delta.getDados().length < 32, "delta com " + delta.getDados().length + " bytes");
+    }
+
+    @Test
+    void findByNumero_deveReconstruirQualquerRevisaoPelaCompletaMaisProxima() {
+        List<String> corpos = new ArrayList<>();
+        List<String> titulos = new ArrayList<>();
+        String corpo = "";
+        String titulo = "v0";
+        corpos.add(corpo);
+        titulos.add(titulo);
+        for (int i = 1; i <= 45; i++) {
+            String novoCorpo = i % 3 == 0 ? corpo.substring(corpo.length() / 2) : corpo + "linha " + i + "\n";
+            String novoTitulo = i % 7 == 0 ? "v" + i : titulo;
+            revisaoService.registrar(anotacao((long) i, novoTitulo, novoCorpo), (long) i - 1, titulo, corpo, null);
+            corpo = novoCorpo;
+            titulo = novoTitulo;
+            corpos.add(corpo);
+            titulos.add(titulo);
+        }
+
+        assertTrue(gravadas.get(20).isCompleta());
+        assertTrue(gravadas.get(40).isCompleta());
+        for (int n = 0; n <= 45; n++) {
+            RevisaoDTO revisao = revisaoService.findByNumero(1L, null, n);
+            assertEquals(corpos.get(n), revisao.corpo(), "revisão " + n);
+            assertEquals(titulos.get(n), revisao.titulo(), "revisão " + n);
+        }
+        verify(revisaoRepository).findByAnotacaoIdAndNumeroBetweenOrderByNumero(1L, 40, 45);
+    }
+
+    @Test
+    void findByNumero_quandoNaoExistir_deveLancarNotFound() {
+        ResponseStatusException ex = assertThrows(ResponseStatusException.class,
+                () -> revisaoService.findByNumero(1L, null, 3));
+        assertEquals(HttpStatus.NOT_FOUND, ex.getStatusCode());
+    }
+
+    @Test
+    void findPage_quandoAnotacaoNaoExistir_deveLancarNotFound() {
+        when(revisaoRepository.findResumoByAnotacaoIdAndNumeroGreaterThan(9L, -1, Limit.of(51))).thenReturn(List.of());
+        when(anotacaoRepository.existsById(9L)).thenReturn(false);
+
+        ResponseStatusException ex = assertThrows(ResponseStatusException.class,
+                () -> revisaoService.findPage(9L, null, null, 50));
+        assertEquals(HttpStatus.NOT_FOUND, ex.getStatusCode());
+    }
+
+    @Test
+    void findPage_quandoAnotacaoForDeOutroUsuario_deveLancarNotFoundSemListar() {
+        when(anotacaoRepository.findUsuarioIdById(1L)).thenReturn(Optional.of(2L));
+
+        ResponseStatusException ex = assertThrows(ResponseStatusException.class,
+                () -> revisaoService.findPage(1L, 3L, null, 50));
+        assertEquals(HttpStatus.NOT_FOUND, ex.getStatusCode());
+        verifyNoInteractions(revisaoRepository);
+    }
+
+    @Test
+    void findPage_deveUsarNumeroComoCursor() {
+        RevisaoResumoDTO r1 = new RevisaoResumoDTO(1, 1L, false, null);
+        RevisaoResumoDTO r2 = new RevisaoResumoDTO(2, 2L, false, null);
+        when(revisaoRepository.findResumoByAnotacaoIdAndNumeroGreaterThan(1L, 0, Limit.of(2)))
+                .thenReturn(List.of(r1, r2));
+
+        PaginaDTO<RevisaoResumoDTO> pagina = revisaoService.findPage(1L, null, 0L, 1);
+
+        assertEquals(List.of(r1), pagina.itens());
+        assertEquals(1L, pagina.proximoCursor());
+    }
+
+    private Anotacao anotacao(Long versao, String titulo, String corpo) {
+        Anotacao anotacao = new Anotacao();
+        ReflectionTestUtils.setField(anotacao, "id", 1L);
+        ReflectionTestUtils.setField(anotacao, "versao", versao);
+        anotacao.setTitulo(titulo);
+        anotacao.setCorpo(corpo);
+        return anotacao;
+    }
+}
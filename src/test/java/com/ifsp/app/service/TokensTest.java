@@ -0,0 +1,58 @@
+package com.ifsp.app.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokensTest {
+
+    private static final String SEGREDO = Base64.getEncoder().encodeToString(new byte[32]);
+
+    private final Tokens tokens = new Tokens(SEGREDO, Duration.ofHours(1));
+
+    @Test
+    void verificar_deveDevolverOUsuarioDoTokenEmitido() {
+        Tokens.Emitido emitido = tokens.emitir(42L);
+
+        assertEquals(42L, tokens.verificar(emitido.valor()));
+        assertEquals(42L, tokens.verificar(emitido.valor()));
+    }
+
+    @Test
+    void verificar_quandoAssinaturaNaoConferir_deveDevolverNulo() {
+        String valor = tokens.emitir(42L).valor();
+        String outro = new Tokens(Base64.getEncoder().encodeToString("x".repeat(32).getBytes()), Duration.ofHours(1))
+                .emitir(42L).valor();
+
+        assertNull(tokens.verificar(outro));
+        assertNull(tokens.verificar(valor.substring(0, valor.indexOf('.')) + ".AAAA"));
+        assertNull(tokens.verificar("sem-ponto"));
+        assertNull(tokens.verificar("@@@.###"));
+    }
+
+    @Test
+    void verificar_quandoCargaForTrocada_deveDevolverNulo() {
+        String deUm = tokens.emitir(1L).valor();
+        String deDois = tokens.emitir(2L).valor();
+
+        String forjado = deDois.substring(0, deDois.indexOf('.')) + deUm.substring(deUm.indexOf('.'));
+
+        assertNull(tokens.verificar(forjado));
+    }
+
+    @Test
+    void verificar_quandoExpirado_deveDevolverNulo() {
+        Tokens curtos = new Tokens(SEGREDO, Duration.ofSeconds(-1));
+
+        assertNull(curtos.verificar(curtos.emitir(42L).valor()));
+    }
+
+    @Test
+    void construtor_quandoSegredoForCurto_deveFalhar() {
+        assertThrows(IllegalStateException.class,
+                () -> new Tokens(Base64.getEncoder().encodeToString(new byte[16]), Duration.ofHours(1)));
+    }
+}
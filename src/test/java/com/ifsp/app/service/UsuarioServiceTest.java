@@ -1,13 +1,17 @@
 package com.ifsp.app.service;
 
 import com.ifsp.app.controller.dto.UsuarioDTO;
+import com.ifsp.app.controller.dto.UsuarioResponseDTO;
 import com.ifsp.app.model.Usuario;
 import com.ifsp.app.model.repository.UsuarioRepository;
+import com.ifsp.app.service.busca.IndiceBusca;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.mockito.InjectMocks;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.util.Optional;
@@ -20,12 +24,25 @@ class UsuarioServiceTest {
     @Mock
     private UsuarioRepository usuarioRepository;
 
-    @InjectMocks
+    @Mock
+    private IndiceBusca indiceBusca;
+
+    @Mock
+    private ReferenciaCache referenciaCache;
+
+    private final Senhas senhas = new Senhas(4, 1, 8);
+
     private UsuarioService usuarioService;
 
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
+        usuarioService = new UsuarioService(usuarioRepository, indiceBusca, referenciaCache, senhas);
+    }
+
+    @AfterEach
+    void tearDown() {
+        senhas.encerrar();
     }
 
     @Test
@@ -39,11 +56,11 @@ class UsuarioServiceTest {
                 .thenReturn(Optional.of(mockUser));
 
         // ACT
-        Usuario resultado = usuarioService.login("teste@ifsp.com", "12345");
+        UsuarioResponseDTO resultado = usuarioService.login("teste@ifsp.com", "12345");
 
         // ASSERT
         assertNotNull(resultado);
-        assertEquals("teste@ifsp.com", resultado.getEmail());
+        assertEquals("teste@ifsp.com", resultado.email());
     }
 
     @Test
@@ -96,12 +113,12 @@ class UsuarioServiceTest {
         when(usuarioRepository.save(any(Usuario.class))).thenReturn(mockUsuario);
 
         // ACT
-        Usuario resultado = usuarioService.save(dto);
+        UsuarioResponseDTO resultado = usuarioService.save(dto);
 
         // ASSERT
         assertNotNull(resultado);
-        assertEquals("Gabriel", resultado.getNome());
-        assertEquals("novo@ifsp.com", resultado.getEmail());
+        assertEquals("Gabriel", resultado.nome());
+        assertEquals("novo@ifsp.com", resultado.email());
         verify(usuarioRepository, times(1)).save(any(Usuario.class));
     }
 
@@ -124,4 +141,64 @@ class UsuarioServiceTest {
         assertTrue(ex.getMessage().contains("Email"));
     }
 
+    @Test
+    void login_quandoSenhaEstiverComHash_deveConferirSemRegravar() {
+        Usuario usuario = new Usuario();
+        usuario.setEmail("teste@ifsp.com");
+        usuario.setSenha(senhas.codificar("12345"));
+        when(usuarioRepository.findByEmail("teste@ifsp.com")).thenReturn(Optional.of(usuario));
+
+        assertEquals("teste@ifsp.com", usuarioService.login("teste@ifsp.com", "12345").email());
+        assertThrows(ResponseStatusException.class, () -> usuarioService.login("teste@ifsp.com", "1234"));
+        verify(usuarioRepository, never()).updateSenha(any(), any(), any());
+    }
+
+    @Test
+    void login_quandoSenhaEstiverEmTextoPuro_deveRegravarComHash() {
+        Usuario usuario = new Usuario();
+        usuario.setEmail("teste@ifsp.com");
+        usuario.setSenha("12345");
+        when(usuarioRepository.findByEmail("teste@ifsp.com")).thenReturn(Optional.of(usuario));
+
+        usuarioService.login("teste@ifsp.com", "12345");
+
+        ArgumentCaptor<String> nova = ArgumentCaptor.forClass(String.class);
+        verify(usuarioRepository).updateSenha(eq(usuario.getId()), eq("12345"), nova.capture());
+        assertTrue(nova.getValue().startsWith("$2"));
+        assertTrue(senhas.confere("12345", nova.getValue()));
+    }
+
+    @Test
+    void save_deveGravarSenhaComHash() {
+        when(usuarioRepository.save(any(Usuario.class))).thenAnswer(i -> i.getArgument(0));
+
+        usuarioService.save(new UsuarioDTO("Gabriel", "novo@ifsp.com", "123"));
+
+        ArgumentCaptor<Usuario> salvo = ArgumentCaptor.forClass(Usuario.class);
+        verify(usuarioRepository).save(salvo.capture());
+        assertNotEquals("123", salvo.getValue().getSenha());
+        assertTrue(senhas.confere("123", salvo.getValue().getSenha()));
+        assertFalse(senhas.precisaRecodificar(salvo.getValue().getSenha()));
+    }
+
+    @Test
+    void senhas_quandoCustoAumentar_deveExigirRecodificacao() {
+        Senhas maisCaras = new Senhas(5, 1, 8);
+        try {
+            assertTrue(maisCaras.precisaRecodificar(senhas.codificar("123")));
+        } finally {
+            maisCaras.encerrar();
+        }
+    }
+
+    @Test
+    void update_quandoOutraEdicaoGravarAntes_deveLancarConflito() {
+        when(usuarioRepository.findById(1L)).thenReturn(Optional.of(new Usuario()));
+        when(usuarioRepository.save(any(Usuario.class)))
+                .thenThrow(new ObjectOptimisticLockingFailureException(Usuario.class, 1L));
+
+        ResponseStatusException ex = assertThrows(ResponseStatusException.class,
+                () -> usuarioService.update(1L, new UsuarioDTO()));
+        assertEquals(org.springframework.http.HttpStatus.CONFLICT, ex.getStatusCode());
+    }
 }
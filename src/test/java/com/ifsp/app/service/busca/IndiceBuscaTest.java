@@ -0,0 +1,130 @@
+package com.ifsp.app.service.busca;
+
+import com.ifsp.app.controller.dto.ResultadoBuscaDTO;
+import com.ifsp.app.model.repository.AnotacaoRepository;
+import com.ifsp.app.model.repository.AnotacaoTexto;
+import com.ifsp.app.model.repository.MigracaoCorpo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class IndiceBuscaTest {
+
+    private AnotacaoRepository anotacaoRepository;
+    private MigracaoCorpo migracaoCorpo;
+    private IndiceBusca indiceBusca;
+
+    @BeforeEach
+    void setUp() {
+        anotacaoRepository = mock(AnotacaoRepository.class);
+        migracaoCorpo = mock(MigracaoCorpo.class);
+        indiceBusca = new IndiceBusca(anotacaoRepository, migracaoCorpo);
+    }
+
+    @Test
+    void tokenizador_deveRemoverAcentosEStopwords() {
+        List<String> tokens = new ArrayList<>();
+        Tokenizador.tokens("Reunião de Orçamento às 10h: Café e PÃO", tokens::add);
+
+        assertEquals(List.of("reuniao", "orcamento", "10h", "cafe", "pao"), tokens);
+    }
+
+    @Test
+    void buscar_deveIgnorarAcentosEOrdenarPorRelevancia() {
+        indiceBusca.indexar(1L, 10L, "Receita de pão", "farinha, água e fermento");
+        indiceBusca.indexar(1L, 11L, "Lista de compras", "comprar pao e café");
+        indiceBusca.indexar(1L, 12L, "Reunião", "orçamento do projeto");
+
+        List<ResultadoBuscaDTO> resultado = indiceBusca.buscar(1L, "PAO", 10);
+
+        assertEquals(2, resultado.size());
+        assertEquals(10L, resultado.get(0).id());
+        assertEquals("Receita de pão", resultado.get(0).titulo());
+        assertEquals(11L, resultado.get(1).id());
+        assertTrue(resultado.get(0).pontuacao() > resultado.get(1).pontuacao());
+    }
+
+    @Test
+    void buscar_naoDeveRetornarAnotacoesDeOutroUsuario() {
+        indiceBusca.indexar(1L, 10L, "Segredo", "senha do wifi");
+        indiceBusca.indexar(2L, 20L, "Outro", "nada de mais");
+
+        assertTrue(indiceBusca.buscar(2L, "wifi", 10).isEmpty());
+        assertEquals(1, indiceBusca.buscar(1L, "wifi", 10).size());
+        assertTrue(indiceBusca.buscar(3L, "wifi", 10).isEmpty());
+    }
+
+    @Test
+    void indexar_deveSubstituirConteudoAnterior() {
+        indiceBusca.indexar(1L, 10L, "Rascunho", "texto antigo");
+        indiceBusca.indexar(1L, 10L, "Rascunho", "texto novo");
+
+        assertTrue(indiceBusca.buscar(1L, "antigo", 10).isEmpty());
+        assertEquals(1, indiceBusca.buscar(1L, "novo", 10).size());
+    }
+
+    @Test
+    void reindexar_deveCompactarSlotsDeVersoesAnteriores() {
+        IndiceUsuario indice = new IndiceUsuario();
+        for (int edicao = 0; edicao < 1_000; edicao++) {
+            indice.indexar(10L, "Rascunho", "edição " + edicao);
+        }
+
+        assertTrue(indice.slots() < 200, "slots: " + indice.slots());
+        assertEquals(1, indice.buscar("rascunho", 10).size());
+        assertEquals(10L, indice.buscar("999", 10).get(0).anotacaoId());
+    }
+
+    @Test
+    void remover_deveTirarAnotacaoDosResultadosMesmoAposCompactacao() {
+        for (long id = 1; id <= 300; id++) {
+            indiceBusca.indexar(1L, id, "nota " + id, "conteudo comum");
+        }
+        for (long id = 1; id <= 250; id++) {
+            indiceBusca.remover(1L, id);
+        }
+
+        List<ResultadoBuscaDTO> resultado = indiceBusca.buscar(1L, "comum", 100);
+
+        assertEquals(50, resultado.size());
+        assertTrue(resultado.stream().allMatch(r -> r.id() > 250));
+        assertEquals(299L, indiceBusca.buscar(1L, "299", 5).get(0).id());
+    }
+
+    @Test
+    void buscar_deveRespeitarLimite() {
+        for (long id = 1; id <= 30; id++) {
+            indiceBusca.indexar(1L, id, "nota", "conteudo " + id);
+        }
+
+        assertEquals(5, indiceBusca.buscar(1L, "nota", 5).size());
+    }
+
+    @Test
+    void reconstruir_deveIndexarTodasAnotacoesDoRepositorio() {
+        AnotacaoTexto a = texto(1L, 7L, "Viagem", "passagens para Lisboa");
+        AnotacaoTexto b = texto(2L, 8L, "Trabalho", "relatório mensal");
+        when(anotacaoRepository.findTextoByIdGreaterThan(eq(0L), any(Limit.class))).thenReturn(List.of(a, b));
+
+        indiceBusca.afterSingletonsInstantiated();
+
+        assertEquals(1L, indiceBusca.buscar(7L, "lisboa", 10).get(0).id());
+        assertEquals(2L, indiceBusca.buscar(8L, "relatorio", 10).get(0).id());
+        verify(migracaoCorpo).migrar();
+    }
+
+    private AnotacaoTexto texto(Long id, Long usuarioId, String titulo, String corpo) {
+        AnotacaoTexto t = mock(AnotacaoTexto.class);
+        when(t.getId()).thenReturn(id);
+        when(t.getUsuarioId()).thenReturn(usuarioId);
+        when(t.getTitulo()).thenReturn(titulo);
+        when(t.getCorpo()).thenReturn(corpo);
+        return t;
+    }
+}